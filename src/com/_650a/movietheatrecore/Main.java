@@ -52,9 +52,16 @@ import com._650a.movietheatrecore.gui.AdminWizardListener;
 import com._650a.movietheatrecore.media.MediaLibrary;
 import com._650a.movietheatrecore.media.MediaManager;
 import com._650a.movietheatrecore.playback.PlaybackManager;
+import com._650a.movietheatrecore.playback.RenderExecutor;
+import com._650a.movietheatrecore.playback.RenditionCache;
+import com._650a.movietheatrecore.map.colors.ColorMetric;
+import com._650a.movietheatrecore.map.colors.ColorTableMode;
 import com._650a.movietheatrecore.map.colors.MCSDGenBukkit;
+import com._650a.movietheatrecore.map.colors.MCSDGenParallel;
+import com._650a.movietheatrecore.map.colors.MapColorSpaceCache;
 import com._650a.movietheatrecore.map.colors.MapColorSpaceData;
 import com._650a.movietheatrecore.map.util.MapUtilVersion;
+import com._650a.movietheatrecore.render.ResamplePool;
 import com._650a.movietheatrecore.resourcepack.listeners.ResourcePackStatus;
 import com._650a.movietheatrecore.screen.Screen;
 import com._650a.movietheatrecore.screen.ScreenManager;
@@ -144,6 +151,8 @@ public class Main extends JavaPlugin implements Listener {
 
 	private ScreenManager screenManager;
 	private PlaybackManager playbackManager;
+	private RenderExecutor renderExecutor;
+	private RenditionCache renditionCache;
 	private MediaLibrary mediaLibrary;
 	private MediaManager mediaManager;
 	private AudioPackManager audioPackManager;
@@ -269,9 +278,25 @@ public class Main extends JavaPlugin implements Listener {
 			Bukkit.getScheduler().runTaskAsynchronously(this, new Runnable() {
 				@Override
 				public void run() {
-				      MCSDGenBukkit bukkitGen = new MCSDGenBukkit();
-				      bukkitGen.generate();
-				      mapColorSpaceData.readFrom((MapColorSpaceData)bukkitGen);
+					ColorMetric metric = ColorMetric.fromName(configuration.rendering_color_metric());
+					MapColorSpaceCache colorCache = new MapColorSpaceCache(configuration.getColorCacheFolder(), Bukkit.getBukkitVersion(), metric);
+					MCSDGenBukkit.loadPalette(mapColorSpaceData);
+					if(!colorCache.load(mapColorSpaceData)) {
+						long start = System.currentTimeMillis();
+						MCSDGenParallel generator = new MCSDGenParallel(metric);
+						MCSDGenBukkit.loadPalette(generator);
+						generator.generate();
+						Bukkit.getLogger().info("[MovieTheatreCore]: Generated " + metric + " map color table in " + (System.currentTimeMillis() - start) + "ms.");
+						try {
+							colorCache.save(generator);
+						}catch(IOException e) {
+							Bukkit.getLogger().warning("[MovieTheatreCore]: Failed to persist map color table: " + e.getMessage());
+						}
+						if(!colorCache.load(mapColorSpaceData)) {
+							mapColorSpaceData.setData(generator.getData());
+						}
+					}
+					mapColorSpaceData.useTableMode(ColorTableMode.fromName(configuration.rendering_color_table()), configuration.rendering_color_table_refine());
 				}
 			});
 			
@@ -287,6 +312,10 @@ public class Main extends JavaPlugin implements Listener {
 		        Bukkit.getLogger().warning("[MovieTheatreCore]: The server running version is old and isn't well supported, you may encounter future issues while playing videos.");
 	        }
 	        
+	        int renderThreads = RenderExecutor.resolveThreads(configuration.rendering_render_threads());
+	        renderExecutor = new RenderExecutor(renderThreads, getLogger());
+	        ResamplePool.start(renderThreads);
+	        renditionCache = new RenditionCache(configuration.getRenditionCacheFolder(), configuration.rendering_rendition_cache_mb() * 1024L * 1024L, renderExecutor, getLogger());
 	        screenManager = new ScreenManager(this);
 	        playbackManager = new PlaybackManager(this, screenManager);
 	        mediaLibrary = new MediaLibrary(this);
@@ -349,6 +378,13 @@ public class Main extends JavaPlugin implements Listener {
 		if(playbackManager != null) {
 			playbackManager.stopAll();
 		}
+		if(renditionCache != null) {
+			renditionCache.shutdown();
+		}
+		if(renderExecutor != null) {
+			renderExecutor.shutdown(2000L);
+		}
+		ResamplePool.shutdown();
 		if(theatreManager != null) {
 			theatreManager.shutdown();
 		}
@@ -699,6 +735,26 @@ public class Main extends JavaPlugin implements Listener {
 		return playbackManager;
 	}
 
+    /**
+     * Gets the plugin owned render threads shared by every playing screen.
+     *
+     * @return Render executor, null before the plugin is enabled.
+     */
+
+	public RenderExecutor getRenderExecutor() {
+		return renderExecutor;
+	}
+
+    /**
+     * Gets the videos pre-rendered per screen geometry.
+     *
+     * @return Rendition cache, null before the plugin is enabled.
+     */
+
+	public RenditionCache getRenditionCache() {
+		return renditionCache;
+	}
+
 	public AudioPackManager getAudioPackManager() {
 		return audioPackManager;
 	}
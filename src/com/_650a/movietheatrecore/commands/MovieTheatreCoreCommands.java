@@ -8,6 +8,7 @@ import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.UUID;
 
 import org.bukkit.Bukkit;
@@ -23,8 +24,13 @@ import org.bukkit.util.StringUtil;
 import com._650a.movietheatrecore.Main;
 import com._650a.movietheatrecore.configuration.Configuration;
 import com._650a.movietheatrecore.dependency.DependencyManager;
+import com._650a.movietheatrecore.playback.FramePrefetcher;
+import com._650a.movietheatrecore.playback.FrameScheduler;
 import com._650a.movietheatrecore.playback.PlaybackManager;
+import com._650a.movietheatrecore.playback.RenderExecutor;
 import com._650a.movietheatrecore.resourcepack.EmbeddedPackServer;
+import com._650a.movietheatrecore.render.DetailBand;
+import com._650a.movietheatrecore.render.DitherMode;
 import com._650a.movietheatrecore.render.ScalingMode;
 import com._650a.movietheatrecore.screen.Screen;
 import com._650a.movietheatrecore.screen.ScreenManager;
@@ -643,6 +649,59 @@ public class MovieTheatreCoreCommands implements CommandExecutor, TabCompleter {
                 sender.sendMessage(ChatColor.GREEN + "Scale mode for " + screen.getName() + " set to " + mode.name() + ".");
                 return true;
             }
+            case "dither" -> {
+                if (!PermissionUtil.hasPermission(sender, "movietheatrecore.screen.manage")) {
+                    sender.sendMessage(configuration.insufficient_permissions());
+                    return true;
+                }
+                if (filteredArgs.size() < 3) {
+                    sender.sendMessage(ChatColor.RED + "/mtc dither <screen> <none|ordered|ordered-stable|floyd-steinberg>");
+                    return true;
+                }
+                Screen screen = resolveScreen(screenManager, filteredArgs.get(1));
+                if (screen == null) {
+                    sender.sendMessage(ChatColor.RED + "Unknown screen: " + filteredArgs.get(1));
+                    return true;
+                }
+                DitherMode mode = parseDitherMode(filteredArgs.get(2));
+                if (mode == null) {
+                    sender.sendMessage(ChatColor.RED + "Unknown dither mode: " + filteredArgs.get(2));
+                    return true;
+                }
+                screen.setDitherMode(mode);
+                sender.sendMessage(ChatColor.GREEN + "Dither mode for " + screen.getName() + " set to " + mode.name() + ".");
+                return true;
+            }
+            case "lod" -> {
+                if (!PermissionUtil.hasPermission(sender, "movietheatrecore.screen.manage")) {
+                    sender.sendMessage(configuration.insufficient_permissions());
+                    return true;
+                }
+                if (filteredArgs.size() < 3) {
+                    sender.sendMessage(ChatColor.RED + "/mtc lod <screen> <off|distance:divisor[:resolution]...>");
+                    return true;
+                }
+                Screen screen = resolveScreen(screenManager, filteredArgs.get(1));
+                if (screen == null) {
+                    sender.sendMessage(ChatColor.RED + "Unknown screen: " + filteredArgs.get(1));
+                    return true;
+                }
+                List<DetailBand> bands = new ArrayList<>();
+                if (!filteredArgs.get(2).equalsIgnoreCase("off")) {
+                    for (String value : filteredArgs.subList(2, filteredArgs.size())) {
+                        try {
+                            bands.add(DetailBand.parse(value));
+                        } catch (IllegalArgumentException e) {
+                            sender.sendMessage(ChatColor.RED + e.getMessage());
+                            return true;
+                        }
+                    }
+                }
+                screen.setDetailBands(bands);
+                sender.sendMessage(ChatColor.GREEN + "Detail bands for " + screen.getName() + " set to "
+                        + (bands.isEmpty() ? "off" : formatDetailBands(screen.getDetailBands())) + ". They apply from the next playback.");
+                return true;
+            }
             case "reload" -> {
                 if (!PermissionUtil.hasPermission(sender, "movietheatrecore.admin")) {
                     sender.sendMessage(configuration.insufficient_permissions());
@@ -657,6 +716,14 @@ public class MovieTheatreCoreCommands implements CommandExecutor, TabCompleter {
                 sender.sendMessage(ChatColor.GREEN + "MovieTheatreCore reloaded.");
                 return true;
             }
+            case "status" -> {
+                if (!PermissionUtil.hasPermission(sender, "movietheatrecore.admin")) {
+                    sender.sendMessage(configuration.insufficient_permissions());
+                    return true;
+                }
+                sendPlaybackStatus(sender);
+                return true;
+            }
             case "debug" -> {
                 if (!PermissionUtil.hasPermission(sender, "movietheatrecore.admin")) {
                     sender.sendMessage(configuration.insufficient_permissions());
@@ -697,7 +764,7 @@ public class MovieTheatreCoreCommands implements CommandExecutor, TabCompleter {
         List<String> completions = new ArrayList<>();
         try {
             if (args.length == 1) {
-                List<String> candidates = List.of("screen", "media", "play", "stop", "pause", "resume", "scale", "reload", "diagnose", "update", "pack", "deps", "theatre", "admin", "debug");
+                List<String> candidates = List.of("screen", "media", "play", "stop", "pause", "resume", "scale", "dither", "lod", "reload", "status", "diagnose", "update", "pack", "deps", "theatre", "admin", "debug");
                 StringUtil.copyPartialMatches(args[0], candidates, completions);
             } else if (args.length == 2 && args[0].equalsIgnoreCase("screen")) {
                 List<String> candidates = List.of("create", "delete", "list");
@@ -729,7 +796,7 @@ public class MovieTheatreCoreCommands implements CommandExecutor, TabCompleter {
             } else if (args.length == 2 && args[0].equalsIgnoreCase("theatre")) {
                 List<String> candidates = List.of("room", "schedule", "play", "stop", "doctor");
                 StringUtil.copyPartialMatches(args[1], candidates, completions);
-            } else if (args.length == 2 && List.of("play", "stop", "pause", "resume", "scale").contains(args[0].toLowerCase())) {
+            } else if (args.length == 2 && List.of("play", "stop", "pause", "resume", "scale", "dither", "lod").contains(args[0].toLowerCase())) {
                 List<String> candidates = new ArrayList<>();
                 for (Screen screen : plugin.getScreenManager().getScreens().values()) {
                     candidates.add(screen.getName());
@@ -773,6 +840,12 @@ public class MovieTheatreCoreCommands implements CommandExecutor, TabCompleter {
             } else if (args.length == 3 && args[0].equalsIgnoreCase("scale")) {
                 List<String> candidates = List.of("fit", "fill", "stretch");
                 StringUtil.copyPartialMatches(args[2], candidates, completions);
+            } else if (args.length == 3 && args[0].equalsIgnoreCase("dither")) {
+                List<String> candidates = List.of("none", "ordered", "ordered-stable", "floyd-steinberg");
+                StringUtil.copyPartialMatches(args[2], candidates, completions);
+            } else if (args.length == 3 && args[0].equalsIgnoreCase("lod")) {
+                List<String> candidates = List.of("off", "24:2", "32:4:64");
+                StringUtil.copyPartialMatches(args[2], candidates, completions);
             } else if (args.length == 4 && args[0].equalsIgnoreCase("play") && args[2].equalsIgnoreCase("media")) {
                 List<String> candidates = new ArrayList<>();
                 for (com._650a.movietheatrecore.media.MediaEntry entry : plugin.getMediaLibrary().listEntries()) {
@@ -805,7 +878,10 @@ public class MovieTheatreCoreCommands implements CommandExecutor, TabCompleter {
         sender.sendMessage(ChatColor.YELLOW + "/mtc pause <screen>");
         sender.sendMessage(ChatColor.YELLOW + "/mtc resume <screen>");
         sender.sendMessage(ChatColor.YELLOW + "/mtc scale <screen> <fit|fill|stretch>");
+        sender.sendMessage(ChatColor.YELLOW + "/mtc dither <screen> <none|ordered|ordered-stable|floyd-steinberg>");
+        sender.sendMessage(ChatColor.YELLOW + "/mtc lod <screen> <off|distance:divisor[:resolution]...>");
         sender.sendMessage(ChatColor.YELLOW + "/mtc reload");
+        sender.sendMessage(ChatColor.YELLOW + "/mtc status");
         sender.sendMessage(ChatColor.YELLOW + "/mtc diagnose");
         sender.sendMessage(ChatColor.YELLOW + "/mtc update check");
         sender.sendMessage(ChatColor.YELLOW + "/mtc pack status");
@@ -989,6 +1065,51 @@ public class MovieTheatreCoreCommands implements CommandExecutor, TabCompleter {
         }
     }
 
+    private void sendPlaybackStatus(CommandSender sender) {
+        ScreenManager screenManager = plugin.getScreenManager();
+        PlaybackManager playbackManager = plugin.getPlaybackManager();
+        sender.sendMessage(ChatColor.GOLD + "MovieTheatreCore playback status:");
+        boolean any = false;
+        for (Screen screen : screenManager.getScreens().values()) {
+            com._650a.movietheatrecore.playback.PlaybackSession session = playbackManager.getSession(screen);
+            if (session == null) {
+                continue;
+            }
+            any = true;
+            sender.sendMessage(ChatColor.YELLOW + screen.getName() + ChatColor.GRAY + ": " + session.getVideo().getName()
+                    + " (" + session.getState().name().toLowerCase(Locale.ROOT) + ", frame " + session.getCurrentFrameIndex()
+                    + "/" + session.getVideo().getTotalFrames() + ", " + fps(session.getVideo().getFrameRate()) + ")");
+            if (session.getIngestWatermark() >= 0) {
+                sender.sendMessage(ChatColor.GRAY + "  Still loading: " + session.getIngestWatermark() + "/" + session.getVideo().getTotalFrames()
+                        + " frames extracted.");
+            }
+            FrameScheduler.Stats schedule = session.getScheduleStats();
+            if (schedule.skipped() > 0 || schedule.renderStride() > 1) {
+                sender.sendMessage(ChatColor.GRAY + "  Frame budget: " + schedule.skipped() + " of " + (schedule.accepted() + schedule.skipped())
+                        + " frames skipped, rendering every " + schedule.renderStride() + " frame(s).");
+            }
+            Map<UUID, Double> rates = session.getViewerFrameRates();
+            if (rates.isEmpty()) {
+                sender.sendMessage(ChatColor.GRAY + "  No viewers.");
+                continue;
+            }
+            for (Map.Entry<UUID, Double> entry : rates.entrySet()) {
+                Player player = Bukkit.getPlayer(entry.getKey());
+                String name = player == null ? entry.getKey().toString() : player.getName();
+                String note = session.isKeyframeOnly(entry.getKey()) ? " (keyframes only, connection backed up)"
+                        : entry.getValue() < session.getVideo().getFrameRate() ? " (throttled, connection backed up)" : "";
+                sender.sendMessage(ChatColor.GRAY + "  " + name + ": " + fps(entry.getValue()) + note);
+            }
+        }
+        if (!any) {
+            sender.sendMessage(ChatColor.GRAY + "Nothing is playing.");
+        }
+    }
+
+    private String fps(double value) {
+        return String.format(Locale.ROOT, "%.1f fps", value);
+    }
+
     private void sendScreenDebug(CommandSender sender, String screenName) {
         ScreenManager screenManager = plugin.getScreenManager();
         Screen screen = resolveScreen(screenManager, screenName);
@@ -1016,11 +1137,32 @@ public class MovieTheatreCoreCommands implements CommandExecutor, TabCompleter {
         sender.sendMessage(ChatColor.GRAY + "Facing: " + screen.getFacingLocation());
         sender.sendMessage(ChatColor.GRAY + "Media: " + media);
         sender.sendMessage(ChatColor.GRAY + "Play state: " + state);
-        sender.sendMessage(ChatColor.GRAY + "Viewers: " + viewerCount + " (audio listeners=" + audioListeners + ")");
+        sender.sendMessage(ChatColor.GRAY + "Viewers: " + viewerCount + " (audio listeners=" + audioListeners
+                + (session == null ? "" : ", culled=" + session.getCulledViewerCount()) + ")");
         sender.sendMessage(ChatColor.GRAY + "Effective radius: " + configuration.maximum_distance_to_receive());
         sender.sendMessage(ChatColor.GRAY + "Frames count: " + framesCount);
         sender.sendMessage(ChatColor.GRAY + "Map IDs count: " + mapIds);
         sender.sendMessage(ChatColor.GRAY + "Current frame index: " + frameIndex);
+        sender.sendMessage(ChatColor.GRAY + "Detail bands: " + formatDetailBands(screen.getDetailBands()));
+        if (session != null) {
+            sender.sendMessage(ChatColor.GRAY + "Frames: " + (session.isServedFromRendition() ? "pre-rendered"
+                    : session.isPipingFrames() ? "piped from ffmpeg" : "decoded live"));
+            if (session.getIngestWatermark() >= 0) {
+                sender.sendMessage(ChatColor.GRAY + "Ingest watermark: " + session.getIngestWatermark() + "/" + session.getVideo().getTotalFrames());
+            }
+            FramePrefetcher.Stats prefetch = session.getPrefetchStats();
+            sender.sendMessage(ChatColor.GRAY + "Prefetch: " + prefetch.buffered() + "/" + prefetch.capacity() + " frames ("
+                    + megabytes(prefetch.bufferedBytes()) + ", all screens " + megabytes(prefetch.totalBufferedBytes()) + ")"
+                    + " underruns=" + prefetch.underruns() + " dropped=" + prefetch.dropped());
+            sender.sendMessage(ChatColor.GRAY + "Tile updates: sent=" + session.getTilesSent() + " skipped=" + session.getTilesSkipped()
+                    + " (" + megabytes(session.getMapBytesSent()) + " sent, " + megabytes(session.getMapBytesSaved()) + " saved)");
+            RenderExecutor executor = plugin.getRenderExecutor();
+            sender.sendMessage(ChatColor.GRAY + "Render priority: " + session.getRenderPriority().name().toLowerCase(java.util.Locale.ROOT)
+                    + " (" + executor.getParallelism() + " render threads, " + executor.getQueuedTasks() + " queued)");
+            FrameScheduler.Stats schedule = session.getScheduleStats();
+            sender.sendMessage(ChatColor.GRAY + "Frame budget: accepted=" + schedule.accepted() + " skipped=" + schedule.skipped()
+                    + " render stride=" + schedule.renderStride());
+        }
         sender.sendMessage(ChatColor.GRAY + "Pack URL: " + (packUrl == null || packUrl.isBlank() ? "n/a" : packUrl));
         sender.sendMessage(ChatColor.GRAY + "Pack SHA1: " + (packSha1 == null || packSha1.isBlank() ? "n/a" : packSha1));
     }
@@ -1071,6 +1213,10 @@ public class MovieTheatreCoreCommands implements CommandExecutor, TabCompleter {
         return value ? "yes" : "no";
     }
 
+    private String megabytes(long bytes) {
+        return String.format(java.util.Locale.ROOT, "%.1f MB", bytes / (1024.0 * 1024.0));
+    }
+
     private String formatTimestamp(long value) {
         if (value <= 0) {
             return "n/a";
@@ -1117,6 +1263,25 @@ public class MovieTheatreCoreCommands implements CommandExecutor, TabCompleter {
         }
     }
 
+    private String formatDetailBands(List<DetailBand> bands) {
+        if (bands.isEmpty()) {
+            return "off";
+        }
+        List<String> parts = new ArrayList<>();
+        for (DetailBand band : bands) {
+            parts.add(band.toString());
+        }
+        return String.join(" ", parts);
+    }
+
+    private DitherMode parseDitherMode(String value) {
+        try {
+            return DitherMode.valueOf(value.toUpperCase().replace('-', '_'));
+        } catch (IllegalArgumentException ignored) {
+            return null;
+        }
+    }
+
     private String resolveMediaAddUrl(CommandSender sender, List<String> args) {
         if (args.size() == 2) {
             return args.get(1);
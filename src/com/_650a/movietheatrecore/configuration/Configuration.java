@@ -42,6 +42,8 @@ public class Configuration {
 	private final File screensFolder = new File(plugin.getDataFolder() + "/screens/");
 	private final File mapsFolder = new File(plugin.getDataFolder() + "/images/maps/");
 	private final File mediaCacheFolder = new File(plugin.getDataFolder() + "/cache/videos/");
+	private final File colorCacheFolder = new File(plugin.getDataFolder() + "/cache/colors/");
+	private final File renditionCacheFolder = new File(plugin.getDataFolder() + "/cache/renditions/");
 	private final File resourcePackFolder = new File(plugin.getDataFolder() + "/resourcepacks/");
 	private final File audioChunksFolder = new File(plugin.getDataFolder() + "/audio/");
 	private final File theatreFolder = new File(plugin.getDataFolder() + "/theatre/");
@@ -94,6 +96,25 @@ public class Configuration {
 			fileconfiguration.set("video.visible-screen-frames-support", false);
 			fileconfiguration.set("video.glowing-screen-frames-support", false);
 
+			fileconfiguration.set("rendering.color-metric", "WEIGHTED_RGB");
+			fileconfiguration.set("rendering.color-table", "FULL");
+			fileconfiguration.set("rendering.color-table-refine", true);
+			fileconfiguration.set("rendering.resample-filter", "AREA");
+			fileconfiguration.set("rendering.prefetch-frames", 8);
+			fileconfiguration.set("rendering.prefetch-memory-mb", 64);
+			fileconfiguration.set("rendering.render-threads", 0);
+			fileconfiguration.set("rendering.keyframe-interval-seconds", 10);
+			fileconfiguration.set("rendering.adaptive-max-pending-kb", 512);
+			fileconfiguration.set("rendering.budget-tiles-per-tick", 0);
+			fileconfiguration.set("rendering.budget-kbytes-per-second", 0);
+			fileconfiguration.set("rendering.budget-render-ms-per-tick", 0);
+			fileconfiguration.set("rendering.cull-view-angle", 0);
+			fileconfiguration.set("rendering.cull-behind-screen", false);
+			fileconfiguration.set("rendering.cull-line-of-sight-ticks", 0);
+			fileconfiguration.set("rendering.rendition-cache-mb", 4096);
+			fileconfiguration.set("rendering.pipe-frames", false);
+			fileconfiguration.set("rendering.progressive-lead-seconds", 10);
+
 			fileconfiguration.set("sources.allowlist-mode", "OFF");
 			fileconfiguration.set("sources.allowed-domains", java.util.Collections.emptyList());
 			fileconfiguration.set("sources.max-download-mb", 1024);
@@ -180,6 +201,12 @@ public class Configuration {
 		if(!mediaCacheFolder.exists()) {
 			mediaCacheFolder.mkdirs();
 		}
+		if(!colorCacheFolder.exists()) {
+			colorCacheFolder.mkdirs();
+		}
+		if(!renditionCacheFolder.exists()) {
+			renditionCacheFolder.mkdirs();
+		}
 		if(!resourcePackFolder.exists()) {
 			resourcePackFolder.mkdirs();
 		}
@@ -277,6 +304,14 @@ public class Configuration {
 		return mediaCacheFolder;
 	}
 
+	public File getColorCacheFolder() {
+		return colorCacheFolder;
+	}
+
+	public File getRenditionCacheFolder() {
+		return renditionCacheFolder;
+	}
+
 	public File getResourcePackFolder() {
 		return resourcePackFolder;
 	}
@@ -494,6 +529,78 @@ public class Configuration {
 		return getBooleanValue("video.glowing-screen-frames-support", "plugin.glowing-screen-frames-support", false);
 	}
 	
+	public String rendering_color_metric() {
+		return getStringValue("rendering.color-metric", null, "WEIGHTED_RGB");
+	}
+
+	public String rendering_color_table() {
+		return getStringValue("rendering.color-table", null, "FULL");
+	}
+
+	public boolean rendering_color_table_refine() {
+		return getBooleanValue("rendering.color-table-refine", null, true);
+	}
+
+	public String rendering_resample_filter() {
+		return getStringValue("rendering.resample-filter", null, "AREA");
+	}
+
+	public int rendering_prefetch_frames() {
+		return getIntValue("rendering.prefetch-frames", null, 8);
+	}
+
+	public int rendering_prefetch_memory_mb() {
+		return getIntValue("rendering.prefetch-memory-mb", null, 64);
+	}
+
+	public int rendering_render_threads() {
+		return getIntValue("rendering.render-threads", null, 0);
+	}
+
+	public int rendering_keyframe_interval_seconds() {
+		return getIntValue("rendering.keyframe-interval-seconds", null, 10);
+	}
+
+	public int rendering_adaptive_max_pending_kb() {
+		return getIntValue("rendering.adaptive-max-pending-kb", null, 512);
+	}
+
+	public int rendering_budget_tiles_per_tick() {
+		return getIntValue("rendering.budget-tiles-per-tick", null, 0);
+	}
+
+	public int rendering_budget_kbytes_per_second() {
+		return getIntValue("rendering.budget-kbytes-per-second", null, 0);
+	}
+
+	public int rendering_budget_render_ms_per_tick() {
+		return getIntValue("rendering.budget-render-ms-per-tick", null, 0);
+	}
+
+	public int rendering_cull_view_angle() {
+		return getIntValue("rendering.cull-view-angle", null, 0);
+	}
+
+	public boolean rendering_cull_behind_screen() {
+		return getBooleanValue("rendering.cull-behind-screen", null, false);
+	}
+
+	public int rendering_cull_line_of_sight_ticks() {
+		return getIntValue("rendering.cull-line-of-sight-ticks", null, 0);
+	}
+
+	public int rendering_rendition_cache_mb() {
+		return getIntValue("rendering.rendition-cache-mb", null, 4096);
+	}
+
+	public boolean rendering_pipe_frames() {
+		return getBooleanValue("rendering.pipe-frames", null, false);
+	}
+
+	public int rendering_progressive_lead_seconds() {
+		return getIntValue("rendering.progressive-lead-seconds", null, 10);
+	}
+
 	public int maximum_distance_to_receive() {
 		return getIntValue("general.maximum-distance-to-receive", "plugin.maximum-distance-to-receive", 10);
 	}
@@ -916,6 +1023,25 @@ public class Configuration {
 		changed |= ensureBoolean(configuration, "video.visible-screen-frames-support", "plugin.visible-screen-frames-support", false);
 		changed |= ensureBoolean(configuration, "video.glowing-screen-frames-support", "plugin.glowing-screen-frames-support", false);
 
+		changed |= ensureString(configuration, "rendering.color-metric", null, "WEIGHTED_RGB");
+		changed |= ensureString(configuration, "rendering.color-table", null, "FULL");
+		changed |= ensureBoolean(configuration, "rendering.color-table-refine", null, true);
+		changed |= ensureString(configuration, "rendering.resample-filter", null, "AREA");
+		changed |= ensureInt(configuration, "rendering.prefetch-frames", null, 8);
+		changed |= ensureInt(configuration, "rendering.prefetch-memory-mb", null, 64);
+		changed |= ensureInt(configuration, "rendering.render-threads", null, 0);
+		changed |= ensureInt(configuration, "rendering.keyframe-interval-seconds", null, 10);
+		changed |= ensureInt(configuration, "rendering.adaptive-max-pending-kb", null, 512);
+		changed |= ensureInt(configuration, "rendering.budget-tiles-per-tick", null, 0);
+		changed |= ensureInt(configuration, "rendering.budget-kbytes-per-second", null, 0);
+		changed |= ensureInt(configuration, "rendering.budget-render-ms-per-tick", null, 0);
+		changed |= ensureInt(configuration, "rendering.cull-view-angle", null, 0);
+		changed |= ensureBoolean(configuration, "rendering.cull-behind-screen", null, false);
+		changed |= ensureInt(configuration, "rendering.cull-line-of-sight-ticks", null, 0);
+		changed |= ensureInt(configuration, "rendering.rendition-cache-mb", null, 4096);
+		changed |= ensureBoolean(configuration, "rendering.pipe-frames", null, false);
+		changed |= ensureInt(configuration, "rendering.progressive-lead-seconds", null, 10);
+
 		boolean hasAllowlistMode = configuration.contains("sources.allowlist-mode") || configuration.contains("media.allowlist-mode");
 		changed |= ensureStringList(configuration, "sources.allowed-domains", "media.allowed-domains");
 		changed |= ensureString(configuration, "sources.allowlist-mode", "media.allowlist-mode", "OFF");
@@ -0,0 +1,125 @@
+package com._650a.movietheatrecore.map.colors;
+
+import java.util.Locale;
+
+/**
+ * Distance metrics used to match RGB colors against the map palette.
+ *
+ * <p>Each metric maps a color into a three dimensional coordinate space and
+ * measures distance between two coordinates. The axis weights are lower
+ * bounds of how much a difference along a single axis contributes to the
+ * distance, which is what allows {@link PaletteTree} to prune its search.
+ */
+public enum ColorMetric {
+
+    /**
+     * The weighted RGB distance used by Bukkit's {@code MapPalette.matchColor}.
+     * Produces the same table as the original generator.
+     */
+    WEIGHTED_RGB(2.0, 4.0, 2.0) {
+        @Override
+        public void toCoordinates(int r, int g, int b, double[] out) {
+            out[0] = r;
+            out[1] = g;
+            out[2] = b;
+        }
+
+        @Override
+        public double distance(double[] c1, double[] c2) {
+            double rmean = (c1[0] + c2[0]) / 2.0;
+            double r = c1[0] - c2[0];
+            double g = c1[1] - c2[1];
+            int b = (int) c1[2] - (int) c2[2];
+            double weightR = 2 + rmean / 256.0;
+            double weightG = 4.0;
+            double weightB = 2 + (255 - rmean) / 256.0;
+            return weightR * r * r + weightG * g * g + weightB * b * b;
+        }
+    },
+
+    OKLAB(1.0, 1.0, 1.0) {
+        @Override
+        public void toCoordinates(int r, int g, int b, double[] out) {
+            double lr = LINEAR[r & 0xFF];
+            double lg = LINEAR[g & 0xFF];
+            double lb = LINEAR[b & 0xFF];
+            double l = Math.cbrt(0.4122214708 * lr + 0.5363325363 * lg + 0.0514459929 * lb);
+            double m = Math.cbrt(0.2119034982 * lr + 0.6806995451 * lg + 0.1073969566 * lb);
+            double s = Math.cbrt(0.0883024619 * lr + 0.2817188376 * lg + 0.6299787005 * lb);
+            out[0] = 0.2104542553 * l + 0.7936177850 * m - 0.0040720468 * s;
+            out[1] = 1.9779984951 * l - 2.4285922050 * m + 0.4505937099 * s;
+            out[2] = 0.0259040371 * l + 0.7827717662 * m - 0.8086757660 * s;
+        }
+
+        @Override
+        public double distance(double[] c1, double[] c2) {
+            return euclidean(c1, c2);
+        }
+    },
+
+    CIELAB(1.0, 1.0, 1.0) {
+        @Override
+        public void toCoordinates(int r, int g, int b, double[] out) {
+            double lr = LINEAR[r & 0xFF];
+            double lg = LINEAR[g & 0xFF];
+            double lb = LINEAR[b & 0xFF];
+            double x = labCurve((0.4124564 * lr + 0.3575761 * lg + 0.1804375 * lb) / 0.95047);
+            double y = labCurve(0.2126729 * lr + 0.7151522 * lg + 0.0721750 * lb);
+            double z = labCurve((0.0193339 * lr + 0.1191920 * lg + 0.9503041 * lb) / 1.08883);
+            out[0] = 116.0 * y - 16.0;
+            out[1] = 500.0 * (x - y);
+            out[2] = 200.0 * (y - z);
+        }
+
+        @Override
+        public double distance(double[] c1, double[] c2) {
+            return euclidean(c1, c2);
+        }
+    };
+
+    private static final double[] LINEAR = new double[256];
+    private static final double LAB_EPSILON = (6.0 / 29.0) * (6.0 / 29.0) * (6.0 / 29.0);
+
+    static {
+        for(int i = 0; i < 256; i++) {
+            double c = i / 255.0;
+            LINEAR[i] = c <= 0.04045 ? c / 12.92 : Math.pow((c + 0.055) / 1.055, 2.4);
+        }
+    }
+
+    private final double[] axisWeights;
+
+    ColorMetric(double weight0, double weight1, double weight2) {
+        this.axisWeights = new double[] {weight0, weight1, weight2};
+    }
+
+    public abstract void toCoordinates(int r, int g, int b, double[] out);
+
+    public abstract double distance(double[] c1, double[] c2);
+
+    final double axisWeight(int axis) {
+        return axisWeights[axis];
+    }
+
+    public static ColorMetric fromName(String name) {
+        if(name == null || name.isEmpty()) {
+            return WEIGHTED_RGB;
+        }
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+        }catch(IllegalArgumentException ignored) {
+            return WEIGHTED_RGB;
+        }
+    }
+
+    private static double euclidean(double[] c1, double[] c2) {
+        double d0 = c1[0] - c2[0];
+        double d1 = c1[1] - c2[1];
+        double d2 = c1[2] - c2[2];
+        return d0 * d0 + d1 * d1 + d2 * d2;
+    }
+
+    private static double labCurve(double t) {
+        return t > LAB_EPSILON ? Math.cbrt(t) : t / (3.0 * (6.0 / 29.0) * (6.0 / 29.0)) + 4.0 / 29.0;
+    }
+}
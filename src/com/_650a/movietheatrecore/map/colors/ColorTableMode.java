@@ -0,0 +1,54 @@
+package com._650a.movietheatrecore.map.colors;
+
+import java.util.Locale;
+
+/**
+ * Precision of the table used to quantize pixels to map colors.
+ *
+ * <p>{@link #FULL} indexes all 24 bits of RGB (16 MB). The reduced modes
+ * drop low bits per channel so the table fits in cache, see
+ * {@link CompactColorTable}.
+ */
+public enum ColorTableMode {
+
+    FULL(8, 8, 8),
+    RGB666(6, 6, 6),
+    RGB565(5, 6, 5);
+
+    private final int redBits;
+    private final int greenBits;
+    private final int blueBits;
+
+    ColorTableMode(int redBits, int greenBits, int blueBits) {
+        this.redBits = redBits;
+        this.greenBits = greenBits;
+        this.blueBits = blueBits;
+    }
+
+    public int getRedBits() {
+        return redBits;
+    }
+
+    public int getGreenBits() {
+        return greenBits;
+    }
+
+    public int getBlueBits() {
+        return blueBits;
+    }
+
+    public int getTableSize() {
+        return 1 << (redBits + greenBits + blueBits);
+    }
+
+    public static ColorTableMode fromName(String name) {
+        if(name == null || name.isEmpty()) {
+            return FULL;
+        }
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT).replace("-", ""));
+        }catch(IllegalArgumentException ignored) {
+            return FULL;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com._650a.movietheatrecore.map.colors;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A reduced precision copy of the full color table, small enough to stay in
+ * L2/L3 while many screens quantize at once (256 KB for 6-6-6, 64 KB for
+ * 5-6-5).
+ *
+ * <p>Each cell covers a small cube of RGB values. When refinement is on, a
+ * cell whose colors do not all map to the same palette entry stores 0 and
+ * callers fall back to the full table for those pixels only. Opaque colors
+ * never map to code 0, so the sentinel cannot clash with a real match.
+ * Without refinement every cell stores the match of its center color.
+ */
+public final class CompactColorTable {
+
+    private final ColorTableMode mode;
+    private final byte[] table;
+    private final boolean refine;
+    private final int redShift;
+    private final int greenShift;
+    private final int blueShift;
+    private final int greenOffset;
+    private final int blueOffset;
+
+    private CompactColorTable(ColorTableMode mode, byte[] table, boolean refine) {
+        this.mode = mode;
+        this.table = table;
+        this.refine = refine;
+        this.redShift = 8 - mode.getRedBits();
+        this.greenShift = 8 - mode.getGreenBits();
+        this.blueShift = 8 - mode.getBlueBits();
+        this.greenOffset = mode.getRedBits();
+        this.blueOffset = mode.getRedBits() + mode.getGreenBits();
+    }
+
+    public static CompactColorTable build(ByteBuffer full, ColorTableMode mode, boolean refine) {
+        if(mode == ColorTableMode.FULL) {
+            throw new IllegalArgumentException("FULL mode does not use a compact table.");
+        }
+        int redBits = mode.getRedBits();
+        int greenBits = mode.getGreenBits();
+        int blueBits = mode.getBlueBits();
+        int redSpan = 1 << (8 - redBits);
+        int greenSpan = 1 << (8 - greenBits);
+        int blueSpan = 1 << (8 - blueBits);
+        byte[] table = new byte[mode.getTableSize()];
+
+        for(int cb = 0; cb < 1 << blueBits; cb++) {
+            for(int cg = 0; cg < 1 << greenBits; cg++) {
+                for(int cr = 0; cr < 1 << redBits; cr++) {
+                    int r0 = cr * redSpan;
+                    int g0 = cg * greenSpan;
+                    int b0 = cb * blueSpan;
+                    byte center = full.get(index(r0 + redSpan / 2, g0 + greenSpan / 2, b0 + blueSpan / 2));
+                    byte code = center;
+                    if(refine) {
+                        scan:
+                        for(int b = b0; b < b0 + blueSpan; b++) {
+                            for(int g = g0; g < g0 + greenSpan; g++) {
+                                int row = index(0, g, b);
+                                for(int r = r0; r < r0 + redSpan; r++) {
+                                    if(full.get(row + r) != center) {
+                                        code = 0;
+                                        break scan;
+                                    }
+                                }
+                            }
+                        }
+                    }
+                    table[cr | (cg << redBits) | (cb << (redBits + greenBits))] = code;
+                }
+            }
+        }
+        return new CompactColorTable(mode, table, refine);
+    }
+
+    public ColorTableMode getMode() {
+        return mode;
+    }
+
+    public boolean isRefined() {
+        return refine;
+    }
+
+    /**
+     * @return The palette code for the color, or 0 when the cell is
+     *         ambiguous and the full table has to be consulted.
+     */
+    public byte get(int r, int g, int b) {
+        return table[((r & 0xFF) >> redShift) | (((g & 0xFF) >> greenShift) << greenOffset) | (((b & 0xFF) >> blueShift) << blueOffset)];
+    }
+
+    /**
+     * Same as {@link #get(int, int, int)} for a full table index
+     * {@code r + (g << 8) + (b << 16)}.
+     */
+    public byte getIndexed(int index) {
+        return get(index, index >> 8, index >> 16);
+    }
+
+    /**
+     * Fraction of cells that need the full table.
+     */
+    public double getAmbiguousRatio() {
+        int ambiguous = 0;
+        for(byte code : table) {
+            if(code == 0) {
+                ambiguous++;
+            }
+        }
+        return (double) ambiguous / table.length;
+    }
+
+    private static int index(int r, int g, int b) {
+        return r + (g << 8) + (b << 16);
+    }
+}
@@ -1,5 +1,7 @@
 package com._650a.movietheatrecore.map.colors;
 
+import java.awt.Color;
+
 import org.bukkit.map.MapPalette;
 
 /*
@@ -7,18 +9,13 @@ import org.bukkit.map.MapPalette;
  */
 
 public class MCSDGenBukkit extends MapColorSpaceData {
-	
+
     @SuppressWarnings("deprecation")
     public void generate() {
-    	
+
         clear();
-        
-        for(int i = 0; i < 256; i++) {
-            try {
-                setColor((byte) i, MapPalette.getColor((byte) i));
-            }catch(Throwable throwable) {}
-        }
-        
+        loadPalette(this);
+
         for(int r = 0; r < 256; r++) {
             for(int g = 0; g < 256; g++) {
                 for(int b = 0; b < 256; b++) {
@@ -27,4 +24,20 @@ public class MCSDGenBukkit extends MapColorSpaceData {
             }
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Copies the server map palette into the given color space without
+     * touching its lookup table. This only costs 256 calls and is enough
+     * to look up a persisted table.
+     */
+    @SuppressWarnings("deprecation")
+    public static void loadPalette(MapColorSpaceData target) {
+        for(int i = 0; i < 256; i++) {
+            try {
+                target.setColor((byte) i, MapPalette.getColor((byte) i));
+            }catch(Throwable throwable) {
+                target.setColor((byte) i, new Color(0, 0, 0, 0));
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com._650a.movietheatrecore.map.colors;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Generates the color space table on a fork-join pool, one blue plane per
+ * task, matching against the palette already held by this instance.
+ *
+ * <p>With {@link ColorMetric#WEIGHTED_RGB} the result is identical to
+ * {@link MCSDGenBukkit}. The perceptual metrics trade that compatibility
+ * for closer matches on gradients and skin tones.
+ */
+public class MCSDGenParallel extends MapColorSpaceData {
+
+    private final ColorMetric metric;
+
+    public MCSDGenParallel(ColorMetric metric) {
+        this.metric = metric;
+    }
+
+    public ColorMetric getMetric() {
+        return metric;
+    }
+
+    /**
+     * Builds the table from the palette colors set on this instance, see
+     * {@link MCSDGenBukkit#loadPalette(MapColorSpaceData)}.
+     */
+    public void generate() {
+        PaletteTree tree = new PaletteTree(getColors(), metric);
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, Runtime.getRuntime().availableProcessors()));
+        try {
+            pool.invoke(new PlaneTask(tree, 0, 256));
+        }finally {
+            pool.shutdown();
+        }
+    }
+
+    private final class PlaneTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient PaletteTree tree;
+        private final int from;
+        private final int to;
+
+        private PlaneTask(PaletteTree tree, int from, int to) {
+            this.tree = tree;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if(to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new PlaneTask(tree, from, middle), new PlaneTask(tree, middle, to));
+                return;
+            }
+
+            int b = from;
+            byte[] plane = new byte[65536];
+            double[] query = new double[3];
+            PaletteTree.Search search = new PaletteTree.Search();
+            int hint = tree.firstCode();
+            for(int g = 0; g < 256; g++) {
+                int row = g << 8;
+                for(int r = 0; r < 256; r++) {
+                    metric.toCoordinates(r, g, b, query);
+                    hint = tree.nearest(query, hint, search);
+                    plane[row + r] = (byte) hint;
+                }
+            }
+            setRG(b, plane);
+        }
+    }
+}
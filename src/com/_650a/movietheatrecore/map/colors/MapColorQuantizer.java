@@ -0,0 +1,174 @@
+package com._650a.movietheatrecore.map.colors;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.SampleModel;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+import java.nio.ByteBuffer;
+
+/**
+ * Converts rows of pixels to map color codes.
+ *
+ * <p>Each {@link PixelLayout} has its own loop so the per-pixel work is a
+ * shift, a mask and a table read, with no virtual dispatch. Nothing is
+ * allocated per call; callers provide the destination buffer.
+ */
+public final class MapColorQuantizer {
+
+    private static final ThreadLocal<int[]> ROW_SCRATCH = ThreadLocal.withInitial(() -> new int[0]);
+
+    private final MapColorSpaceData colorSpace;
+
+    public MapColorQuantizer(MapColorSpaceData colorSpace) {
+        this.colorSpace = colorSpace;
+    }
+
+    /**
+     * @see MapColorSpaceData#getGeneration()
+     */
+    public int getGeneration() {
+        return colorSpace.getGeneration();
+    }
+
+    /**
+     * @return The code of one opaque {@code 0xRRGGBB} color.
+     */
+    public byte quantizePixel(int rgb) {
+        return lookup(colorSpace.table(), colorSpace.compactTable(), Integer.reverseBytes(rgb) >>> 8);
+    }
+
+    /**
+     * @return {@code 0xRRGGBB} of every palette code, indexed by unsigned code.
+     */
+    public int[] getPaletteRgb() {
+        int[] rgb = new int[256];
+        for(int i = 0; i < rgb.length; i++) {
+            rgb[i] = colorSpace.getColor(i).getRGB() & 0xFFFFFF;
+        }
+        return rgb;
+    }
+
+    public void quantizeRow(int[] src, int srcOff, byte[] dst, int dstOff, int len, PixelLayout layout) {
+        ByteBuffer table = colorSpace.table();
+        CompactColorTable compact = colorSpace.compactTable();
+        switch(layout) {
+            case INT_RGB -> {
+                for(int i = 0; i < len; i++) {
+                    dst[dstOff + i] = lookup(table, compact, Integer.reverseBytes(src[srcOff + i]) >>> 8);
+                }
+            }
+            case INT_ARGB -> {
+                for(int i = 0; i < len; i++) {
+                    int color = src[srcOff + i];
+                    dst[dstOff + i] = color >= 0 ? 0 : lookup(table, compact, Integer.reverseBytes(color) >>> 8);
+                }
+            }
+            case INT_BGR -> {
+                for(int i = 0; i < len; i++) {
+                    dst[dstOff + i] = lookup(table, compact, src[srcOff + i] & 0xFFFFFF);
+                }
+            }
+            default -> throw new IllegalArgumentException(layout + " is not an int layout.");
+        }
+    }
+
+    public void quantizeRow(byte[] src, int srcOff, byte[] dst, int dstOff, int len, PixelLayout layout) {
+        ByteBuffer table = colorSpace.table();
+        CompactColorTable compact = colorSpace.compactTable();
+        switch(layout) {
+            case BYTE_BGR -> {
+                for(int i = 0, p = srcOff; i < len; i++, p += 3) {
+                    int index = (src[p + 2] & 0xFF) | (src[p + 1] & 0xFF) << 8 | (src[p] & 0xFF) << 16;
+                    dst[dstOff + i] = lookup(table, compact, index);
+                }
+            }
+            case BYTE_ABGR -> {
+                for(int i = 0, p = srcOff; i < len; i++, p += 4) {
+                    if(src[p] >= 0) {
+                        dst[dstOff + i] = 0;
+                        continue;
+                    }
+                    int index = (src[p + 3] & 0xFF) | (src[p + 2] & 0xFF) << 8 | (src[p + 1] & 0xFF) << 16;
+                    dst[dstOff + i] = lookup(table, compact, index);
+                }
+            }
+            default -> throw new IllegalArgumentException(layout + " is not a byte layout.");
+        }
+    }
+
+    public void quantize(BufferedImage image, byte[] dst, int dstOff) {
+        quantize(image, 0, 0, image.getWidth(), image.getHeight(), dst, dstOff);
+    }
+
+    /**
+     * Quantizes a region of the image into {@code dst}, one row of
+     * {@code width} codes after the other. Reads straight from the backing
+     * array when the layout is known, honoring the raster offsets of
+     * sub-images.
+     */
+    public void quantize(BufferedImage image, int x, int y, int width, int height, byte[] dst, int dstOff) {
+        PixelLayout layout = PixelLayout.of(image);
+        WritableRaster raster = image.getRaster();
+        SampleModel sampleModel = raster.getSampleModel();
+        DataBuffer dataBuffer = raster.getDataBuffer();
+        int rasterX = x - raster.getSampleModelTranslateX();
+        int rasterY = y - raster.getSampleModelTranslateY();
+
+        if(layout != null && layout.isIntPacked()
+                && dataBuffer instanceof DataBufferInt intBuffer
+                && sampleModel instanceof SinglePixelPackedSampleModel packed) {
+            int[] pixels = intBuffer.getData();
+            int stride = packed.getScanlineStride();
+            int base = intBuffer.getOffset() + rasterY * stride + rasterX;
+            for(int row = 0; row < height; row++) {
+                quantizeRow(pixels, base + row * stride, dst, dstOff + row * width, width, layout);
+            }
+            return;
+        }
+
+        if(layout != null && !layout.isIntPacked()
+                && dataBuffer instanceof DataBufferByte byteBuffer
+                && sampleModel instanceof ComponentSampleModel component
+                && component.getPixelStride() == layout.getBytesPerPixel()) {
+            byte[] pixels = byteBuffer.getData();
+            int stride = component.getScanlineStride();
+            int base = byteBuffer.getOffset() + rasterY * stride + rasterX * component.getPixelStride() + minimum(component.getBandOffsets());
+            for(int row = 0; row < height; row++) {
+                quantizeRow(pixels, base + row * stride, dst, dstOff + row * width, width, layout);
+            }
+            return;
+        }
+
+        int[] scratch = ROW_SCRATCH.get();
+        if(scratch.length < width) {
+            scratch = new int[width];
+            ROW_SCRATCH.set(scratch);
+        }
+        for(int row = 0; row < height; row++) {
+            image.getRGB(x, y + row, width, 1, scratch, 0, width);
+            quantizeRow(scratch, 0, dst, dstOff + row * width, width, PixelLayout.INT_ARGB);
+        }
+    }
+
+    private static byte lookup(ByteBuffer table, CompactColorTable compact, int index) {
+        if(compact != null) {
+            byte code = compact.getIndexed(index);
+            if(code != 0) {
+                return code;
+            }
+        }
+        return table.get(index);
+    }
+
+    private static int minimum(int[] values) {
+        int min = Integer.MAX_VALUE;
+        for(int value : values) {
+            min = Math.min(min, value);
+        }
+        return min;
+    }
+}
@@ -0,0 +1,154 @@
+package com._650a.movietheatrecore.map.colors;
+
+import java.awt.Color;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.zip.CRC32;
+
+import org.bukkit.Bukkit;
+
+/**
+ * Persists generated {@link MapColorSpaceData} tables so later boots only
+ * map the file instead of matching all 16.7M colors again.
+ *
+ * <p>Files are named after the server version, the color metric and a
+ * hash of the palette colors. The palette itself is stored in the header
+ * and compared on load, so a table is never used against a palette it was
+ * not generated for.
+ */
+public final class MapColorSpaceCache {
+
+    private static final int MAGIC = 0x4D544343;
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 8 + 256 * 4;
+    private static final String EXTENSION = ".mcsd";
+
+    private final File folder;
+    private final String version;
+    private final ColorMetric metric;
+
+    public MapColorSpaceCache(File folder, String version, ColorMetric metric) {
+        this.folder = folder;
+        this.version = sanitize(version);
+        this.metric = metric;
+    }
+
+    public File getFile(MapColorSpaceData palette) {
+        return new File(folder, version + "-" + metric.name().toLowerCase(Locale.ROOT) + "-" + hash(palette) + EXTENSION);
+    }
+
+    /**
+     * Maps a persisted table into the target. The target must already hold
+     * the current palette colors.
+     *
+     * @return true if a matching table was found and mapped.
+     */
+    public boolean load(MapColorSpaceData target) {
+        File file = getFile(target);
+        if(!file.isFile()) {
+            return false;
+        }
+        try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if(channel.size() != HEADER_SIZE + (long) MapColorSpaceData.DATA_SIZE) {
+                Bukkit.getLogger().warning("[MovieTheatreCore]: Ignoring truncated color table " + file.getName() + ".");
+                return false;
+            }
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while(header.hasRemaining()) {
+                if(channel.read(header, header.position()) < 0) {
+                    return false;
+                }
+            }
+            header.flip();
+            if(header.getInt() != MAGIC || header.getInt() != FORMAT_VERSION) {
+                return false;
+            }
+            for(int i = 0; i < 256; i++) {
+                if(header.getInt() != target.getColor(i).getRGB()) {
+                    return false;
+                }
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, MapColorSpaceData.DATA_SIZE);
+            mapped.load();
+            target.setData(mapped);
+            return true;
+        }catch(IOException e) {
+            Bukkit.getLogger().warning("[MovieTheatreCore]: Failed to read color table " + file.getName() + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Writes the generated table to disk. The file is written next to its
+     * final name and moved into place so a crash never leaves a partial
+     * table behind. Tables for other versions, metrics or palettes are
+     * removed.
+     */
+    public void save(MapColorSpaceData source) throws IOException {
+        if(!folder.exists() && !folder.mkdirs()) {
+            throw new IOException("Unable to create " + folder);
+        }
+        File file = getFile(source);
+        Path temp = new File(folder, file.getName() + ".tmp").toPath();
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC);
+        header.putInt(FORMAT_VERSION);
+        for(int i = 0; i < 256; i++) {
+            header.putInt(source.getColor(i).getRGB());
+        }
+        header.flip();
+
+        ByteBuffer data = source.getData();
+        data.clear();
+        try(FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while(header.hasRemaining()) {
+                channel.write(header);
+            }
+            while(data.hasRemaining()) {
+                channel.write(data);
+            }
+            channel.force(false);
+        }
+
+        try {
+            Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }catch(AtomicMoveNotSupportedException e) {
+            Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        File[] stale = folder.listFiles((dir, name) -> name.endsWith(EXTENSION) && !name.equals(file.getName()));
+        if(stale != null) {
+            for(File old : stale) {
+                old.delete();
+            }
+        }
+    }
+
+    private static String hash(MapColorSpaceData palette) {
+        CRC32 crc = new CRC32();
+        ByteBuffer buffer = ByteBuffer.allocate(256 * 4);
+        for(int i = 0; i < 256; i++) {
+            Color color = palette.getColor(i);
+            buffer.putInt(color.getRGB());
+        }
+        crc.update(buffer.array());
+        return String.format("%08x", crc.getValue());
+    }
+
+    private static String sanitize(String version) {
+        if(version == null || version.isEmpty()) {
+            return "unknown";
+        }
+        return version.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+}
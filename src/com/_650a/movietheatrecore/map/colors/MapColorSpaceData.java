@@ -2,6 +2,7 @@ package com._650a.movietheatrecore.map.colors;
 
 import java.awt.Color;
 import java.awt.image.IndexColorModel;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 
 /*
@@ -10,11 +11,20 @@ import java.util.Arrays;
 
 public class MapColorSpaceData implements Cloneable {
 	
+    public static final int DATA_SIZE = 16777216;
+
     private final Color[] colors = new Color[256];
-    private final byte[] data = new byte[16777216];
+    private volatile ByteBuffer data;
+    private volatile CompactColorTable compact;
+    private volatile int generation;
 
     public MapColorSpaceData() {
+        this(ByteBuffer.allocate(DATA_SIZE));
+    }
+
+    protected MapColorSpaceData(ByteBuffer data) {
         Arrays.fill((Object[]) colors, new Color(0, 0, 0, 0));
+        this.data = data;
     }
 
     public final int getColorCount() {
@@ -32,17 +42,82 @@ public class MapColorSpaceData implements Cloneable {
     }
 
     public final void clearRGBData() {
-        Arrays.fill(data, (byte) 0);
+        compact = null;
+        generation++;
+        if(data.hasArray()) {
+            Arrays.fill(data.array(), (byte) 0);
+        }else {
+            data = ByteBuffer.allocate(DATA_SIZE);
+        }
     }
 
     public final void clear() {
         Arrays.fill((Object[]) colors, new Color(0, 0, 0, 0));
-        Arrays.fill(data, (byte) 0);
+        clearRGBData();
     }
 
     public void readFrom(MapColorSpaceData data) {
-        System.arraycopy(data.data, 0, this.data, 0, this.data.length);
+        ByteBuffer copy = ByteBuffer.allocate(DATA_SIZE);
+        copy.put(data.data.duplicate().clear());
         System.arraycopy(data.colors, 0, colors, 0, colors.length);
+        this.compact = null;
+        this.data = copy;
+        generation++;
+    }
+
+    /**
+     * Replaces the lookup table with the given buffer without copying it.
+     * The buffer may be read-only, for example a table mapped from disk.
+     */
+    public final void setData(ByteBuffer data) {
+        if(data.capacity() != DATA_SIZE) {
+            throw new IllegalArgumentException("Color space data must be " + DATA_SIZE + " bytes.");
+        }
+        this.compact = null;
+        this.data = data;
+        generation++;
+    }
+
+    /**
+     * Builds a reduced precision table from the current data and uses it for
+     * {@link #match(int, int, int)}. {@link ColorTableMode#FULL} removes it.
+     */
+    public final void useTableMode(ColorTableMode mode, boolean refine) {
+        compact = mode == ColorTableMode.FULL ? null : CompactColorTable.build(data.duplicate(), mode, refine);
+        generation++;
+    }
+
+    /**
+     * Changes whenever the table is replaced, so callers holding on to
+     * quantized output know it has to be rebuilt.
+     */
+    public final int getGeneration() {
+        return generation;
+    }
+
+    public final ColorTableMode getTableMode() {
+        CompactColorTable table = compact;
+        return table == null ? ColorTableMode.FULL : table.getMode();
+    }
+
+    /**
+     * Returns a read-only view of the lookup table, indexed as
+     * {@code r + (g << 8) + (b << 16)}.
+     */
+    public final ByteBuffer getData() {
+        return data.asReadOnlyBuffer();
+    }
+
+    final ByteBuffer table() {
+        return data;
+    }
+
+    final CompactColorTable compactTable() {
+        return compact;
+    }
+
+    public final Color[] getColors() {
+        return colors.clone();
     }
 
     public final void setColor(byte code, Color color) {
@@ -58,23 +133,43 @@ public class MapColorSpaceData implements Cloneable {
     }
 
     public final void set(int r, int g, int b, byte code) {
-        data[getDataIndex(r, g, b)] = code;
+        data.put(getDataIndex(r, g, b), code);
     }
 
     public final byte get(byte r, byte g, byte b) {
-        return data[getDataIndex(r, g, b)];
+        return data.get(getDataIndex(r, g, b));
     }
 
     public final byte get(int r, int g, int b) {
-        return data[getDataIndex(r, g, b)];
+        return data.get(getDataIndex(r, g, b));
+    }
+
+    /**
+     * Looks up the palette code used to draw the color, going through the
+     * compact table when one is configured. Unlike {@link #get(int, int, int)}
+     * the result may be approximate in an unrefined compact mode.
+     */
+    public final byte match(int r, int g, int b) {
+        CompactColorTable table = compact;
+        if(table != null) {
+            byte code = table.get(r, g, b);
+            if(code != 0) {
+                return code;
+            }
+        }
+        return data.get(getDataIndex(r, g, b));
+    }
+
+    public final byte match(byte r, byte g, byte b) {
+        return match(r & 0xFF, g & 0xFF, b & 0xFF);
     }
 
     public final void set(int index, byte code) {
-        data[index] = code;
+        data.put(index, code);
     }
 
     public final byte get(int index) {
-        return data[index];
+        return data.get(index);
     }
 
     public final byte[] getRG(int b) {
@@ -84,11 +179,11 @@ public class MapColorSpaceData implements Cloneable {
     }
 
     public final void getRG(int b, byte[] data) {
-        System.arraycopy(data, b << 16, data, 0, 65536);
+        this.data.get(b << 16, data, 0, 65536);
     }
 
     public final void setRG(int b, byte[] data) {
-        System.arraycopy(data, 0, data, b << 16, 65536);
+        this.data.put(b << 16, data, 0, 65536);
     }
 
     public IndexColorModel toIndexColorModel() {
@@ -112,8 +207,7 @@ public class MapColorSpaceData implements Cloneable {
 
     public MapColorSpaceData clone() {    	
         MapColorSpaceData clone = new MapColorSpaceData();  
-        System.arraycopy(colors, 0, clone.colors, 0, colors.length);
-        System.arraycopy(data, 0, clone.data, 0, data.length);   
+        clone.readFrom(this);
         return clone;
     }
 
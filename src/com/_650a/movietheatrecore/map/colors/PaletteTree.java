@@ -0,0 +1,150 @@
+package com._650a.movietheatrecore.map.colors;
+
+import java.awt.Color;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * A k-d tree over the opaque map palette entries, stored in flat arrays.
+ *
+ * <p>Lookups return the same entry a linear scan would, including the
+ * lowest palette index on ties, so the tree can be swapped in for
+ * {@code MapPalette.matchColor} without changing the generated table.
+ */
+final class PaletteTree {
+
+    private final ColorMetric metric;
+    private final double[][] points;
+    private final int[] codes;
+    private final int[] axis;
+    private final int[] left;
+    private final int[] right;
+    private final int[] nodeByCode = new int[256];
+    private final int root;
+    private final int firstCode;
+
+    PaletteTree(Color[] palette, ColorMetric metric) {
+        this.metric = metric;
+
+        int count = 0;
+        for(int i = 4; i < palette.length; i++) {
+            if(palette[i] != null && palette[i].getAlpha() >= 128) {
+                count++;
+            }
+        }
+        if(count == 0) {
+            throw new IllegalArgumentException("Palette has no opaque colors.");
+        }
+
+        Integer[] order = new Integer[count];
+        double[][] coordinates = new double[count][3];
+        int[] paletteCodes = new int[count];
+        int n = 0;
+        for(int i = 4; i < palette.length; i++) {
+            Color color = palette[i];
+            if(color != null && color.getAlpha() >= 128) {
+                metric.toCoordinates(color.getRed(), color.getGreen(), color.getBlue(), coordinates[n]);
+                paletteCodes[n] = i;
+                order[n] = n;
+                n++;
+            }
+        }
+
+        this.points = new double[count][];
+        this.codes = new int[count];
+        this.axis = new int[count];
+        this.left = new int[count];
+        this.right = new int[count];
+        int[] next = {0};
+        this.root = build(order, 0, count, coordinates, paletteCodes, next);
+        this.firstCode = paletteCodes[0];
+        Arrays.fill(nodeByCode, -1);
+        for(int node = 0; node < count; node++) {
+            nodeByCode[codes[node]] = node;
+        }
+    }
+
+    int firstCode() {
+        return firstCode;
+    }
+
+    /**
+     * Finds the palette code closest to the given coordinates.
+     *
+     * @param query Coordinates produced by {@link ColorMetric#toCoordinates}.
+     * @param hint A palette code expected to be close, used as the initial
+     *             bound. Neighbouring colors usually share a match.
+     */
+    int nearest(double[] query, int hint, Search search) {
+        search.bestCode = Integer.MAX_VALUE;
+        search.bestDistance = Double.POSITIVE_INFINITY;
+        int hintNode = nodeByCode[hint & 0xFF];
+        if(hintNode >= 0) {
+            search.bestCode = codes[hintNode];
+            search.bestDistance = metric.distance(query, points[hintNode]);
+        }
+        search(root, query, search);
+        return search.bestCode;
+    }
+
+    private void search(int node, double[] query, Search search) {
+        while(node >= 0) {
+            double distance = metric.distance(query, points[node]);
+            int code = codes[node];
+            if(distance < search.bestDistance || (distance == search.bestDistance && code < search.bestCode)) {
+                search.bestDistance = distance;
+                search.bestCode = code;
+            }
+
+            int split = axis[node];
+            double diff = query[split] - points[node][split];
+            int near = diff < 0 ? left[node] : right[node];
+            int far = diff < 0 ? right[node] : left[node];
+            if(far >= 0 && metric.axisWeight(split) * diff * diff <= search.bestDistance) {
+                search(far, query, search);
+            }
+            node = near;
+        }
+    }
+
+    private int build(Integer[] order, int from, int to, double[][] coordinates, int[] paletteCodes, int[] next) {
+        if(from >= to) {
+            return -1;
+        }
+
+        int split = 0;
+        double widest = -1;
+        for(int a = 0; a < 3; a++) {
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            for(int i = from; i < to; i++) {
+                double value = coordinates[order[i]][a];
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+            }
+            double spread = (max - min) * Math.sqrt(metric.axisWeight(a));
+            if(spread > widest) {
+                widest = spread;
+                split = a;
+            }
+        }
+
+        int splitAxis = split;
+        Arrays.sort(order, from, to, Comparator.comparingDouble(i -> coordinates[i][splitAxis]));
+        int median = (from + to) >>> 1;
+
+        int node = next[0]++;
+        int source = order[median];
+        points[node] = coordinates[source];
+        codes[node] = paletteCodes[source];
+        axis[node] = splitAxis;
+        left[node] = build(order, from, median, coordinates, paletteCodes, next);
+        right[node] = build(order, median + 1, to, coordinates, paletteCodes, next);
+        return node;
+    }
+
+    static final class Search {
+        private double bestDistance;
+        private int bestCode;
+    }
+}
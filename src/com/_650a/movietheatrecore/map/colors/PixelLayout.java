@@ -0,0 +1,47 @@
+package com._650a.movietheatrecore.map.colors;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * Memory layouts understood by {@link MapColorQuantizer}.
+ *
+ * <p>Int layouts hold one pixel per {@code int}, byte layouts hold
+ * {@link #getBytesPerPixel()} bytes per pixel in the order of the name.
+ */
+public enum PixelLayout {
+
+    INT_RGB(1),
+    INT_ARGB(1),
+    INT_BGR(1),
+    BYTE_BGR(3),
+    BYTE_ABGR(4);
+
+    private final int bytesPerPixel;
+
+    PixelLayout(int bytesPerPixel) {
+        this.bytesPerPixel = bytesPerPixel;
+    }
+
+    public boolean isIntPacked() {
+        return this == INT_RGB || this == INT_ARGB || this == INT_BGR;
+    }
+
+    public int getBytesPerPixel() {
+        return bytesPerPixel;
+    }
+
+    /**
+     * @return The layout of the image's backing array, or null when the
+     *         image type has to be converted through {@code getRGB}.
+     */
+    public static PixelLayout of(BufferedImage image) {
+        return switch(image.getType()) {
+            case BufferedImage.TYPE_INT_RGB -> INT_RGB;
+            case BufferedImage.TYPE_INT_ARGB -> INT_ARGB;
+            case BufferedImage.TYPE_INT_BGR -> INT_BGR;
+            case BufferedImage.TYPE_3BYTE_BGR -> BYTE_BGR;
+            case BufferedImage.TYPE_4BYTE_ABGR -> BYTE_ABGR;
+            default -> null;
+        };
+    }
+}
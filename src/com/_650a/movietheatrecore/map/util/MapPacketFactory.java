@@ -0,0 +1,302 @@
+package com._650a.movietheatrecore.map.util;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Optional;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+
+/**
+ * Builds and sends clientbound map data packets carrying only a rectangle
+ * of a map, through reflection since the packet is not part of the Bukkit
+ * API.
+ *
+ * <p>Three constructor shapes are recognised:
+ * <ul>
+ * <li>1.8 to 1.16: the full pixels plus the rectangle as four ints, the
+ * packet copies the rectangle itself. 1.9 adds a tracking flag and 1.14 a
+ * locked flag before the decorations.</li>
+ * <li>1.17 to 1.20.4: a map patch object holding the rectangle and its
+ * pixels.</li>
+ * <li>1.20.5 and later: the same patch wrapped in an {@link Optional}, with
+ * a map id object instead of an int.</li>
+ * </ul>
+ * Class and member names are never relied on where a type check will do,
+ * so both Spigot and Mojang mapped servers resolve. {@link #resolve()}
+ * returns null when nothing matches, and callers fall back to
+ * {@code Player#sendMap}.
+ */
+
+public final class MapPacketFactory {
+
+	private static final String[] PACKET_CLASSES = {
+			"net.minecraft.network.protocol.game.ClientboundMapItemDataPacket",
+			"net.minecraft.network.protocol.game.PacketPlayOutMap"
+	};
+
+	private static final String[] DELIMITER_CLASSES = {
+			"net.minecraft.network.protocol.game.ClientboundBundleDelimiterPacket",
+			"net.minecraft.network.protocol.BundleDelimiterPacket"
+	};
+
+	private enum Shape { RAW, PATCH, OPTIONAL_PATCH }
+
+	private final Constructor<?> packetConstructor;
+	private final Shape shape;
+	private final Constructor<?> patchConstructor;
+	private final Constructor<?> mapIdConstructor;
+	private final Object emptyDecorations;
+
+	private Constructor<?> bundleConstructor;
+	private Object bundleDelimiter;
+
+	private Method getHandle;
+	private Field connectionField;
+	private Method sendMethod;
+
+	private MapPacketFactory(Constructor<?> packetConstructor, Shape shape, Constructor<?> patchConstructor, Constructor<?> mapIdConstructor, Object emptyDecorations) {
+		this.packetConstructor = packetConstructor;
+		this.shape = shape;
+		this.patchConstructor = patchConstructor;
+		this.mapIdConstructor = mapIdConstructor;
+		this.emptyDecorations = emptyDecorations;
+	}
+
+    /**
+     * Looks up the map data packet of the running server.
+     *
+     * @return A factory, or null if the server's packet isn't recognised.
+     */
+
+	public static MapPacketFactory resolve() {
+		Class<?> packetClass = findPacketClass();
+		if(packetClass == null) return null;
+		for(Constructor<?> constructor : packetClass.getDeclaredConstructors()) {
+			MapPacketFactory factory = match(constructor);
+			if(factory != null) {
+				constructor.setAccessible(true);
+				factory.resolveBundles();
+				return factory;
+			}
+		}
+		return null;
+	}
+
+    /**
+     * Creates a packet updating the {@code width} x {@code height}
+     * rectangle at {@code x}, {@code y} of a map.
+     *
+     * @param id The map-id to be updated.
+     * @param buffer All 128x128 map-pixels, only the rectangle is sent.
+     * @return The packet.
+     */
+
+	public Object create(int id, byte[] buffer, int x, int y, int width, int height) throws ReflectiveOperationException {
+		switch(shape) {
+		case RAW:
+			if(packetConstructor.getParameterCount() == 8) {
+				return packetConstructor.newInstance(id, (byte) 0, emptyDecorations, buffer, x, y, width, height);
+			}
+			if(packetConstructor.getParameterCount() == 10) {
+				return packetConstructor.newInstance(id, (byte) 0, false, false, emptyDecorations, buffer, x, y, width, height);
+			}
+			return packetConstructor.newInstance(id, (byte) 0, false, emptyDecorations, buffer, x, y, width, height);
+		case PATCH:
+			return packetConstructor.newInstance(id, (byte) 0, false, emptyDecorations, patchConstructor.newInstance(x, y, width, height, crop(buffer, x, y, width, height)));
+		default:
+			Object patch = patchConstructor.newInstance(x, y, width, height, crop(buffer, x, y, width, height));
+			return packetConstructor.newInstance(mapIdConstructor.newInstance(id), (byte) 0, false, Optional.empty(), Optional.of(patch));
+		}
+	}
+
+    /**
+     * @return Whether the client understands bundle packets (1.19.4+),
+     *         which it applies all at once, in a single tick.
+     */
+
+	public boolean supportsBundles() {
+		return bundleConstructor != null;
+	}
+
+    /**
+     * Wraps packets into one bundle packet.
+     *
+     * @return The bundle, or null if bundles aren't supported.
+     */
+
+	public Object createBundle(List<Object> packets) throws ReflectiveOperationException {
+		if(bundleConstructor == null) return null;
+		return bundleConstructor.newInstance(packets);
+	}
+
+    /**
+     * Gets the packet that opens and closes a bundle on the wire; a bundle
+     * packet is sent as the delimiter, its packets and the delimiter again.
+     *
+     * @return The delimiter, or null if bundles aren't supported.
+     */
+
+	public Object getBundleDelimiter() {
+		return bundleConstructor == null ? null : bundleDelimiter;
+	}
+
+    /**
+     * Sends a packet built by {@link #create} to a player.
+     *
+     * @return False if the player's connection couldn't be reached.
+     */
+
+	public boolean send(Player player, Object packet) {
+		try {
+			Object handle = getHandle(player).invoke(player);
+			Object connection = getConnectionField(handle.getClass()).get(handle);
+			getSendMethod(connection.getClass(), packet.getClass()).invoke(connection, packet);
+			return true;
+		}catch (ReflectiveOperationException | RuntimeException e) {
+			return false;
+		}
+	}
+
+    /**
+     * Copies a rectangle out of a 128x128 map, row by row.
+     */
+
+	public static byte[] crop(byte[] buffer, int x, int y, int width, int height) {
+		if(x == 0 && y == 0 && width == 128 && height == 128) return buffer;
+		byte[] patch = new byte[width * height];
+		for(int row = 0; row < height; row++) {
+			System.arraycopy(buffer, (y + row) * 128 + x, patch, row * width, width);
+		}
+		return patch;
+	}
+
+	private void resolveBundles() {
+		try {
+			Class<?> bundleClass = Class.forName("net.minecraft.network.protocol.game.ClientboundBundlePacket");
+			for(Constructor<?> constructor : bundleClass.getDeclaredConstructors()) {
+				if(constructor.getParameterCount() == 1 && constructor.getParameterTypes()[0].isAssignableFrom(List.class)) {
+					constructor.setAccessible(true);
+					bundleConstructor = constructor;
+				}
+			}
+		}catch (ClassNotFoundException | RuntimeException | LinkageError ignored) {
+		}
+		for(String name : DELIMITER_CLASSES) {
+			try {
+				Class<?> delimiterClass = Class.forName(name);
+				if(Modifier.isAbstract(delimiterClass.getModifiers())) continue;
+				Constructor<?> constructor = delimiterClass.getDeclaredConstructor();
+				constructor.setAccessible(true);
+				bundleDelimiter = constructor.newInstance();
+				return;
+			}catch (ReflectiveOperationException | RuntimeException | LinkageError ignored) {
+			}
+		}
+	}
+
+	private static Class<?> findPacketClass() {
+		String version = Bukkit.getServer().getClass().getPackage().getName();
+		version = version.substring(version.lastIndexOf('.') + 1);
+		for(String name : PACKET_CLASSES) {
+			try {
+				return Class.forName(name);
+			}catch (ClassNotFoundException ignored) {
+			}
+		}
+		try {
+			return Class.forName("net.minecraft.server." + version + ".PacketPlayOutMap");
+		}catch (ClassNotFoundException ignored) {
+		}
+		return null;
+	}
+
+	static MapPacketFactory match(Constructor<?> constructor) {
+		Class<?>[] types = constructor.getParameterTypes();
+		try {
+			if(types.length == 10 && types[0] == int.class && types[1] == byte.class && types[2] == boolean.class && types[3] == boolean.class && types[5] == byte[].class) {
+				return new MapPacketFactory(constructor, Shape.RAW, null, null, emptyCollection(types[4]));
+			}
+			if(types.length == 9 && types[0] == int.class && types[1] == byte.class && types[2] == boolean.class && types[4] == byte[].class) {
+				return new MapPacketFactory(constructor, Shape.RAW, null, null, emptyCollection(types[3]));
+			}
+			if(types.length == 8 && types[0] == int.class && types[1] == byte.class && types[3] == byte[].class) {
+				return new MapPacketFactory(constructor, Shape.RAW, null, null, emptyCollection(types[2]));
+			}
+			if(types.length == 5 && types[0] == int.class && types[1] == byte.class && types[2] == boolean.class) {
+				Constructor<?> patch = patchConstructor(types[4]);
+				if(patch != null) return new MapPacketFactory(constructor, Shape.PATCH, patch, null, emptyCollection(types[3]));
+			}
+			if(types.length == 5 && types[1] == byte.class && types[2] == boolean.class && types[4] == Optional.class) {
+				Type patchType = constructor.getGenericParameterTypes()[4];
+				Constructor<?> mapId = types[0].getDeclaredConstructor(int.class);
+				if(patchType instanceof ParameterizedType parameterized && parameterized.getActualTypeArguments()[0] instanceof Class<?> patchClass) {
+					Constructor<?> patch = patchConstructor(patchClass);
+					if(patch != null) {
+						mapId.setAccessible(true);
+						return new MapPacketFactory(constructor, Shape.OPTIONAL_PATCH, patch, mapId, null);
+					}
+				}
+			}
+		}catch (ReflectiveOperationException | RuntimeException ignored) {
+		}
+		return null;
+	}
+
+	private static Constructor<?> patchConstructor(Class<?> patchClass) {
+		try {
+			Constructor<?> constructor = patchClass.getDeclaredConstructor(int.class, int.class, int.class, int.class, byte[].class);
+			constructor.setAccessible(true);
+			return constructor;
+		}catch (NoSuchMethodException e) {
+			return null;
+		}
+	}
+
+	private static Object emptyCollection(Class<?> type) {
+		if(type.isAssignableFrom(java.util.ArrayList.class)) return new java.util.ArrayList<>();
+		return null;
+	}
+
+	private Method getHandle(Player player) throws NoSuchMethodException {
+		if(getHandle == null) getHandle = player.getClass().getMethod("getHandle");
+		return getHandle;
+	}
+
+	private Field getConnectionField(Class<?> handleClass) throws NoSuchFieldException {
+		if(connectionField != null) return connectionField;
+		for(Class<?> type = handleClass; type != null; type = type.getSuperclass()) {
+			for(Field field : type.getDeclaredFields()) {
+				String name = field.getType().getSimpleName();
+				if(!Modifier.isStatic(field.getModifiers()) && (name.equals("PlayerConnection") || name.equals("ServerGamePacketListenerImpl"))) {
+					field.setAccessible(true);
+					connectionField = field;
+					return field;
+				}
+			}
+		}
+		throw new NoSuchFieldException("player connection");
+	}
+
+	private Method getSendMethod(Class<?> connectionClass, Class<?> packetClass) throws NoSuchMethodException {
+		if(sendMethod != null) return sendMethod;
+		Method fallback = null;
+		for(Method method : connectionClass.getMethods()) {
+			Class<?>[] types = method.getParameterTypes();
+			if(types.length != 1 || method.getReturnType() != void.class || !types[0].getSimpleName().equals("Packet") || !types[0].isAssignableFrom(packetClass)) continue;
+			if(method.getName().equals("send") || method.getName().equals("sendPacket")) {
+				sendMethod = method;
+				return method;
+			}
+			if(fallback == null) fallback = method;
+		}
+		if(fallback == null) throw new NoSuchMethodException("send packet");
+		sendMethod = fallback;
+		return fallback;
+	}
+}
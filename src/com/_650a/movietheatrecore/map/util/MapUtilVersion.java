@@ -3,6 +3,7 @@ package com._650a.movietheatrecore.map.util;
 import org.bukkit.Bukkit;
 
 import com._650a.movietheatrecore.Main;
+import com._650a.movietheatrecore.configuration.Configuration;
 import com._650a.movietheatrecore.util.MapUtil;
 
 /** 
@@ -34,6 +35,16 @@ public class MapUtilVersion {
 			System.out.print("MovieTheatreCore is running on the latest supported minecraft version : "
 					+ Bukkit.getServer().getClass().getPackage().getName() + "\n");
 		}
-		return new ReflectiveMapUtil();
+		ReflectiveMapUtil reflective = new ReflectiveMapUtil();
+		MapPacketFactory packets = null;
+		try {
+			packets = MapPacketFactory.resolve();
+		}catch (RuntimeException | LinkageError ignored) {
+		}
+		if(packets == null) {
+			plugin.getLogger().info("[MovieTheatreCore]: Map packets unavailable on this server, maps are sent through Bukkit.");
+			return reflective;
+		}
+		return new PacketMapUtil(packets, reflective, new SharedPacketWriter(new Configuration().plugin_packet_compression()));
 	}
 }
@@ -0,0 +1,229 @@
+package com._650a.movietheatrecore.map.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.map.MapRenderer;
+import org.bukkit.map.MapView;
+
+import com._650a.movietheatrecore.Main;
+import com._650a.movietheatrecore.util.MapUtil;
+
+/**
+ * {@link MapUtil} writing map data packets straight to the players'
+ * connections, without going through {@link MapRenderer} and
+ * {@code MapCanvas}.
+ *
+ * <p>{@code Player#sendMap} renders the map once per player, 16384
+ * {@code setPixel} calls for every tile and viewer, and then builds a packet
+ * per player. Here the packet of a tile is built once per frame and the same
+ * packet is written to every viewer, since all viewers of a frame are sent
+ * the same pixels. Renderers of the maps are removed, so the server doesn't
+ * render or send them on its own either.
+ *
+ * <p>With a {@link SharedPacketWriter}, the packet is also serialized and
+ * compressed only once, and the viewers are all written the same bytes.
+ *
+ * <p>Between {@link #beginFrame(Player)} and {@link #endFrame(Player)} a
+ * player's updates are held back and then sent as one bundle packet, which
+ * the client applies in a single tick so a frame never shows half drawn
+ * across tiles. Clients older than 1.19.4 have no bundles; their updates are
+ * still written together and flushed once.
+ *
+ * <p>Any packet that cannot be built or sent is handed to
+ * {@link ReflectiveMapUtil}, inside the same frame; if building fails,
+ * packets are given up on altogether.
+ */
+
+public class PacketMapUtil implements MapUtil {
+
+	private final MapPacketFactory packets;
+	private final ReflectiveMapUtil fallback;
+	private final SharedPacketWriter writer;
+	private final Map<Integer, CachedPacket> lastPackets = new ConcurrentHashMap<>();
+	private final Set<Integer> preparedMaps = ConcurrentHashMap.newKeySet();
+
+	private final ThreadLocal<Batch> batches = new ThreadLocal<>();
+
+	private volatile boolean disabled;
+	private volatile SharedPacketWriter.Encoded encodedDelimiter;
+
+    /**
+     * @param writer Writer for the players' connections.
+     */
+
+	public PacketMapUtil(MapPacketFactory packets, ReflectiveMapUtil fallback, SharedPacketWriter writer) {
+		this.packets = packets;
+		this.fallback = fallback;
+		this.writer = writer;
+	}
+
+	@Override
+	public void update(Player player, int id, byte[] buffer) {
+		update(player, id, buffer, 0, 0, 128, 128);
+	}
+
+	@Override
+	public void update(Player player, int id, byte[] buffer, int x, int y, int width, int height) {
+		if(buffer == null || player == null) return;
+		if(disabled) {
+			fallback.update(player, id, buffer, x, y, width, height);
+			return;
+		}
+		CachedPacket packet = getPacket(id, buffer, x, y, width, height);
+		if(packet == null) {
+			fallback.update(player, id, buffer);
+			return;
+		}
+		prepare(id);
+		Batch batch = batches.get();
+		if(batch != null && batch.player == player) {
+			batch.packets.add(packet);
+			return;
+		}
+		send(player, packet);
+	}
+
+	@Override
+	public void beginFrame(Player player) {
+		if(player == null) return;
+		fallback.beginFrame(player);
+		if(disabled) return;
+		batches.set(new Batch(player));
+	}
+
+	@Override
+	public void endFrame(Player player) {
+		Batch batch = batches.get();
+		try {
+			if(batch == null || batch.player != player) return;
+			batches.remove();
+			if(batch.packets.size() == 1) {
+				send(player, batch.packets.get(0));
+			}else if(!batch.packets.isEmpty()) {
+				sendAll(player, batch);
+			}
+		}finally {
+			fallback.endFrame(player);
+		}
+	}
+
+	@Override
+	public void release(int[] ids) {
+		for(int id : ids) {
+			preparedMaps.remove(id);
+			CachedPacket cached = lastPackets.remove(id);
+			if(cached != null && cached.encoded != null) cached.encoded.release();
+		}
+		fallback.release(ids);
+	}
+
+	@Override
+	public long getPendingBytes(Player player) {
+		return writer.getPendingBytes(player);
+	}
+
+	@Override
+	public MapView getMapView(int id) {
+		return fallback.getMapView(id);
+	}
+
+	@Override
+	public int getMapId(MapView mapView) {
+		return fallback.getMapId(mapView);
+	}
+
+    /**
+     * Gets the packet for a map update, reusing the previous one if it was
+     * built for the same pixels and rectangle. Map-pixel arrays are not
+     * modified once sent, so the array itself identifies the pixels.
+     */
+
+	private CachedPacket getPacket(int id, byte[] buffer, int x, int y, int width, int height) {
+		int rect = x << 24 | y << 16 | (width - 1) << 8 | (height - 1);
+		CachedPacket cached = lastPackets.get(id);
+		if(cached != null && cached.buffer == buffer && cached.rect == rect) return cached;
+		try {
+			Object packet = packets.create(id, buffer, x, y, width, height);
+			cached = new CachedPacket(id, buffer, rect, packet, writer.share(packet));
+			CachedPacket previous = lastPackets.put(id, cached);
+			if(previous != null && previous.encoded != null) previous.encoded.release();
+			return cached;
+		}catch (ReflectiveOperationException | RuntimeException e) {
+			disabled = true;
+			lastPackets.clear();
+			return null;
+		}
+	}
+
+	private void send(Player player, CachedPacket packet) {
+		if(packet.encoded != null && writer.write(player, packet.encoded)) return;
+		if(!packets.send(player, packet.packet)) fallback.update(player, packet.id, packet.buffer);
+	}
+
+	private void sendAll(Player player, Batch batch) {
+		List<SharedPacketWriter.Encoded> encoded = new ArrayList<>(batch.packets.size());
+		List<Object> objects = new ArrayList<>(batch.packets.size());
+		for(CachedPacket packet : batch.packets) {
+			encoded.add(packet.encoded);
+			objects.add(packet.packet);
+		}
+		if(writer.writeAll(player, encoded, getEncodedDelimiter())) return;
+		try {
+			Object bundle = packets.createBundle(objects);
+			if(bundle != null && packets.send(player, bundle)) return;
+		}catch (ReflectiveOperationException | RuntimeException ignored) {
+		}
+		if(!packets.supportsBundles() && writer.writePackets(player, objects)) return;
+		for(CachedPacket packet : batch.packets) {
+			send(player, packet);
+		}
+	}
+
+	private SharedPacketWriter.Encoded getEncodedDelimiter() {
+		if(encodedDelimiter == null && packets.getBundleDelimiter() != null) {
+			encodedDelimiter = writer.share(packets.getBundleDelimiter());
+		}
+		return encodedDelimiter;
+	}
+
+	private void prepare(int id) {
+		if(!preparedMaps.add(id)) return;
+		if(!Bukkit.isPrimaryThread()) {
+			Bukkit.getScheduler().runTask(Main.getPlugin(Main.class), () -> removeRenderers(id));
+			return;
+		}
+		removeRenderers(id);
+	}
+
+    /**
+     * Renderers are read by the server while it ticks, so they are only
+     * changed on the main thread.
+     */
+
+	private void removeRenderers(int id) {
+		MapView mapView = getMapView(id);
+		if(mapView == null) return;
+		for(MapRenderer renderer : mapView.getRenderers()) {
+			mapView.removeRenderer(renderer);
+		}
+	}
+
+	private static final class Batch {
+
+		private final Player player;
+		private final List<CachedPacket> packets = new ArrayList<>();
+
+		private Batch(Player player) {
+			this.player = player;
+		}
+	}
+
+	private record CachedPacket(int id, byte[] buffer, int rect, Object packet, SharedPacketWriter.Encoded encoded) {
+	}
+}
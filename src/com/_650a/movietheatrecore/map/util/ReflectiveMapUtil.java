@@ -1,6 +1,8 @@
 package com._650a.movietheatrecore.map.util;
 
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -10,15 +12,38 @@ import org.bukkit.map.MapCanvas;
 import org.bukkit.map.MapRenderer;
 import org.bukkit.map.MapView;
 
+import com._650a.movietheatrecore.Main;
 import com._650a.movietheatrecore.util.MapUtil;
 
+/**
+ * Sends maps through the Bukkit API, found by reflection to support every
+ * server version.
+ *
+ * <p>Map views and sendMap are Bukkit API, so updates from render or
+ * delivery threads are sent from the main thread instead. Between
+ * {@link #beginFrame(Player)} and {@link #endFrame(Player)} a player's
+ * updates are collected and handed to the main thread as one task. Map-pixel
+ * arrays are not modified once sent, so they are passed on as they are.
+ */
+
 public class ReflectiveMapUtil implements MapUtil {
 
+	private static final int MAX_PATCH_FAILURES = 5;
+
 	private final Map<Integer, byte[]> buffers = new ConcurrentHashMap<>();
+	private MapPacketFactory packets;
+	private boolean packetsResolved;
+	private int patchFailures;
+
+	private final ThreadLocal<Batch> batches = new ThreadLocal<>();
 
 	@Override
 	public void update(Player player, int id, byte[] buffer) {
 		if(buffer == null) return;
+		if(!Bukkit.isPrimaryThread()) {
+			runOnMainThread(player, () -> update(player, id, buffer));
+			return;
+		}
 		buffers.put(id, buffer);
 		MapView mapView = getMapView(id);
 		if(mapView == null) return;
@@ -26,6 +51,61 @@ public class ReflectiveMapUtil implements MapUtil {
 		sendMap(player, mapView);
 	}
 
+	@Override
+	public void update(Player player, int id, byte[] buffer, int x, int y, int width, int height) {
+		if(buffer == null) return;
+		if(!Bukkit.isPrimaryThread()) {
+			runOnMainThread(player, () -> update(player, id, buffer, x, y, width, height));
+			return;
+		}
+		MapPacketFactory factory = getPackets();
+		if(factory == null || player == null) {
+			update(player, id, buffer);
+			return;
+		}
+		buffers.put(id, buffer);
+		MapView mapView = getMapView(id);
+		if(mapView == null) return;
+		ensureRenderer(mapView, id);
+		String reason = "the player's connection couldn't be reached";
+		try {
+			if(factory.send(player, factory.create(id, buffer, x, y, width, height))) {
+				patchFailures = 0;
+				return;
+			}
+		}catch (ReflectiveOperationException | RuntimeException e) {
+			reason = e.toString();
+		}
+		onPatchFailure(reason);
+		sendMap(player, mapView);
+	}
+
+	@Override
+	public void beginFrame(Player player) {
+		if(player == null || Bukkit.isPrimaryThread()) return;
+		batches.set(new Batch(player));
+	}
+
+	@Override
+	public void endFrame(Player player) {
+		Batch batch = batches.get();
+		if(batch == null || batch.player != player) return;
+		batches.remove();
+		if(batch.updates.isEmpty()) return;
+		Bukkit.getScheduler().runTask(Main.getPlugin(Main.class), () -> {
+			for(Runnable update : batch.updates) {
+				update.run();
+			}
+		});
+	}
+
+	@Override
+	public void release(int[] ids) {
+		for(int id : ids) {
+			buffers.remove(id);
+		}
+	}
+
 	@Override
 	public MapView getMapView(int id) {
 		try {
@@ -53,6 +133,15 @@ public class ReflectiveMapUtil implements MapUtil {
 		return 0;
 	}
 
+	private void runOnMainThread(Player player, Runnable update) {
+		Batch batch = batches.get();
+		if(batch != null && batch.player == player) {
+			batch.updates.add(update);
+			return;
+		}
+		Bukkit.getScheduler().runTask(Main.getPlugin(Main.class), update);
+	}
+
 	private void ensureRenderer(MapView mapView, int id) {
 		boolean hasRenderer = false;
 		for(MapRenderer renderer : mapView.getRenderers()) {
@@ -67,6 +156,36 @@ public class ReflectiveMapUtil implements MapUtil {
 		}
 	}
 
+	private MapPacketFactory getPackets() {
+		if(!packetsResolved) {
+			packetsResolved = true;
+			try {
+				packets = MapPacketFactory.resolve();
+			}catch (RuntimeException | LinkageError e) {
+				Bukkit.getLogger().warning("[MovieTheatreCore]: Map patches are unavailable, sending whole maps: " + e);
+				packets = null;
+			}
+		}
+		return packets;
+	}
+
+	/**
+	 * A patch that fails once, for a player who just left for instance,
+	 * falls back to the whole map. Patches are only given up on after
+	 * {@link #MAX_PATCH_FAILURES} failures in a row.
+	 */
+
+	private void onPatchFailure(String reason) {
+		patchFailures++;
+		if(patchFailures == 1) {
+			Bukkit.getLogger().warning("[MovieTheatreCore]: Failed to send a map patch, sending the whole map instead: " + reason);
+		}
+		if(patchFailures >= MAX_PATCH_FAILURES) {
+			Bukkit.getLogger().warning("[MovieTheatreCore]: Map patches failed " + patchFailures + " times in a row, sending whole maps from now on.");
+			packets = null;
+		}
+	}
+
 	private void sendMap(Player player, MapView mapView) {
 		if(player == null || mapView == null) return;
 		try {
@@ -76,6 +195,16 @@ public class ReflectiveMapUtil implements MapUtil {
 		}
 	}
 
+	private static final class Batch {
+
+		private final Player player;
+		private final List<Runnable> updates = new ArrayList<>();
+
+		private Batch(Player player) {
+			this.player = player;
+		}
+	}
+
 	private static class BufferRenderer extends MapRenderer {
 
 		private final int mapId;
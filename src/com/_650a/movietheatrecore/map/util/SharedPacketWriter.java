@@ -0,0 +1,369 @@
+package com._650a.movietheatrecore.map.util;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.Deflater;
+
+import org.bukkit.entity.Player;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundBuffer;
+import io.netty.channel.ChannelPipeline;
+
+/**
+ * Encodes and compresses a packet once and writes the resulting bytes to
+ * any number of players.
+ *
+ * <p>Normally every connection runs a packet through its own
+ * {@code encoder} and {@code compress} handlers, so a tile sent to N viewers
+ * is serialized and zlib-compressed N times. Here the packet is serialized
+ * once, using the encoder of the first connection it is written to, and
+ * compressed once per compression threshold. Each player is then written a
+ * {@code retainedDuplicate()} of the shared {@link ByteBuf}, from the
+ * pipeline position right after {@code compress} (or after {@code encoder}
+ * when the connection doesn't compress), so only framing and encryption run
+ * per player.
+ *
+ * <p>Connections that translate packets between versions, such as
+ * ViaVersion's, must see every packet, so they are never written encoded
+ * bytes and {@link #write} returns false for them.
+ *
+ * <p>Writes here are not flushed one by one: a frame's packets are written
+ * and the connection is flushed once, which is one syscall per player and
+ * frame instead of one per tile.
+ */
+
+public final class SharedPacketWriter {
+
+	private final Map<Player, Connection> connections = Collections.synchronizedMap(new WeakHashMap<>());
+	private final ThreadLocal<Deflater> deflaters = ThreadLocal.withInitial(Deflater::new);
+	private final boolean shareEncoding;
+
+	private volatile boolean disabled;
+
+    /**
+     * @param shareEncoding False to only use the writer for coalesced
+     *        flushing, {@link #share} then returns null.
+     */
+
+	public SharedPacketWriter(boolean shareEncoding) {
+		this.shareEncoding = shareEncoding;
+	}
+
+    /**
+     * Starts sharing the encoding of a packet.
+     *
+     * @param packet The packet, never modified afterwards.
+     * @return The shared encoding, to be {@link Encoded#release() released}
+     *         once no longer written, or null if encodings aren't shared.
+     */
+
+	public Encoded share(Object packet) {
+		return shareEncoding ? new Encoded(packet) : null;
+	}
+
+    /**
+     * Writes an encoded packet to a player.
+     *
+     * @return False if the player must be sent the packet the usual way.
+     */
+
+	public boolean write(Player player, Encoded encoded) {
+		return writeAll(player, List.of(encoded), null);
+	}
+
+    /**
+     * Writes encoded packets to a player with a single flush, optionally
+     * between two bundle delimiters so the client applies them together.
+     * Nothing is written unless all of them can be.
+     *
+     * @param delimiter The encoded bundle delimiter, or null.
+     * @return False if the player must be sent the packets the usual way.
+     */
+
+	public boolean writeAll(Player player, List<Encoded> encoded, Encoded delimiter) {
+		if(disabled || player == null) return false;
+		Connection connection = getConnection(player);
+		if(connection == null || !connection.eligible) return false;
+		try {
+			ByteBuf[] bodies = new ByteBuf[encoded.size()];
+			for(int i = 0; i < bodies.length; i++) {
+				bodies[i] = encoded.get(i) == null ? null : encoded.get(i).body(connection, this);
+				if(bodies[i] == null) return false;
+			}
+			ByteBuf delimiterBody = delimiter == null ? null : delimiter.body(connection, this);
+			if(delimiter != null && delimiterBody == null) return false;
+			if(delimiterBody != null) connection.output.write(delimiterBody.retainedDuplicate());
+			for(ByteBuf body : bodies) {
+				connection.output.write(body.retainedDuplicate());
+			}
+			if(delimiterBody != null) connection.output.write(delimiterBody.retainedDuplicate());
+			connection.output.flush();
+			return true;
+		}catch (ReflectiveOperationException | RuntimeException e) {
+			disabled = true;
+			return false;
+		}
+	}
+
+    /**
+     * Writes packets to a player's connection the usual way, through the
+     * whole pipeline, but flushes only once after the last one.
+     *
+     * @return False if the player's connection couldn't be found.
+     */
+
+	public boolean writePackets(Player player, List<Object> packets) {
+		if(player == null) return false;
+		Connection connection = getConnection(player);
+		if(connection == null) return false;
+		for(Object packet : packets) {
+			connection.channel.write(packet);
+		}
+		connection.channel.flush();
+		return true;
+	}
+
+    /**
+     * @return Bytes queued on the player's channel, {@link Long#MAX_VALUE}
+     *         if the channel isn't writable, or -1 if it couldn't be found.
+     */
+
+	public long getPendingBytes(Player player) {
+		if(player == null) return -1L;
+		Connection connection = getConnection(player);
+		if(connection == null) return -1L;
+		if(!connection.channel.isWritable()) return Long.MAX_VALUE;
+		ChannelOutboundBuffer buffer = connection.channel.unsafe().outboundBuffer();
+		return buffer == null ? 0L : buffer.totalPendingWriteBytes();
+	}
+
+	private Connection getConnection(Player player) {
+		Connection connection = connections.get(player);
+		if(connection != null && connection.isCurrent()) return connection;
+		connection = Connection.of(findChannel(player));
+		if(connection == null) return null;
+		connections.put(player, connection);
+		return connection;
+	}
+
+    /**
+     * Builds the body the {@code compress} handler would produce: the
+     * uncompressed length as a VarInt followed by the deflated packet, or 0
+     * followed by the packet itself when it is under the threshold.
+     */
+
+	static byte[] compress(byte[] raw, int threshold, Deflater deflater) {
+		if(raw.length < threshold) {
+			byte[] body = new byte[varIntSize(0) + raw.length];
+			int offset = writeVarInt(body, 0, 0);
+			System.arraycopy(raw, 0, body, offset, raw.length);
+			return body;
+		}
+		deflater.reset();
+		deflater.setInput(raw);
+		deflater.finish();
+		byte[] deflated = new byte[raw.length + 64];
+		int length = 0;
+		while(!deflater.finished()) {
+			if(length == deflated.length) deflated = java.util.Arrays.copyOf(deflated, deflated.length * 2);
+			length += deflater.deflate(deflated, length, deflated.length - length);
+		}
+		byte[] body = new byte[varIntSize(raw.length) + length];
+		int offset = writeVarInt(body, 0, raw.length);
+		System.arraycopy(deflated, 0, body, offset, length);
+		return body;
+	}
+
+	private static int varIntSize(int value) {
+		int size = 1;
+		while((value & ~0x7F) != 0) {
+			value >>>= 7;
+			size++;
+		}
+		return size;
+	}
+
+	private static int writeVarInt(byte[] target, int offset, int value) {
+		while((value & ~0x7F) != 0) {
+			target[offset++] = (byte) ((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		target[offset++] = (byte) value;
+		return offset;
+	}
+
+	private static Channel findChannel(Player player) {
+		try {
+			Object handle = player.getClass().getMethod("getHandle").invoke(player);
+			return findChannel(handle, new HashSet<>(), 4);
+		}catch (ReflectiveOperationException | RuntimeException e) {
+			return null;
+		}
+	}
+
+	private static Channel findChannel(Object value, Set<Object> visited, int depth) {
+		if(value == null || depth < 0 || visited.contains(value)) return null;
+		if(value instanceof Channel) return (Channel) value;
+		visited.add(value);
+		for(Class<?> type = value.getClass(); type != null && !type.equals(Object.class); type = type.getSuperclass()) {
+			for(Field field : type.getDeclaredFields()) {
+				if(Modifier.isStatic(field.getModifiers()) || field.getType().isPrimitive() || field.getType().isArray()) continue;
+				try {
+					field.setAccessible(true);
+					Channel channel = findChannel(field.get(value), visited, depth - 1);
+					if(channel != null) return channel;
+				}catch (IllegalAccessException | RuntimeException ignored) {
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Pipeline positions of one player's connection.
+	 */
+
+	private static final class Connection {
+
+		private final Channel channel;
+		private final ChannelHandlerContext encoder;
+		private final ChannelHandlerContext output;
+		private final int threshold;
+		private final boolean eligible;
+
+		private Connection(Channel channel, ChannelHandlerContext encoder, ChannelHandlerContext output, int threshold, boolean eligible) {
+			this.channel = channel;
+			this.encoder = encoder;
+			this.output = output;
+			this.threshold = threshold;
+			this.eligible = eligible;
+		}
+
+		private static Connection of(Channel channel) {
+			if(channel == null) return null;
+			ChannelPipeline pipeline = channel.pipeline();
+			ChannelHandlerContext encoder = pipeline.context("encoder");
+			ChannelHandlerContext compress = pipeline.context("compress");
+			boolean translated = false;
+			for(String name : pipeline.names()) {
+				if(name.startsWith("via-")) translated = true;
+			}
+			if(encoder == null) return new Connection(channel, null, null, -1, false);
+			int threshold = compress == null ? -1 : threshold(compress.handler());
+			boolean eligible = !translated && (compress == null || threshold >= 0);
+			return new Connection(channel, encoder, compress == null ? encoder : compress, threshold, eligible);
+		}
+
+	    /**
+	     * Handlers get swapped when the connection changes protocol state or
+	     * starts compressing, which calls for a new lookup.
+	     */
+
+		private boolean isCurrent() {
+			if(!channel.isOpen()) return false;
+			if(encoder == null) return channel.pipeline().context("encoder") == null;
+			ChannelPipeline pipeline = channel.pipeline();
+			return pipeline.context("encoder") == encoder && (output == encoder ? pipeline.context("compress") == null : pipeline.context("compress") == output);
+		}
+
+		private static int threshold(ChannelHandler handler) {
+			for(Class<?> type = handler.getClass(); type != null && !type.equals(Object.class); type = type.getSuperclass()) {
+				for(Field field : type.getDeclaredFields()) {
+					if(field.getType() != int.class || Modifier.isStatic(field.getModifiers())) continue;
+					try {
+						field.setAccessible(true);
+						return field.getInt(handler);
+					}catch (IllegalAccessException | RuntimeException e) {
+						return -1;
+					}
+				}
+			}
+			return -1;
+		}
+	}
+
+	/**
+	 * One packet's serialized bytes, plus its compressed frame bodies by
+	 * compression threshold. Every body is a single reference counted
+	 * buffer that viewers get duplicates of.
+	 */
+
+	public static final class Encoded {
+
+		private static final Map<Class<?>, Method> ENCODE_METHODS = new ConcurrentHashMap<>();
+
+		private final Object packet;
+		private final Map<Integer, ByteBuf> bodies = new ConcurrentHashMap<>();
+		private byte[] raw;
+		private boolean released;
+
+		private Encoded(Object packet) {
+			this.packet = packet;
+		}
+
+		private synchronized ByteBuf body(Connection connection, SharedPacketWriter writer) throws ReflectiveOperationException {
+			if(released) return null;
+			ByteBuf body = bodies.get(connection.threshold);
+			if(body != null) return body;
+			if(raw == null) raw = serialize(connection.encoder, packet);
+			body = Unpooled.wrappedBuffer(connection.threshold < 0 ? raw : compress(raw, connection.threshold, writer.deflaters.get()));
+			bodies.put(connection.threshold, body);
+			return body;
+		}
+
+	    /**
+	     * Drops this encoding's own references. Duplicates already written
+	     * stay valid until the connections have sent them.
+	     */
+
+		public synchronized void release() {
+			released = true;
+			for(ByteBuf body : bodies.values()) {
+				body.release();
+			}
+			bodies.clear();
+		}
+
+		private static byte[] serialize(ChannelHandlerContext context, Object packet) throws ReflectiveOperationException {
+			Method encode = encodeMethod(context.handler().getClass());
+			ByteBuf out = Unpooled.buffer(16512);
+			try {
+				encode.invoke(context.handler(), context, packet, out);
+				byte[] bytes = new byte[out.readableBytes()];
+				out.getBytes(out.readerIndex(), bytes);
+				return bytes;
+			}finally {
+				out.release();
+			}
+		}
+
+		private static Method encodeMethod(Class<?> encoderClass) throws NoSuchMethodException {
+			Method cached = ENCODE_METHODS.get(encoderClass);
+			if(cached != null) return cached;
+			for(Class<?> type = encoderClass; type != null && !type.equals(Object.class); type = type.getSuperclass()) {
+				for(Method method : type.getDeclaredMethods()) {
+					Class<?>[] parameters = method.getParameterTypes();
+					if(method.getName().equals("encode") && parameters.length == 3 && parameters[0] == ChannelHandlerContext.class && parameters[2] == ByteBuf.class) {
+						method.setAccessible(true);
+						ENCODE_METHODS.put(encoderClass, method);
+						return method;
+					}
+				}
+			}
+			throw new NoSuchMethodException("packet encoder");
+		}
+	}
+}
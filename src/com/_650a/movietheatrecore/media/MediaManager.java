@@ -30,6 +30,7 @@ import com._650a.movietheatrecore.screen.Screen;
 import com._650a.movietheatrecore.tasks.TaskAsyncLoadConfigurations;
 import com._650a.movietheatrecore.util.Scheduler;
 import com._650a.movietheatrecore.video.Video;
+import com._650a.movietheatrecore.video.data.FrameManifest;
 
 public class MediaManager {
 
@@ -175,13 +176,19 @@ public class MediaManager {
                     video.createConfiguration(videoFile);
                 }
                 if (!video.isLoaded()) {
-                    video.load();
-                    scheduler.runSync(() -> {
-                        if (onError != null) {
-                            onError.accept("Media is loading. Try again shortly.");
-                        }
-                    });
-                    return;
+                    if (!plugin.getLoadingVideos().contains(video.getName())) {
+                        video.load();
+                    }
+                    // Piped or progressive playback starts before the
+                    // frames are all extracted; loading goes on meanwhile.
+                    if (!plugin.getPlaybackManager().canPlayWhileLoading(video)) {
+                        scheduler.runSync(() -> {
+                            if (onError != null) {
+                                onError.accept("Media is loading. Try again shortly.");
+                            }
+                        });
+                        return;
+                    }
                 }
                 AudioPackManager.AudioPreparation preparation = audioPackManager.prepare(entry, videoFile);
                 library.save();
@@ -262,9 +269,13 @@ public class MediaManager {
                     video.createConfiguration(videoFile);
                 }
                 if (!video.isLoaded()) {
-                    video.load();
-                    scheduler.runSync(() -> sender.sendMessage(ChatColor.YELLOW + "Media is loading. Try again shortly."));
-                    return;
+                    if (!plugin.getLoadingVideos().contains(video.getName())) {
+                        video.load();
+                    }
+                    if (!plugin.getPlaybackManager().canPlayWhileLoading(video)) {
+                        scheduler.runSync(() -> sender.sendMessage(ChatColor.YELLOW + "Media is loading. Try again shortly."));
+                        return;
+                    }
                 }
                 AudioPackManager.AudioPreparation preparation = audioPackManager.prepare(entry, videoFile);
                 library.save();
@@ -313,6 +324,10 @@ public class MediaManager {
         if (configFolder.exists()) {
             FileUtils.deleteDirectory(configFolder);
         }
+        FrameManifest.forget(configFolder);
+        if (plugin.getRenditionCache() != null) {
+            plugin.getRenditionCache().delete(entry.getName());
+        }
         File audioFolder = new File(configuration.getAudioChunksFolder(), entry.getId());
         if (audioFolder.exists()) {
             FileUtils.deleteDirectory(audioFolder);
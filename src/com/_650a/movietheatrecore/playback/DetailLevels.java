@@ -0,0 +1,122 @@
+package com._650a.movietheatrecore.playback;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com._650a.movietheatrecore.render.DetailBand;
+import com._650a.movietheatrecore.render.QuantizedTile;
+
+/**
+ * A screen's {@link DetailBand}s, and the reduced-resolution tiles sent to
+ * viewers in them.
+ *
+ * <p>Band 0 is always the nearest; unless a band starts right at the
+ * screen, it is full detail. A reduced tile takes one pixel from the middle
+ * of each block of the full tile and repeats it over the block, which is
+ * what the client would show for a frame rendered at the lower resolution
+ * and scaled up. Reduced tiles follow the same rules as full ones: the
+ * array is kept for as long as the full tile or its reduced content stays
+ * the same, so the {@link ViewerTileTracker} still sees unchanged tiles as
+ * unchanged, and all viewers of a band share the arrays and thereby their
+ * dirty rectangles and packets.
+ *
+ * <p>Tiles are reduced on the session's delivery lane only.
+ */
+final class DetailLevels {
+
+    private final DetailBand[] bands;
+    private final byte[][][] sources;
+    private final byte[][][] reduced;
+
+    DetailLevels(List<DetailBand> configured) {
+        List<DetailBand> all = new ArrayList<>();
+        if (configured.isEmpty() || configured.get(0).distance() > 0.0) {
+            all.add(DetailBand.FULL);
+        }
+        all.addAll(configured);
+        this.bands = all.toArray(new DetailBand[0]);
+        this.sources = new byte[bands.length][][];
+        this.reduced = new byte[bands.length][][];
+    }
+
+    int size() {
+        return bands.length;
+    }
+
+    DetailBand get(int band) {
+        return bands[band];
+    }
+
+    /**
+     * @return The band of a viewer {@code distanceSquared} squared blocks
+     *         away.
+     */
+    int bandOf(double distanceSquared) {
+        int band = 0;
+        for (int i = 1; i < bands.length; i++) {
+            if (distanceSquared >= bands[i].distance() * bands[i].distance()) {
+                band = i;
+            }
+        }
+        return band;
+    }
+
+    /**
+     * @return {@code tiles} as seen by viewers in {@code band}.
+     */
+    QuantizedTile[] tilesFor(int band, QuantizedTile[] tiles) {
+        int scale = bands[band].scale();
+        if (scale == 1) {
+            return tiles;
+        }
+        if (sources[band] == null || sources[band].length != tiles.length) {
+            sources[band] = new byte[tiles.length][];
+            reduced[band] = new byte[tiles.length][];
+        }
+        byte[][] lastSources = sources[band];
+        byte[][] lastReduced = reduced[band];
+        QuantizedTile[] result = new QuantizedTile[tiles.length];
+        for (int i = 0; i < tiles.length; i++) {
+            QuantizedTile tile = tiles[i];
+            if (lastSources[i] == tile.data()) {
+                result[i] = QuantizedTile.unchanged(lastReduced[i]);
+                continue;
+            }
+            byte[] data = reduce(tile.data(), scale);
+            lastSources[i] = tile.data();
+            if (lastReduced[i] != null && Arrays.equals(lastReduced[i], data)) {
+                result[i] = QuantizedTile.unchanged(lastReduced[i]);
+                continue;
+            }
+            boolean first = lastReduced[i] == null;
+            lastReduced[i] = data;
+            result[i] = first || !tile.changed() ? QuantizedTile.full(data) : new QuantizedTile(data, true,
+                    tile.minX() / scale * scale, tile.minY() / scale * scale,
+                    (tile.maxX() / scale + 1) * scale - 1, (tile.maxY() / scale + 1) * scale - 1);
+        }
+        return result;
+    }
+
+    /**
+     * @return A new tile holding the middle pixel of each
+     *         {@code scale}x{@code scale} block of {@code data}, repeated over
+     *         the block.
+     */
+    static byte[] reduce(byte[] data, int scale) {
+        int size = QuantizedTile.SIZE;
+        byte[] out = new byte[size * size];
+        int middle = scale / 2;
+        for (int blockY = 0; blockY < size; blockY += scale) {
+            int sampleRow = (blockY + middle) * size;
+            int row = blockY * size;
+            for (int blockX = 0; blockX < size; blockX += scale) {
+                Arrays.fill(out, row + blockX, row + blockX + scale, data[sampleRow + blockX + middle]);
+            }
+            for (int y = 1; y < scale; y++) {
+                System.arraycopy(out, row, out, row + y * size, size);
+            }
+        }
+        return out;
+    }
+}
@@ -0,0 +1,253 @@
+package com._650a.movietheatrecore.playback;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com._650a.movietheatrecore.render.QuantizedTile;
+
+/**
+ * Read-ahead ring of rendered frames for one playback session.
+ *
+ * <p>A fill task on the render executor renders frames in order ahead of
+ * the playhead, one frame per task, until the ring holds {@code capacity}
+ * frames or the frames buffered by all sessions together exceed the shared
+ * memory cap.
+ * The main thread then only takes frames that are already done. If the
+ * playhead gets ahead of the ring, the fill task skips straight to the
+ * frame that is due instead of rendering frames nobody will see. With a
+ * render stride above 1, set by the {@link FrameScheduler} to keep rendering
+ * within budget, only every {@code stride}th frame is rendered at all.
+ *
+ * <p>Frames are numbered by a sequence that keeps counting when a looping
+ * video wraps, so ordering stays unambiguous across loops.
+ */
+public final class FramePrefetcher {
+
+    private static final AtomicLong BUFFERED_BYTES = new AtomicLong();
+
+    /**
+     * Renders one frame of the video, or returns null if the frame is
+     * missing and should be skipped.
+     */
+    interface FrameSource {
+        QuantizedTile[] render(int index) throws IOException;
+    }
+
+    record PreparedFrame(long sequence, int index, QuantizedTile[] tiles, long bytes) {
+    }
+
+    public record Stats(int buffered, int capacity, long underruns, long dropped, long bufferedBytes, long totalBufferedBytes) {
+    }
+
+    private final FrameSource source;
+    private final Executor executor;
+    private final int totalFrames;
+    private final boolean loop;
+    private final int capacity;
+    private final long memoryCapBytes;
+    private final ArrayDeque<PreparedFrame> ring = new ArrayDeque<>();
+
+    private long nextSequence;
+    private long wantedSequence;
+    private long bufferedBytes;
+    private long underruns;
+    private long dropped;
+    private long renderNanos;
+    private long limit = Long.MAX_VALUE;
+    private int stride = 1;
+    private boolean running;
+    private boolean filling;
+    private boolean idle;
+    private IOException failure;
+
+    FramePrefetcher(FrameSource source, Executor executor, int totalFrames, boolean loop, int capacity, int memoryCapMegabytes) {
+        this.source = source;
+        this.executor = executor;
+        this.totalFrames = Math.max(1, totalFrames);
+        this.loop = loop;
+        this.capacity = Math.max(1, capacity);
+        this.memoryCapBytes = Math.max(1L, memoryCapMegabytes) * 1024L * 1024L;
+    }
+
+    synchronized void start() {
+        running = true;
+        schedule();
+    }
+
+    /**
+     * Drops every buffered frame. A fill task that is still rendering
+     * discards its frame when it finishes.
+     */
+    synchronized void stop() {
+        running = false;
+        while (!ring.isEmpty()) {
+            release(ring.pollFirst());
+        }
+    }
+
+    /**
+     * Stops filling while nobody is watching; frames already in the ring
+     * are kept.
+     */
+    synchronized void setIdle(boolean idle) {
+        this.idle = idle;
+        if (!idle) {
+            schedule();
+        }
+    }
+
+    /**
+     * Renders only every {@code stride}th frame from now on.
+     */
+    synchronized void setStride(int stride) {
+        this.stride = Math.max(1, stride);
+    }
+
+    /**
+     * Renders no frame at or past {@code sequence}, for videos whose frames
+     * are still being extracted.
+     */
+    synchronized void setLimit(long sequence) {
+        this.limit = sequence;
+        schedule();
+    }
+
+    /**
+     * @return Nanoseconds spent rendering since the last call.
+     */
+    synchronized long drainRenderNanos() {
+        long nanos = renderNanos;
+        renderNanos = 0L;
+        return nanos;
+    }
+
+    /**
+     * Takes the newest buffered frame due at {@code dueSequence}. Older due
+     * frames are dropped, and their changed regions are folded into the
+     * returned frame so that it still updates everything that changed since
+     * the last frame that was shown.
+     *
+     * @return The frame to show, or null if the frame that is due is not
+     *         ready yet.
+     */
+    synchronized PreparedFrame take(long dueSequence) {
+        wantedSequence = Math.max(wantedSequence, dueSequence);
+        PreparedFrame latest = null;
+        while (!ring.isEmpty() && ring.peekFirst().sequence() <= dueSequence) {
+            PreparedFrame frame = ring.pollFirst();
+            release(frame);
+            if (latest != null) {
+                dropped++;
+                frame = fold(latest, frame);
+            }
+            latest = frame;
+        }
+        // With a stride, frames between two rendered ones are skipped on
+        // purpose; only an empty ring means rendering fell behind.
+        if (latest == null && ring.isEmpty()) {
+            underruns++;
+        }
+        schedule();
+        return latest;
+    }
+
+    /**
+     * @return The error that stopped the fill task, if any.
+     */
+    synchronized IOException getFailure() {
+        return failure;
+    }
+
+    synchronized Stats getStats() {
+        return new Stats(ring.size(), capacity, underruns, dropped, bufferedBytes, BUFFERED_BYTES.get());
+    }
+
+    private void schedule() {
+        if (filling || !canFill()) {
+            return;
+        }
+        filling = true;
+        executor.execute(this::fill);
+    }
+
+    private boolean canFill() {
+        if (!running || idle || failure != null || ring.size() >= capacity) {
+            return false;
+        }
+        long next = Math.max(nextSequence, wantedSequence);
+        if (next >= limit || !loop && next >= totalFrames) {
+            return false;
+        }
+        // An empty ring may always take one frame so every session keeps
+        // moving when the cap is shared by many screens.
+        return ring.isEmpty() || BUFFERED_BYTES.get() < memoryCapBytes;
+    }
+
+    /**
+     * Renders one frame, then queues itself again if the ring still has
+     * room, so sessions sharing the executor take turns per frame.
+     */
+    private void fill() {
+        long sequence;
+        synchronized (this) {
+            if (!canFill()) {
+                filling = false;
+                return;
+            }
+            sequence = Math.max(nextSequence, wantedSequence);
+        }
+        int index = (int) (sequence % totalFrames);
+        QuantizedTile[] tiles;
+        long started = System.nanoTime();
+        try {
+            tiles = source.render(index);
+        } catch (IOException | RuntimeException e) {
+            synchronized (this) {
+                failure = e instanceof IOException io ? io : new IOException(e);
+                filling = false;
+            }
+            return;
+        }
+        synchronized (this) {
+            renderNanos += System.nanoTime() - started;
+            nextSequence = sequence + stride;
+            if (running && tiles != null) {
+                long bytes = changedBytes(tiles);
+                bufferedBytes += bytes;
+                BUFFERED_BYTES.addAndGet(bytes);
+                ring.addLast(new PreparedFrame(sequence, index, tiles, bytes));
+            }
+            filling = false;
+            schedule();
+        }
+    }
+
+    private void release(PreparedFrame frame) {
+        bufferedBytes -= frame.bytes();
+        BUFFERED_BYTES.addAndGet(-frame.bytes());
+    }
+
+    private static PreparedFrame fold(PreparedFrame earlier, PreparedFrame later) {
+        QuantizedTile[] tiles = later.tiles().clone();
+        for (int i = 0; i < tiles.length && i < earlier.tiles().length; i++) {
+            tiles[i] = tiles[i].since(earlier.tiles()[i]);
+        }
+        return new PreparedFrame(later.sequence(), later.index(), tiles, later.bytes());
+    }
+
+    /**
+     * Unchanged tiles share the array of an older frame, so only changed
+     * tiles count against the cap.
+     */
+    private static long changedBytes(QuantizedTile[] tiles) {
+        long bytes = 0L;
+        for (QuantizedTile tile : tiles) {
+            if (tile.changed()) {
+                bytes += tile.data().length;
+            }
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,231 @@
+package com._650a.movietheatrecore.playback;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Server-wide arbiter of which playing screens get to show a frame each
+ * tick.
+ *
+ * <p>Every session registers here instead of running its own task. Once per
+ * tick the scheduler runs each session's tick, collects the frames that are
+ * due, and admits them within the global {@link Budget} by weighted fair
+ * queuing: a session's virtual time grows by the bytes of each admitted
+ * frame divided by its {@link RenderPriority#getWeight() weight}, and offers
+ * are admitted lowest virtual time first. Under contention a theatre show
+ * therefore gets eight times the share of an ambient screen, and frames that
+ * don't fit are skipped rather than delayed; the next frame a viewer gets
+ * carries everything that changed in between.
+ *
+ * <p>Rendering happens ahead of time on the render executor, so the render
+ * budget is enforced by feedback instead: once a second, if the sessions
+ * together render for longer per tick than allowed, the session using the
+ * most render time for its weight renders only every 2nd, 4th or 8th frame,
+ * and when there is room again the most important throttled session gets
+ * its frames back.
+ *
+ * <p>Main thread only.
+ */
+public final class FrameScheduler {
+
+    static final int MAX_RENDER_STRIDE = 8;
+    private static final int RENDER_ADJUST_TICKS = 20;
+
+    /**
+     * Limits shared by all sessions, each 0 or less for no limit.
+     */
+    public record Budget(int tilesPerTick, long bytesPerSecond, int renderMillisPerTick) {
+    }
+
+    /**
+     * A playback session as seen by the scheduler.
+     */
+    interface Participant {
+
+        /**
+         * Runs the session's tick.
+         *
+         * @return The frame the session would show now, or null.
+         */
+        Offer tick();
+
+        /**
+         * Makes the session render only every {@code stride}th frame.
+         */
+        void setRenderStride(int stride);
+
+        /**
+         * @return Nanoseconds spent rendering since the last call.
+         */
+        long drainRenderNanos();
+    }
+
+    /**
+     * A frame a session wants to show, with its estimated cost: tile updates
+     * over all viewers and the bytes they carry.
+     */
+    record Offer(int tiles, long bytes, Runnable accept, Runnable skip) {
+    }
+
+    public record Stats(long accepted, long skipped, int renderStride) {
+    }
+
+    private final Budget budget;
+    private final Map<Participant, Entry> entries = new LinkedHashMap<>();
+
+    private double systemVirtualTime;
+    private double byteTokens;
+    private int ticksSinceRenderAdjust;
+
+    public FrameScheduler(Budget budget) {
+        this.budget = budget;
+        this.byteTokens = Math.max(0L, budget.bytesPerSecond());
+    }
+
+    void register(Participant participant, RenderPriority priority) {
+        Entry entry = new Entry(participant, Math.max(1, priority.getWeight()));
+        entry.virtualTime = systemVirtualTime;
+        entries.put(participant, entry);
+    }
+
+    void unregister(Participant participant) {
+        entries.remove(participant);
+    }
+
+    boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    Stats getStats(Participant participant) {
+        Entry entry = entries.get(participant);
+        return entry == null ? new Stats(0L, 0L, 1) : new Stats(entry.accepted, entry.skipped, entry.renderStride);
+    }
+
+    void tick() {
+        if (budget.bytesPerSecond() > 0) {
+            byteTokens = Math.min(budget.bytesPerSecond(), byteTokens + budget.bytesPerSecond() / 20.0);
+        }
+        List<Entry> snapshot = new ArrayList<>(entries.values());
+        List<Pending> offers = new ArrayList<>();
+        for (Entry entry : snapshot) {
+            if (entries.get(entry.participant) != entry) {
+                continue;
+            }
+            Offer offer = entry.participant.tick();
+            if (offer != null) {
+                entry.virtualTime = Math.max(entry.virtualTime, systemVirtualTime);
+                offers.add(new Pending(entry, offer, entry.virtualTime + cost(offer) / entry.weight));
+            }
+        }
+        admit(offers);
+        if (budget.renderMillisPerTick() > 0) {
+            balanceRendering(snapshot);
+        }
+    }
+
+    private void admit(List<Pending> offers) {
+        offers.sort(Comparator.comparingDouble(Pending::finish));
+        // Virtual time of the system follows the earliest start among the
+        // sessions competing now, so a session that sat idle for a while
+        // can't come back with a pile of saved up credit.
+        double earliestStart = Double.MAX_VALUE;
+        for (Pending pending : offers) {
+            earliestStart = Math.min(earliestStart, pending.entry().virtualTime);
+        }
+        if (!offers.isEmpty()) {
+            systemVirtualTime = Math.max(systemVirtualTime, earliestStart);
+        }
+        int tilesLeft = budget.tilesPerTick();
+        boolean admittedAny = false;
+        for (Pending pending : offers) {
+            Offer offer = pending.offer();
+            boolean fitsTiles = budget.tilesPerTick() <= 0 || offer.tiles() <= tilesLeft;
+            boolean fitsBytes = budget.bytesPerSecond() <= 0 || offer.bytes() <= byteTokens;
+            // The first frame of a tick goes through whenever there is any
+            // budget left, so one frame larger than the budget can't stall
+            // every screen for good.
+            if (!admittedAny && (budget.tilesPerTick() <= 0 || tilesLeft > 0) && (budget.bytesPerSecond() <= 0 || byteTokens > 0)) {
+                fitsTiles = true;
+                fitsBytes = true;
+            }
+            Entry entry = pending.entry();
+            if (fitsTiles && fitsBytes) {
+                tilesLeft -= offer.tiles();
+                byteTokens -= offer.bytes();
+                entry.virtualTime = pending.finish();
+                entry.accepted++;
+                admittedAny = true;
+                offer.accept().run();
+            } else {
+                entry.skipped++;
+                offer.skip().run();
+            }
+        }
+    }
+
+    private void balanceRendering(List<Entry> snapshot) {
+        double total = 0.0;
+        for (Entry entry : snapshot) {
+            double millis = entry.participant.drainRenderNanos() / 1_000_000.0;
+            entry.renderMillis = entry.renderMillis * 0.9 + millis * 0.1;
+            total += entry.renderMillis;
+        }
+        if (++ticksSinceRenderAdjust < RENDER_ADJUST_TICKS) {
+            return;
+        }
+        ticksSinceRenderAdjust = 0;
+        int limit = budget.renderMillisPerTick();
+        if (total > limit) {
+            Entry heaviest = null;
+            for (Entry entry : snapshot) {
+                if (entry.renderStride < MAX_RENDER_STRIDE && (heaviest == null || entry.renderMillis / entry.weight > heaviest.renderMillis / heaviest.weight)) {
+                    heaviest = entry;
+                }
+            }
+            if (heaviest != null) {
+                heaviest.setRenderStride(heaviest.renderStride * 2);
+            }
+        } else if (total < limit * 0.6) {
+            Entry favourite = null;
+            for (Entry entry : snapshot) {
+                if (entry.renderStride > 1 && (favourite == null || entry.weight > favourite.weight)) {
+                    favourite = entry;
+                }
+            }
+            if (favourite != null) {
+                favourite.setRenderStride(favourite.renderStride / 2);
+            }
+        }
+    }
+
+    private static double cost(Offer offer) {
+        return Math.max(1L, offer.bytes());
+    }
+
+    private record Pending(Entry entry, Offer offer, double finish) {
+    }
+
+    private static final class Entry {
+
+        private final Participant participant;
+        private final int weight;
+        private double virtualTime;
+        private double renderMillis;
+        private int renderStride = 1;
+        private long accepted;
+        private long skipped;
+
+        private Entry(Participant participant, int weight) {
+            this.participant = participant;
+            this.weight = weight;
+        }
+
+        private void setRenderStride(int stride) {
+            renderStride = stride;
+            participant.setRenderStride(stride);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com._650a.movietheatrecore.playback;
+
+/**
+ * How far frame extraction of a loading video has got, so it can be played
+ * while it still loads.
+ *
+ * <p>The watermark is the number of frames from the start that are fully
+ * written; frames below it can be read. Throughput is measured over windows
+ * of at least a second and smoothed, so a stall shows up within seconds.
+ * {@link #isSafe} estimates whether a playhead can run at real time from
+ * where it is without reaching the watermark before extraction ends.
+ *
+ * <p>Updated by the loading task and read by sessions on the main thread.
+ */
+public final class IngestProgress {
+
+    private static final long WINDOW_NANOS = 1_000_000_000L;
+    private static final double SMOOTHING = 0.3;
+    private static final double SAFETY = 1.1;
+
+    private final int totalFrames;
+
+    private int watermark;
+    private boolean complete;
+    private double framesPerSecond;
+    private boolean measured;
+    private int windowFrames;
+    private long windowStartNanos;
+
+    public IngestProgress(int totalFrames, long nowNanos) {
+        this.totalFrames = Math.max(0, totalFrames);
+        this.windowStartNanos = nowNanos;
+    }
+
+    /**
+     * @param readyFrames Frames from the start that are fully written.
+     */
+    public synchronized void update(int readyFrames, long nowNanos) {
+        if (complete) {
+            return;
+        }
+        watermark = Math.max(watermark, Math.min(totalFrames, readyFrames));
+        long elapsed = nowNanos - windowStartNanos;
+        if (elapsed < WINDOW_NANOS) {
+            return;
+        }
+        double rate = (watermark - windowFrames) * 1_000_000_000.0 / elapsed;
+        framesPerSecond = measured ? framesPerSecond + SMOOTHING * (rate - framesPerSecond) : rate;
+        measured = true;
+        windowFrames = watermark;
+        windowStartNanos = nowNanos;
+    }
+
+    /**
+     * Marks every frame as written.
+     */
+    public synchronized void complete() {
+        watermark = totalFrames;
+        complete = true;
+    }
+
+    public synchronized int getWatermark() {
+        return watermark;
+    }
+
+    public int getTotalFrames() {
+        return totalFrames;
+    }
+
+    public synchronized boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * @return Smoothed extraction throughput, 0 until a full window was
+     *         measured.
+     */
+    public synchronized double getFramesPerSecond() {
+        return framesPerSecond;
+    }
+
+    /**
+     * Whether playback from {@code playhead} at {@code playbackFps} stays at
+     * least {@code leadFrames} behind the watermark: it must be that far
+     * behind now, and still be once extraction, at its current throughput
+     * less a safety margin, reaches the last frame.
+     */
+    public synchronized boolean isSafe(long playhead, double playbackFps, int leadFrames) {
+        if (complete) {
+            return true;
+        }
+        long ahead = watermark - playhead;
+        if (ahead < leadFrames || framesPerSecond <= 0.0) {
+            return false;
+        }
+        double rate = framesPerSecond / SAFETY;
+        if (rate >= playbackFps) {
+            return true;
+        }
+        double ingestSeconds = (totalFrames - watermark) / rate;
+        return ahead - (playbackFps - rate) * ingestSeconds >= leadFrames;
+    }
+}
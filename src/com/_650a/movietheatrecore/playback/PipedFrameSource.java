@@ -0,0 +1,224 @@
+package com._650a.movietheatrecore.playback;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import com._650a.movietheatrecore.render.QuantizedTile;
+import com._650a.movietheatrecore.render.ResampleFilter;
+import com._650a.movietheatrecore.render.ScalingMath;
+import com._650a.movietheatrecore.render.ScalingMode;
+import com._650a.movietheatrecore.render.ScalingTransform;
+
+/**
+ * Decodes a video's frames straight from an ffmpeg pipe instead of reading
+ * extracted frame files.
+ *
+ * <p>ffmpeg scales (and for {@link ScalingMode#FILL} crops) the video to
+ * the screen's resolution and writes raw {@code bgr24} frames to its
+ * stdout. Each frame is read through one {@link ByteBuffer} into the
+ * backing array of one {@link BufferedImage#TYPE_3BYTE_BGR} image, which
+ * the renderer then reads directly, so frames are neither encoded, stored
+ * nor decoded as images on the way. The pipe is read only when the
+ * session's prefetcher wants the next frame, so ffmpeg runs as far ahead as
+ * the pipe buffer lets it and then waits for the frame clock.
+ *
+ * <p>Frames are read in order. Frames the session skips are read and
+ * dropped; jumping back, when a video loops, or far ahead starts ffmpeg
+ * again at that frame.
+ *
+ * <p>Used from the session's render lane, except {@link #close()}.
+ */
+final class PipedFrameSource implements Closeable {
+
+    /**
+     * Starts the pipe at a frame.
+     */
+    interface Launcher {
+        ReadableByteChannel open(int firstFrame) throws IOException;
+    }
+
+    /**
+     * Size of the frames in the pipe and the ffmpeg filter making them.
+     */
+    record Output(int width, int height, String filter) {
+    }
+
+    private final Launcher launcher;
+    private final int maxSkipFrames;
+    private final BufferedImage image;
+    private final ByteBuffer buffer;
+
+    private volatile ReadableByteChannel channel;
+    private volatile boolean closed;
+    private int position;
+    private boolean ended;
+
+    /**
+     * @param maxSkipFrames Frames read and dropped at most to get to a
+     *        later frame before ffmpeg is started again at it instead.
+     */
+    PipedFrameSource(Launcher launcher, int width, int height, int maxSkipFrames) {
+        this.launcher = launcher;
+        this.maxSkipFrames = Math.max(0, maxSkipFrames);
+        this.image = new BufferedImage(width, height, BufferedImage.TYPE_3BYTE_BGR);
+        this.buffer = ByteBuffer.wrap(((DataBufferByte) image.getRaster().getDataBuffer()).getData());
+    }
+
+    /**
+     * Pipes {@code videoFile} through the ffmpeg at {@code executable},
+     * prepared for a screen of {@code columns} by {@code rows} maps.
+     *
+     * @param frameRate Rate frames are played at; the pipe is resampled to
+     *        it so frame numbers match the session's clock.
+     * @param sourceWidth Width of the video, or 0 if unknown, in which case
+     *        it is stretched.
+     */
+    static PipedFrameSource ffmpeg(String executable, File videoFile, double frameRate, int sourceWidth, int sourceHeight,
+            int columns, int rows, ScalingMode mode, ResampleFilter filter) {
+        Output output = plan(sourceWidth, sourceHeight, columns, rows, mode, filter);
+        double rate = Math.max(1.0, frameRate);
+        Launcher launcher = firstFrame -> {
+            List<String> command = new ArrayList<>(List.of(executable, "-hide_banner", "-loglevel", "error", "-nostdin"));
+            if (firstFrame > 0) {
+                command.add("-ss");
+                command.add(String.format(Locale.ROOT, "%.3f", firstFrame / rate));
+            }
+            command.addAll(List.of("-i", videoFile.getAbsolutePath(), "-an", "-sn", "-vf", output.filter(),
+                    "-r", String.format(Locale.ROOT, "%.3f", rate), "-f", "rawvideo", "-pix_fmt", "bgr24", "-"));
+            Process process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+            return new ProcessChannel(process);
+        };
+        return new PipedFrameSource(launcher, output.width(), output.height(), (int) Math.ceil(rate * 2));
+    }
+
+    /**
+     * Works out the frames ffmpeg should write so the renderer's own
+     * scaling, with the same mode, is one to one.
+     */
+    static Output plan(int sourceWidth, int sourceHeight, int columns, int rows, ScalingMode mode, ResampleFilter filter) {
+        int width = columns * QuantizedTile.SIZE;
+        int height = rows * QuantizedTile.SIZE;
+        String flags = ":flags=" + switch (filter) {
+            case BILINEAR -> "bilinear";
+            case AREA -> "area";
+            case LANCZOS3 -> "lanczos";
+        };
+        if (sourceWidth <= 0 || sourceHeight <= 0 || mode == ScalingMode.STRETCH) {
+            return new Output(width, height, "scale=" + width + ":" + height + flags);
+        }
+        ScalingTransform transform = ScalingMath.computeTransform(sourceWidth, sourceHeight, width, height, mode);
+        if (mode == ScalingMode.FIT) {
+            int scaledWidth = Math.max(1, Math.min(width, transform.scaledWidth(sourceWidth)));
+            int scaledHeight = Math.max(1, Math.min(height, transform.scaledHeight(sourceHeight)));
+            return new Output(scaledWidth, scaledHeight, "scale=" + scaledWidth + ":" + scaledHeight + flags);
+        }
+        return new Output(width, height, "crop=" + transform.cropWidth() + ":" + transform.cropHeight() + ":"
+                + transform.cropX() + ":" + transform.cropY() + ",scale=" + width + ":" + height + flags);
+    }
+
+    /**
+     * @return Frame {@code index}, in an image overwritten by the next
+     *         call, or null if the video ends before it.
+     */
+    synchronized BufferedImage read(int index) throws IOException {
+        if (closed) {
+            return null;
+        }
+        if (channel == null && !ended || index < position || index - position > maxSkipFrames) {
+            restart(index);
+            if (closed) {
+                stopPipe();
+                return null;
+            }
+        }
+        if (ended) {
+            return null;
+        }
+        while (position <= index) {
+            if (!readFrame()) {
+                return null;
+            }
+            position++;
+        }
+        return image;
+    }
+
+    /**
+     * Stops ffmpeg for good. A read in progress fails or ends the stream.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        stopPipe();
+    }
+
+    private void stopPipe() throws IOException {
+        ReadableByteChannel current = channel;
+        channel = null;
+        if (current != null) {
+            current.close();
+        }
+    }
+
+    private void restart(int index) throws IOException {
+        stopPipe();
+        channel = launcher.open(index);
+        position = index;
+        ended = false;
+    }
+
+    private boolean readFrame() throws IOException {
+        ReadableByteChannel current = channel;
+        buffer.clear();
+        while (current != null && buffer.hasRemaining()) {
+            if (current.read(buffer) < 0) {
+                break;
+            }
+        }
+        if (current == null || buffer.hasRemaining()) {
+            ended = true;
+            stopPipe();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * ffmpeg's stdout; closing it ends the process.
+     */
+    private static final class ProcessChannel implements ReadableByteChannel {
+
+        private final Process process;
+        private final ReadableByteChannel stdout;
+
+        private ProcessChannel(Process process) {
+            this.process = process;
+            this.stdout = Channels.newChannel(process.getInputStream());
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            return stdout.read(dst);
+        }
+
+        @Override
+        public boolean isOpen() {
+            return stdout.isOpen();
+        }
+
+        @Override
+        public void close() throws IOException {
+            process.destroy();
+            stdout.close();
+        }
+    }
+}
@@ -3,15 +3,19 @@ package com._650a.movietheatrecore.playback;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.bukkit.Location;
 import org.bukkit.entity.Player;
 import org.bukkit.event.player.PlayerResourcePackStatusEvent.Status;
+import org.bukkit.scheduler.BukkitTask;
 
 import com._650a.movietheatrecore.Main;
+import com._650a.movietheatrecore.configuration.Configuration;
 import com._650a.movietheatrecore.screen.Screen;
 import com._650a.movietheatrecore.screen.ScreenManager;
 import com._650a.movietheatrecore.screen.ScreenState;
+import com._650a.movietheatrecore.util.Scheduler;
 import com._650a.movietheatrecore.video.Video;
 
 public class PlaybackManager {
@@ -19,10 +23,64 @@ public class PlaybackManager {
     private final Main plugin;
     private final ScreenManager screenManager;
     private final Map<UUID, PlaybackSession> sessions = new HashMap<>();
+    private final Map<String, IngestProgress> ingests = new ConcurrentHashMap<>();
+    private final FrameScheduler frameScheduler;
+    private final boolean pipeFrames;
+    private final boolean progressive;
+
+    private BukkitTask frameTask;
 
     public PlaybackManager(Main plugin, ScreenManager screenManager) {
         this.plugin = plugin;
         this.screenManager = screenManager;
+        Configuration configuration = new Configuration();
+        this.frameScheduler = new FrameScheduler(new FrameScheduler.Budget(configuration.rendering_budget_tiles_per_tick(),
+                configuration.rendering_budget_kbytes_per_second() * 1024L, configuration.rendering_budget_render_ms_per_tick()));
+        this.pipeFrames = configuration.rendering_pipe_frames();
+        this.progressive = configuration.rendering_progressive_lead_seconds() > 0;
+    }
+
+    /**
+     * Starts tracking frame extraction of a video that is being loaded, so
+     * sessions can play it meanwhile.
+     */
+    public IngestProgress beginIngest(String videoName, int totalFrames) {
+        IngestProgress ingest = new IngestProgress(totalFrames, System.nanoTime());
+        ingests.put(videoName, ingest);
+        return ingest;
+    }
+
+    /**
+     * Stops tracking a load, whether or not it extracted every frame.
+     */
+    public void endIngest(String videoName, IngestProgress ingest) {
+        ingests.remove(videoName, ingest);
+    }
+
+    /**
+     * @return Extraction progress of {@code videoName}, or null if it is not
+     *         being loaded.
+     */
+    public IngestProgress getIngest(String videoName) {
+        return ingests.get(videoName);
+    }
+
+    /**
+     * @return Whether {@code video}, which is not loaded, can already be
+     *         played: from an ffmpeg pipe, or progressively behind its frame
+     *         extraction.
+     */
+    public boolean canPlayWhileLoading(Video video) {
+        return canPlayFromPipe(video) || progressive && getIngest(video.getName()) != null;
+    }
+
+    /**
+     * @return Whether sessions of {@code video} decode its frames from an
+     *         ffmpeg pipe, so it can play before its frames are extracted.
+     */
+    public boolean canPlayFromPipe(Video video) {
+        return pipeFrames && !video.isStreamed() && video.getVideoFile() != null && video.getVideoFile().isFile()
+                && plugin.getFfmpeg().isAvailable();
     }
 
     public PlaybackSession start(Screen screen, Video video) {
@@ -74,11 +132,42 @@ public class PlaybackManager {
             session.stop(true);
         }
         sessions.clear();
+        if (frameTask != null) {
+            frameTask.cancel();
+            frameTask = null;
+        }
         for (UUID screenId : screenManager.getScreens().keySet()) {
             screenManager.setState(screenId, ScreenState.IDLE);
         }
     }
 
+    /**
+     * Lets the frame scheduler drive a session's ticks, starting the
+     * scheduler's task with the first session.
+     */
+    void schedule(FrameScheduler.Participant participant, RenderPriority priority) {
+        frameScheduler.register(participant, priority);
+        if (frameTask == null) {
+            frameTask = new Scheduler(plugin).runSyncRepeating(this::tickFrames, 0L, 1L);
+        }
+    }
+
+    void unschedule(FrameScheduler.Participant participant) {
+        frameScheduler.unregister(participant);
+    }
+
+    FrameScheduler.Stats getScheduleStats(FrameScheduler.Participant participant) {
+        return frameScheduler.getStats(participant);
+    }
+
+    private void tickFrames() {
+        frameScheduler.tick();
+        if (frameScheduler.isEmpty() && frameTask != null) {
+            frameTask.cancel();
+            frameTask = null;
+        }
+    }
+
     public PlaybackSession getSession(Screen screen) {
         return sessions.get(screen.getUUID());
     }
@@ -3,9 +3,17 @@ package com._650a.movietheatrecore.playback;
 import com._650a.movietheatrecore.audio.AudioTrack;
 import com._650a.movietheatrecore.media.MediaEntry;
 
-public record PlaybackOptions(boolean allowAudio, MediaEntry mediaEntry, AudioTrack audioTrack) {
+public record PlaybackOptions(boolean allowAudio, MediaEntry mediaEntry, AudioTrack audioTrack, RenderPriority priority) {
+
+    public PlaybackOptions(boolean allowAudio, MediaEntry mediaEntry, AudioTrack audioTrack) {
+        this(allowAudio, mediaEntry, audioTrack, RenderPriority.NORMAL);
+    }
 
     public static PlaybackOptions defaultOptions() {
         return new PlaybackOptions(true, null, null);
     }
+
+    public PlaybackOptions withPriority(RenderPriority priority) {
+        return new PlaybackOptions(allowAudio, mediaEntry, audioTrack, priority);
+    }
 }
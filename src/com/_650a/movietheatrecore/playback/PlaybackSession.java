@@ -5,26 +5,24 @@ import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.atomic.AtomicBoolean;
 
-import javax.imageio.ImageIO;
-
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.Location;
 import org.bukkit.Material;
+import org.bukkit.block.BlockFace;
 import org.bukkit.entity.Entity;
 import org.bukkit.entity.EntityType;
 import org.bukkit.entity.ItemFrame;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.MapMeta;
-import org.bukkit.scheduler.BukkitTask;
 
 import com._650a.movietheatrecore.Main;
 import com._650a.movietheatrecore.audio.AudioPlayback;
@@ -32,14 +30,18 @@ import com._650a.movietheatrecore.audio.AudioTrack;
 import com._650a.movietheatrecore.configuration.Configuration;
 import com._650a.movietheatrecore.items.ItemStacks;
 import com._650a.movietheatrecore.map.colors.MapColorPalette;
-import com._650a.movietheatrecore.render.FrameScaler;
-import com._650a.movietheatrecore.render.MapTileSplitter;
-import com._650a.movietheatrecore.render.ScalingMode;
+import com._650a.movietheatrecore.render.FrameDitherer;
+import com._650a.movietheatrecore.render.FrameDecoder;
+import com._650a.movietheatrecore.render.QuantizedTile;
+import com._650a.movietheatrecore.render.ResampleFilter;
+import com._650a.movietheatrecore.render.TileRenderer;
 import com._650a.movietheatrecore.screen.Screen;
 import com._650a.movietheatrecore.screen.ScreenState;
 import com._650a.movietheatrecore.server.Server;
+import com._650a.movietheatrecore.util.MapUtil;
 import com._650a.movietheatrecore.util.Scheduler;
 import com._650a.movietheatrecore.video.Video;
+import com._650a.movietheatrecore.video.data.FrameManifest;
 import com._650a.movietheatrecore.video.data.VideoData;
 
 public class PlaybackSession {
@@ -52,26 +54,50 @@ public class PlaybackSession {
     private final PlaybackOptions options;
     private final UUID sessionId;
     private final Scheduler scheduler;
-    private final FrameScaler scaler = new FrameScaler();
+    private final FrameDecoder decoder = new FrameDecoder();
+    private final TileRenderer renderer = new TileRenderer();
+    private final FrameDitherer ditherer = new FrameDitherer();
+    private final ResampleFilter resampleFilter;
+    private final RenderExecutor.Lane renderLane;
+    private final RenderExecutor.Lane deliveryLane;
+    private final FramePrefetcher prefetcher;
+    private final ViewerTileTracker tileTracker;
+    private final ViewerPacer pacer;
+    private final DetailLevels detailLevels;
+    private final ViewerCulling culling;
+    private final RenditionCache.Rendition rendition;
+    private final RenditionSource renditionSource;
+    private final PipedFrameSource pipe;
+    private final int leadFrames;
+    private final FrameManifest frames;
     private final ItemStacks itemStacks = new ItemStacks();
-    private final AtomicBoolean rendering = new AtomicBoolean(false);
     private final AtomicBoolean stopping = new AtomicBoolean(false);
-    private final Set<BukkitTask> renderTasks = ConcurrentHashMap.newKeySet();
 
     private final Set<UUID> viewers = new HashSet<>();
+    private List<Player> viewerPlayers = List.of();
+    private List<List<Player>> viewerBands = List.of();
+    private Set<UUID> publishedViewers = Set.of();
     private final Set<UUID> audioListeners = new HashSet<>();
     private final Set<UUID> packPending = new HashSet<>();
     private final Set<UUID> packApplied = new HashSet<>();
 
-    private BukkitTask tickTask;
+    private final FrameScheduler.Participant participant = new ScheduledTicks();
+    private boolean scheduled;
     private java.util.function.Predicate<Player> audioAudienceFilter;
     private int audioUpdateCounter = 0;
+    private int culledViewers = 0;
     private boolean paused = false;
+    private boolean buffering = false;
+    private int ingestWatermark = -1;
     private volatile boolean active = true;
     private int frameIndex = 0;
-    private long lastFrameNanos = 0L;
+    private long nextSequence = 0L;
+    private long clockOriginNanos = 0L;
+    private long pausedAtNanos = 0L;
     private long frameDurationNanos;
     private PlaybackState state = PlaybackState.IDLE;
+    private volatile QuantizedTile[] shownTiles;
+    private long deliveredFrames;
     private AudioPlayback audioPlayback;
     private boolean packRequired = false;
 
@@ -93,6 +119,39 @@ public class PlaybackSession {
         this.sessionId = UUID.randomUUID();
         this.frameDurationNanos = (long) (1_000_000_000L / Math.max(1.0, video.getFrameRate()));
         this.scheduler = new Scheduler(plugin);
+        this.resampleFilter = ResampleFilter.fromName(configuration.rendering_resample_filter());
+        this.renderLane = plugin.getRenderExecutor().open(resolvePriority(this.options, video));
+        this.deliveryLane = plugin.getRenderExecutor().open(renderLane.getPriority());
+        this.prefetcher = new FramePrefetcher(this::renderTiles, renderLane, video.getTotalFrames(), video.isLoopping(),
+                configuration.rendering_prefetch_frames(), configuration.rendering_prefetch_memory_mb());
+        int keyframeSeconds = configuration.rendering_keyframe_interval_seconds();
+        this.tileTracker = new ViewerTileTracker(keyframeSeconds * 1_000_000_000L);
+        this.pacer = new ViewerPacer(configuration.rendering_adaptive_max_pending_kb() * 1024L,
+                (int) Math.round(Math.max(1.0, video.getFrameRate()) * Math.max(5, keyframeSeconds)));
+        this.detailLevels = new DetailLevels(screen.getDetailBands());
+        this.culling = new ViewerCulling(configuration.rendering_cull_view_angle(), configuration.rendering_cull_behind_screen(),
+                configuration.rendering_cull_line_of_sight_ticks());
+        RenditionCache renditions = plugin.getRenditionCache();
+        this.rendition = renditions == null ? null : renditions.acquire(video, new RenditionCache.Key(screen.getWidth(), screen.getHeight(),
+                screen.getScaleMode(), screen.getDitherMode(), resampleFilter));
+        this.renditionSource = rendition == null ? null : new RenditionSource(rendition.store());
+        this.pipe = renditionSource == null && manager.canPlayFromPipe(video) ? PipedFrameSource.ffmpeg(plugin.getFfmpeg().getExecutablePath(),
+                video.getVideoFile(), video.getFrameRate(), video.getWidth(), video.getHeight(), screen.getWidth(), screen.getHeight(),
+                screen.getScaleMode(), resampleFilter) : null;
+        this.frames = video.getFrameManifest();
+        this.leadFrames = (int) Math.ceil(configuration.rendering_progressive_lead_seconds() * Math.max(1.0, video.getFrameRate()));
+    }
+
+    /**
+     * Looping media started by a command is treated as ambient, so it does
+     * not take render threads from screens people are actually watching.
+     */
+    private static RenderPriority resolvePriority(PlaybackOptions options, Video video) {
+        RenderPriority priority = options.priority() == null ? RenderPriority.NORMAL : options.priority();
+        if (priority == RenderPriority.NORMAL && video.isLoopping()) {
+            return RenderPriority.AMBIENT;
+        }
+        return priority;
     }
 
     public UUID getSessionId() {
@@ -120,8 +179,8 @@ public class PlaybackSession {
     }
 
     public void start() {
-        if (tickTask != null) {
-            tickTask.cancel();
+        if (scheduled) {
+            manager.unschedule(participant);
         }
 
         state = PlaybackState.PLAYING;
@@ -129,9 +188,19 @@ public class PlaybackSession {
         setupResourcePack();
         ensureScreenMaps();
         logScreenDebugSnapshot("start");
-        lastFrameNanos = System.nanoTime();
+        nextSequence = 0L;
+        clockOriginNanos = System.nanoTime();
+        IngestProgress ingest = progressiveIngest();
+        if (ingest != null) {
+            buffering = true;
+            state = PlaybackState.BUFFERING;
+            ingestWatermark = ingest.getWatermark();
+            prefetcher.setLimit(ingestWatermark);
+        }
+        prefetcher.start();
 
-        tickTask = scheduler.runSyncRepeating(this::tick, 0L, 1L);
+        manager.schedule(participant, renderLane.getPriority());
+        scheduled = true;
         startAudioPlaybackIfReady();
         if (configuration.debug_render()) {
             plugin.getLogger().info("[MovieTheatreCore]: Renderer started for screen " + screen.getName() + " (video=" + video.getName() + ").");
@@ -139,11 +208,17 @@ public class PlaybackSession {
     }
 
     public void pause() {
-        paused = true;
+        if (!paused) {
+            paused = true;
+            pausedAtNanos = System.nanoTime();
+        }
     }
 
     public void resume() {
-        paused = false;
+        if (paused) {
+            clockOriginNanos += System.nanoTime() - pausedAtNanos;
+            paused = false;
+        }
     }
 
     public void stop(boolean showThumbnail) {
@@ -153,17 +228,31 @@ public class PlaybackSession {
         state = PlaybackState.STOPPING;
         active = false;
         paused = false;
-        rendering.set(false);
 
-        if (tickTask != null) {
-            tickTask.cancel();
-            tickTask = null;
+        if (scheduled) {
+            manager.unschedule(participant);
+            scheduled = false;
         }
 
-        for (BukkitTask task : renderTasks) {
-            task.cancel();
+        prefetcher.stop();
+        renderLane.close();
+        deliveryLane.close();
+        plugin.getMapUtil().release(screen.getIds());
+        renderer.reset();
+        tileTracker.clear();
+        pacer.clear();
+        culling.clear();
+        shownTiles = null;
+        if (rendition != null) {
+            plugin.getRenditionCache().release(rendition.file());
+        }
+        if (pipe != null) {
+            try {
+                pipe.close();
+            } catch (IOException e) {
+                plugin.getLogger().warning("[MovieTheatreCore]: Failed to stop ffmpeg for screen " + screen.getName() + ": " + e.getMessage());
+            }
         }
-        renderTasks.clear();
 
         if (resourcePackServer != null) {
             resourcePackServer.stop();
@@ -205,6 +294,9 @@ public class PlaybackSession {
         }
 
         viewers.clear();
+        viewerPlayers = List.of();
+        viewerBands = List.of();
+        publishedViewers = Set.of();
         audioListeners.clear();
         packPending.clear();
         packApplied.clear();
@@ -212,129 +304,335 @@ public class PlaybackSession {
         stopping.set(false);
     }
 
-    private void tick() {
-        if (paused) {
-            logRenderSkip("paused");
-            return;
+    /**
+     * The session's tick, run by the {@link FrameScheduler}. A frame that is
+     * due is only offered to the scheduler, which decides whether it fits
+     * the server's budget; a skipped frame still publishes the viewer set.
+     */
+    private final class ScheduledTicks implements FrameScheduler.Participant {
+
+        @Override
+        public FrameScheduler.Offer tick() {
+            updateViewers();
+            if (paused) {
+                publish(null);
+                logRenderSkip("paused");
+                return null;
+            }
+            if (holdForIngest()) {
+                publish(null);
+                logRenderSkip("waiting for frames to load (" + ingestWatermark + "/" + video.getTotalFrames() + ")");
+                return null;
+            }
+            QuantizedTile[] tiles = advance();
+            if (tiles == null) {
+                publish(null);
+                return null;
+            }
+            int changedTiles = 0;
+            long changedPixels = 0L;
+            for (QuantizedTile tile : tiles) {
+                if (tile.changed()) {
+                    changedTiles++;
+                    changedPixels += (long) tile.width() * tile.height();
+                }
+            }
+            int viewerCount = viewerPlayers.size();
+            return new FrameScheduler.Offer(changedTiles * viewerCount, changedPixels * viewerCount,
+                    () -> publish(tiles), () -> {
+                        publish(null);
+                        logRenderSkip("frame budget exceeded");
+                    });
+        }
+
+        @Override
+        public void setRenderStride(int stride) {
+            prefetcher.setStride(stride);
+        }
+
+        @Override
+        public long drainRenderNanos() {
+            return prefetcher.drainRenderNanos();
+        }
+    }
+
+    /**
+     * @return Frame extraction to play behind, or null if the video's
+     *         frames are all there or don't come from frame files.
+     */
+    private IngestProgress progressiveIngest() {
+        if (leadFrames <= 0 || pipe != null || renditionSource != null) {
+            return null;
         }
+        IngestProgress ingest = manager.getIngest(video.getName());
+        return ingest == null || ingest.isComplete() ? null : ingest;
+    }
 
-        updateViewers();
+    /**
+     * Keeps the playhead behind the ingest watermark while the video's
+     * frames are still being extracted. Playback is held until the
+     * watermark is {@code rendering.progressive-lead-seconds} ahead and
+     * extraction is estimated to stay ahead until it ends, and held again
+     * if the playhead gets within a second of the watermark anyway. Once
+     * audio plays the clock is never held again, since the audio can't be:
+     * frames past the watermark then underrun and are caught up on, keeping
+     * picture and sound in sync.
+     *
+     * @return Whether the clock is held this tick.
+     */
+    private boolean holdForIngest() {
+        IngestProgress ingest = progressiveIngest();
+        long now = System.nanoTime();
+        if (ingest == null) {
+            if (ingestWatermark >= 0) {
+                ingestWatermark = -1;
+                prefetcher.setLimit(Long.MAX_VALUE);
+            }
+            if (buffering) {
+                endBuffering(now);
+            }
+            return false;
+        }
+        ingestWatermark = ingest.getWatermark();
+        prefetcher.setLimit(ingestWatermark);
+        double frameRate = Math.max(1.0, video.getFrameRate());
+        if (buffering) {
+            if (!ingest.isSafe(nextSequence, frameRate, leadFrames)) {
+                return true;
+            }
+            endBuffering(now);
+            return false;
+        }
+        long dueSequence = (now - clockOriginNanos) / frameDurationNanos;
+        if (audioPlayback == null && dueSequence + (long) frameRate >= ingestWatermark) {
+            buffering = true;
+            state = PlaybackState.BUFFERING;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Restarts the clock at the next frame once enough frames are ready.
+     */
+    private void endBuffering(long now) {
+        buffering = false;
+        state = PlaybackState.PLAYING;
+        clockOriginNanos = now - nextSequence * frameDurationNanos;
+        startAudioPlaybackIfReady();
+    }
+
+    /**
+     * Moves the playhead to the frame due now.
+     *
+     * @return The tiles of the frame to show, or null if no new frame is
+     *         shown this tick.
+     */
+    private QuantizedTile[] advance() {
         int audioInterval = Math.max(1, configuration.theatre_audio_update_interval());
         if (audioUpdateCounter++ % audioInterval == 0) {
             updateAudioListeners();
         }
 
         long now = System.nanoTime();
-        if (now - lastFrameNanos < frameDurationNanos) {
-            return;
+        if (now - clockOriginNanos < nextSequence * frameDurationNanos) {
+            return null;
         }
 
-        if (!rendering.compareAndSet(false, true)) {
-            return;
+        IOException failure = prefetcher.getFailure();
+        if (failure != null) {
+            plugin.getLogger().warning("[MovieTheatreCore]: Failed to render frames for video " + video.getName() + ": " + failure.getMessage());
+            onError();
+            return null;
         }
 
-        int currentFrame = frameIndex;
-        frameIndex++;
-        lastFrameNanos = now;
-
-        if (currentFrame >= video.getTotalFrames()) {
-            if (video.isLoopping()) {
-                frameIndex = 0;
-                rendering.set(false);
-                return;
-            }
+        long dueSequence = (now - clockOriginNanos) / frameDurationNanos;
+        if (!video.isLoopping() && dueSequence >= video.getTotalFrames()) {
             onEnd();
-            return;
+            return null;
         }
 
-        List<UUID> viewerSnapshot = new ArrayList<>(viewers);
-        if (viewerSnapshot.isEmpty()) {
+        if (viewers.isEmpty()) {
+            prefetcher.setIdle(true);
+            nextSequence = dueSequence + 1;
+            frameIndex = (int) (dueSequence % Math.max(1, video.getTotalFrames())) + 1;
             logRenderSkip("no viewers within render radius");
-            rendering.set(false);
-            return;
+            return null;
         }
 
-        AtomicReference<BukkitTask> taskRef = new AtomicReference<>();
-        BukkitTask task = scheduler.runAsync(() -> {
-            try {
-                renderFrame(currentFrame, viewerSnapshot);
-            } finally {
-                BukkitTask current = taskRef.get();
-                if (current != null) {
-                    renderTasks.remove(current);
-                }
-            }
-        });
-        if (task != null) {
-            renderTasks.add(task);
-            taskRef.set(task);
+        prefetcher.setIdle(false);
+        FramePrefetcher.PreparedFrame frame = prefetcher.take(dueSequence);
+        if (frame == null) {
+            logRenderSkip("prefetch underrun at frame " + (dueSequence % Math.max(1, video.getTotalFrames())));
+            return null;
+        }
+        nextSequence = frame.sequence() + 1;
+        frameIndex = frame.index() + 1;
+        logScreenDebugSnapshot("frame");
+        return frame.tiles();
+    }
+
+    /**
+     * Hands this tick's viewers, and the frame to show if any, to the
+     * delivery lane. The main thread only publishes the viewer set; diffing,
+     * packet building and the writes, which Netty runs on each player's event
+     * loop, all happen off it.
+     */
+    private void publish(QuantizedTile[] tiles) {
+        if (tiles == null && publishedViewers.equals(viewers)) {
+            return;
         }
+        if (!publishedViewers.equals(viewers)) {
+            publishedViewers = Set.copyOf(viewers);
+        }
+        Set<UUID> viewerSet = publishedViewers;
+        List<List<Player>> bands = viewerBands;
+        int shownIndex = frameIndex - 1;
+        deliveryLane.execute(() -> deliver(tiles, viewerSet, bands, shownIndex));
     }
 
     private void onEnd() {
-        rendering.set(false);
         stop(true);
         manager.clearSession(screen.getUUID(), ScreenState.IDLE);
     }
 
-    private void renderFrame(int index, List<UUID> viewerSnapshot) {
-        if (!active) {
-            logRenderSkip("session inactive");
-            rendering.set(false);
-            return;
+    /**
+     * Decodes and renders one frame on a worker thread for the prefetcher,
+     * or reads it from the screen geometry's rendition if there is one.
+     * With {@code rendering.pipe-frames}, frames come from ffmpeg instead
+     * of frame files.
+     *
+     * @return The tiles, or null if the frame file is missing.
+     */
+    private QuantizedTile[] renderTiles(int index) throws IOException {
+        if (renditionSource != null) {
+            return renditionSource.render(index);
+        }
+        if (pipe != null) {
+            BufferedImage frame = pipe.read(index);
+            if (frame == null) {
+                logRenderSkip("piped video ended before frame " + index);
+                return null;
+            }
+            return renderer.render(frame, screen.getWidth(), screen.getHeight(), screen.getScaleMode(), resampleFilter,
+                    MapColorPalette.getQuantizer(), ditherer, screen.getDitherMode());
         }
-        File frameFile = new File(video.getFramesFolder(), index + video.getFramesExtension());
+        File frameFile = frames.getFrameFile(index);
         if (!frameFile.exists()) {
             Bukkit.getScheduler().runTask(plugin, () -> plugin.getLogger().warning("[MovieTheatreCore]: Missing frame " + frameFile.getName() + " for video " + video.getName()));
             logRenderSkip("missing frame " + frameFile.getName());
-            rendering.set(false);
-            return;
+            return null;
         }
+        BufferedImage frame = decoder.read(frameFile);
+        return renderer.render(frame, screen.getWidth(), screen.getHeight(), screen.getScaleMode(), resampleFilter,
+                MapColorPalette.getQuantizer(), ditherer, screen.getDitherMode());
+    }
 
-        try {
-            BufferedImage frame = ImageIO.read(frameFile);
-            int targetWidth = screen.getWidth() * 128;
-            int targetHeight = screen.getHeight() * 128;
-            ScalingMode mode = screen.getScaleMode();
-            BufferedImage scaled = scaler.scale(frame, targetWidth, targetHeight, mode);
-            BufferedImage[] tiles = MapTileSplitter.split(scaled, screen.getWidth(), screen.getHeight());
-            byte[][] buffers = new byte[tiles.length][];
-
-            for (int i = 0; i < tiles.length; i++) {
-                buffers[i] = MapColorPalette.convertImage(tiles[i]);
+    /**
+     * Runs on the delivery lane, one publication at a time.
+     */
+    private void deliver(QuantizedTile[] tiles, Set<UUID> viewerSet, List<List<Player>> bands, int shownIndex) {
+        tileTracker.retain(viewerSet);
+        pacer.retain(viewerSet);
+        if (tiles == null) {
+            refreshNewViewers(bands);
+            return;
+        }
+        int changedTiles = 0;
+        for (QuantizedTile tile : tiles) {
+            if (tile.changed()) {
+                changedTiles++;
+            }
+        }
+        shownTiles = tiles;
+        deliveredFrames++;
+        int sentTiles = sendTiles(tiles, bands, true);
+        if (configuration.debug_render()) {
+            long now = System.currentTimeMillis();
+            if (now - lastFrameLogAt > 1000L || lastLoggedFrame != shownIndex) {
+                lastFrameLogAt = now;
+                lastLoggedFrame = shownIndex;
+                plugin.getLogger().info("[MovieTheatreCore]: Sent frame " + shownIndex + " to " + viewerSet.size() + " viewers (" + tiles.length + " map tiles, " + changedTiles + " changed, " + sentTiles + " sent, " + tileTracker.getBytesSaved() + " map bytes saved so far).");
             }
-
-            scheduler.runSync(() -> {
-                if (active) {
-                    updateMaps(buffers, viewerSnapshot);
-                }
-            });
-        } catch (IOException e) {
-            scheduler.runSync(() -> plugin.getLogger().warning("[MovieTheatreCore]: Failed to render frame " + index + " for video " + video.getName()));
-            onError();
-        } finally {
-            rendering.set(false);
         }
     }
 
-    private void updateMaps(byte[][] buffers, List<UUID> viewerSnapshot) {
+    /**
+     * Sends each viewer the tiles it does not have yet, each one cut down to
+     * the rectangle that differs from the version the viewer has. A viewer's
+     * tiles of one frame go out together, with one flush.
+     *
+     * <p>Viewers are served band by band, see {@link DetailLevels}, so those
+     * of one band follow each other and share the band's tiles, rectangles
+     * and packets.
+     *
+     * @param bands Viewers by detail band, nearest first.
+     * @param paced Whether viewers may be left out of this frame, because
+     *        their band skips it or their connection is backed up, see
+     *        {@link ViewerPacer}.
+     * @return The number of tile updates sent over all viewers.
+     */
+    private int sendTiles(QuantizedTile[] tiles, List<List<Player>> bands, boolean paced) {
         int[] ids = screen.getIds();
-        for (int i = 0; i < ids.length && i < buffers.length; i++) {
-            for (UUID uuid : viewerSnapshot) {
-                Player player = Bukkit.getPlayer(uuid);
-                if (player != null && player.isOnline()) {
-                    plugin.getMapUtil().update(player, ids[i], buffers[i]);
+        MapUtil mapUtil = plugin.getMapUtil();
+        long now = System.nanoTime();
+        int sent = 0;
+        for (int band = 0; band < bands.size() && band < detailLevels.size(); band++) {
+            List<Player> players = bands.get(band);
+            if (players.isEmpty()) {
+                continue;
+            }
+            QuantizedTile[] bandTiles = detailLevels.tilesFor(band, tiles);
+            boolean due = deliveredFrames % detailLevels.get(band).frameDivisor() == 0;
+            for (Player player : players) {
+                if (!player.isOnline()) {
+                    continue;
+                }
+                // Viewers that just arrived get the frame whatever their band.
+                if (paced && !due && tileTracker.isTracking(player.getUniqueId())) {
+                    continue;
+                }
+                if (paced && !pacer.admit(player.getUniqueId(), mapUtil.getPendingBytes(player))) {
+                    continue;
+                }
+                mapUtil.beginFrame(player);
+                try {
+                    sent += tileTracker.deliver(player.getUniqueId(), bandTiles, now, (i, x, y, width, height) -> {
+                        if (i < ids.length) {
+                            mapUtil.update(player, ids[i], bandTiles[i].data(), x, y, width, height);
+                        }
+                    });
+                } finally {
+                    mapUtil.endFrame(player);
                 }
             }
         }
-        logScreenDebugSnapshot("frame");
-        if (configuration.debug_render()) {
-            long now = System.currentTimeMillis();
-            if (now - lastFrameLogAt > 1000L || lastLoggedFrame != frameIndex) {
-                lastFrameLogAt = now;
-                lastLoggedFrame = frameIndex;
-                plugin.getLogger().info("[MovieTheatreCore]: Sent frame " + (frameIndex - 1) + " to " + viewerSnapshot.size() + " viewers (" + buffers.length + " map tiles).");
+        return sent;
+    }
+
+    /**
+     * Sends the last shown frame to viewers that arrived while no new frame
+     * is being shown, such as during a pause.
+     */
+    private void refreshNewViewers(List<List<Player>> bands) {
+        QuantizedTile[] tiles = shownTiles;
+        if (tiles == null) {
+            return;
+        }
+        List<List<Player>> arrived = new ArrayList<>(bands.size());
+        boolean any = false;
+        for (List<Player> players : bands) {
+            List<Player> arrivedInBand = new ArrayList<>();
+            for (Player player : players) {
+                if (!tileTracker.isTracking(player.getUniqueId())) {
+                    arrivedInBand.add(player);
+                }
             }
+            any |= !arrivedInBand.isEmpty();
+            arrived.add(arrivedInBand);
+        }
+        if (any) {
+            sendTiles(tiles, arrived, false);
         }
     }
 
@@ -409,20 +707,54 @@ public class PlaybackSession {
             return;
         }
 
-        Location center = frames.get(frames.size() / 2).getLocation();
+        ItemFrame centerFrame = frames.get(frames.size() / 2);
+        Location center = centerFrame.getLocation();
+        BlockFace facing = centerFrame.getFacing();
+        double radius = Math.hypot(screen.getWidth(), screen.getHeight()) / 2.0;
+        List<ItemFrame> corners = culling.isEnabled() ? getCornerFrames(frames) : List.of();
+        culling.tick();
+        int culled = 0;
         Set<UUID> seen = new HashSet<>();
+        List<Player> players = new ArrayList<>();
+        List<List<Player>> bands = new ArrayList<>(detailLevels.size());
+        for (int i = 0; i < detailLevels.size(); i++) {
+            bands.add(new ArrayList<>());
+        }
 
         for (Entity entity : getNearbyEntities(center, configuration.maximum_distance_to_receive())) {
             if (entity.getType() == EntityType.PLAYER) {
                 Player player = (Player) entity;
-                if (player.isOnline()) {
+                if (player.isOnline() && !seen.contains(player.getUniqueId())) {
+                    if (!culling.sees(player, center, facing, radius, corners)) {
+                        culled++;
+                        continue;
+                    }
                     seen.add(player.getUniqueId());
                     viewers.add(player.getUniqueId());
+                    players.add(player);
+                    bands.get(detailLevels.bandOf(player.getLocation().distanceSquared(center))).add(player);
                 }
             }
         }
 
         viewers.retainAll(seen);
+        culling.retain(seen);
+        culledViewers = culled;
+        viewerPlayers = players;
+        viewerBands = bands;
+    }
+
+    private List<ItemFrame> getCornerFrames(List<ItemFrame> frames) {
+        int width = Math.max(1, screen.getWidth());
+        int last = frames.size() - 1;
+        List<ItemFrame> corners = new ArrayList<>(4);
+        for (int index : new int[] {0, Math.min(width - 1, last), Math.max(0, last - width + 1), last}) {
+            ItemFrame frame = frames.get(index);
+            if (frame != null && !corners.contains(frame)) {
+                corners.add(frame);
+            }
+        }
+        return corners;
     }
 
     private void updateAudioListeners() {
@@ -543,13 +875,13 @@ public class PlaybackSession {
     }
 
     private void startAudioPlaybackIfReady() {
-        if (audioTrack == null || audioPlayback != null) {
+        if (audioTrack == null || audioPlayback != null || buffering) {
             return;
         }
         if (packRequired && !audioListeners.isEmpty() && !packPending.isEmpty()) {
             return;
         }
-        lastFrameNanos = System.nanoTime();
+        clockOriginNanos = System.nanoTime() - nextSequence * frameDurationNanos;
         audioPlayback = new AudioPlayback(scheduler, audioTrack, this::getAudioListenerSnapshot, this::getAudioSpeakerLocation, () -> active);
         audioPlayback.start();
     }
@@ -649,6 +981,87 @@ public class PlaybackSession {
         return frameIndex;
     }
 
+    public RenderPriority getRenderPriority() {
+        return renderLane.getPriority();
+    }
+
+    public long getTilesSent() {
+        return tileTracker.getTilesSent();
+    }
+
+    public long getTilesSkipped() {
+        return tileTracker.getTilesSkipped();
+    }
+
+    /**
+     * @return The frame rate each viewer is currently sent, lowered for
+     *         viewers whose connection can't keep up.
+     */
+    public Map<UUID, Double> getViewerFrameRates() {
+        Map<UUID, Double> rates = new LinkedHashMap<>();
+        double frameRate = video.getFrameRate();
+        for (UUID uuid : viewers) {
+            rates.put(uuid, frameRate / pacer.getDivisor(uuid));
+        }
+        return rates;
+    }
+
+    public boolean isKeyframeOnly(UUID viewer) {
+        return pacer.isKeyframeOnly(viewer);
+    }
+
+    public long getMapBytesSent() {
+        return tileTracker.getBytesSent();
+    }
+
+    public long getMapBytesSaved() {
+        return tileTracker.getBytesSaved();
+    }
+
+    /**
+     * @return Frames admitted and skipped by the server-wide frame budget,
+     *         and how many frames apart rendering currently runs.
+     */
+    public FrameScheduler.Stats getScheduleStats() {
+        return manager.getScheduleStats(participant);
+    }
+
+    /**
+     * @return Whether frames are read from a pre-rendered rendition rather
+     *         than decoded and rendered live.
+     */
+    public boolean isServedFromRendition() {
+        return renditionSource != null;
+    }
+
+    /**
+     * @return Frames extracted so far of a video that is still loading, or
+     *         -1 if the session does not play behind an extraction.
+     */
+    public int getIngestWatermark() {
+        return ingestWatermark;
+    }
+
+    /**
+     * @return Whether frames are decoded from an ffmpeg pipe rather than
+     *         read from extracted frame files.
+     */
+    public boolean isPipingFrames() {
+        return pipe != null;
+    }
+
+    public FramePrefetcher.Stats getPrefetchStats() {
+        return prefetcher.getStats();
+    }
+
+    /**
+     * @return Players in range at the last tick who were left out because
+     *         they can't see the screen.
+     */
+    public int getCulledViewerCount() {
+        return culledViewers;
+    }
+
     public int getViewerCount() {
         return viewers.size();
     }
@@ -4,6 +4,7 @@ public enum PlaybackState {
     IDLE,
     PREPARING,
     PLAYING,
+    BUFFERING,
     STOPPING,
     ERROR
 }
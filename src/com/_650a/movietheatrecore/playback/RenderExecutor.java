@@ -0,0 +1,206 @@
+package com._650a.movietheatrecore.playback;
+
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Plugin-owned pool of render threads shared by every playing screen.
+ *
+ * <p>Each session submits its work through its own {@link Lane}. A lane runs
+ * its tasks one at a time and in order, so per-session state such as the
+ * previous frame of a {@code TileRenderer} needs no extra locking. Workers
+ * take one task from the first lane of the most urgent
+ * {@link RenderPriority} that has work, then put that lane back at the end
+ * of its queue, so sessions of the same priority take turns frame by frame.
+ * Priorities are strict: ambient screens only get threads that shows and
+ * normal screens leave idle.
+ */
+public final class RenderExecutor {
+
+    private final Object lock = new Object();
+    private final Map<RenderPriority, ArrayDeque<Lane>> ready = new EnumMap<>(RenderPriority.class);
+    private final Thread[] workers;
+    private final Logger logger;
+
+    private boolean shutdown;
+    private int queuedTasks;
+
+    public RenderExecutor(int threads, Logger logger) {
+        this.logger = logger;
+        for (RenderPriority priority : RenderPriority.values()) {
+            ready.put(priority, new ArrayDeque<>());
+        }
+        this.workers = new Thread[Math.max(1, threads)];
+        for (int i = 0; i < workers.length; i++) {
+            Thread worker = new Thread(this::work, "MovieTheatreCore-render-" + i);
+            worker.setDaemon(true);
+            workers[i] = worker;
+            worker.start();
+        }
+    }
+
+    /**
+     * @return The thread count to use for a configured value, where 0 or
+     *         less picks half of the available processors.
+     */
+    public static int resolveThreads(int configured) {
+        if (configured > 0) {
+            return configured;
+        }
+        return Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    }
+
+    public Lane open(RenderPriority priority) {
+        return new Lane(priority == null ? RenderPriority.NORMAL : priority);
+    }
+
+    public int getParallelism() {
+        return workers.length;
+    }
+
+    public int getQueuedTasks() {
+        synchronized (lock) {
+            return queuedTasks;
+        }
+    }
+
+    /**
+     * Drops all queued work and waits up to {@code timeoutMillis} for
+     * running tasks to finish, then interrupts whatever is left.
+     */
+    public void shutdown(long timeoutMillis) {
+        synchronized (lock) {
+            if (shutdown) {
+                return;
+            }
+            shutdown = true;
+            for (ArrayDeque<Lane> lanes : ready.values()) {
+                for (Lane lane : lanes) {
+                    queuedTasks -= lane.tasks.size();
+                    lane.tasks.clear();
+                }
+                lanes.clear();
+            }
+            lock.notifyAll();
+        }
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        for (Thread worker : workers) {
+            try {
+                worker.join(Math.max(1L, deadline - System.currentTimeMillis()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        for (Thread worker : workers) {
+            if (worker.isAlive()) {
+                worker.interrupt();
+            }
+        }
+    }
+
+    private void work() {
+        while (true) {
+            Lane lane;
+            Runnable task;
+            synchronized (lock) {
+                lane = nextLane();
+                while (!shutdown && lane == null) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    lane = nextLane();
+                }
+                if (shutdown) {
+                    return;
+                }
+                task = lane.tasks.pollFirst();
+                queuedTasks--;
+                lane.running = true;
+            }
+            try {
+                task.run();
+            } catch (Throwable throwable) {
+                logger.log(Level.WARNING, "[MovieTheatreCore]: Render task failed.", throwable);
+            }
+            synchronized (lock) {
+                lane.running = false;
+                if (!lane.closed && !shutdown && !lane.tasks.isEmpty()) {
+                    ready.get(lane.priority).addLast(lane);
+                    lock.notify();
+                }
+            }
+        }
+    }
+
+    private Lane nextLane() {
+        for (RenderPriority priority : RenderPriority.values()) {
+            Lane lane = ready.get(priority).pollFirst();
+            if (lane != null) {
+                return lane;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Serial work queue of one session. Sits in its priority's ready queue
+     * exactly while it has tasks and none of them is running.
+     */
+    public final class Lane implements Executor {
+
+        private final RenderPriority priority;
+        private final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+        private boolean running;
+        private boolean closed;
+
+        private Lane(RenderPriority priority) {
+            this.priority = priority;
+        }
+
+        public RenderPriority getPriority() {
+            return priority;
+        }
+
+        /**
+         * Queues {@code task} behind this lane's earlier tasks. Ignored once
+         * the lane is closed or the executor is shut down.
+         */
+        @Override
+        public void execute(Runnable task) {
+            synchronized (lock) {
+                if (closed || shutdown) {
+                    return;
+                }
+                tasks.addLast(task);
+                queuedTasks++;
+                if (!running && tasks.size() == 1) {
+                    ready.get(priority).addLast(this);
+                    lock.notify();
+                }
+            }
+        }
+
+        /**
+         * Drops this lane's queued tasks. A task that is already running
+         * finishes normally.
+         */
+        public void close() {
+            synchronized (lock) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                queuedTasks -= tasks.size();
+                tasks.clear();
+                ready.get(priority).remove(this);
+            }
+        }
+    }
+}
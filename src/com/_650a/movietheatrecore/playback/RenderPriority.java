@@ -0,0 +1,29 @@
+package com._650a.movietheatrecore.playback;
+
+/**
+ * Order in which the {@link RenderExecutor} serves playback sessions, most
+ * urgent first, and their share of the {@link FrameScheduler} budget.
+ */
+public enum RenderPriority {
+
+    /** Scheduled theatre shows. */
+    SHOW(8),
+    /** Media played on a screen by a command. */
+    NORMAL(4),
+    /** Looping background screens, served with whatever is left. */
+    AMBIENT(1);
+
+    private final int weight;
+
+    RenderPriority(int weight) {
+        this.weight = weight;
+    }
+
+    /**
+     * @return Relative share of the frame budget when screens compete for
+     *         it.
+     */
+    public int getWeight() {
+        return weight;
+    }
+}
@@ -0,0 +1,349 @@
+package com._650a.movietheatrecore.playback;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Logger;
+
+import com._650a.movietheatrecore.map.colors.MapColorPalette;
+import com._650a.movietheatrecore.render.DitherMode;
+import com._650a.movietheatrecore.render.FrameDecoder;
+import com._650a.movietheatrecore.render.FrameDitherer;
+import com._650a.movietheatrecore.render.QuantizedTile;
+import com._650a.movietheatrecore.render.ResampleFilter;
+import com._650a.movietheatrecore.render.ScalingMode;
+import com._650a.movietheatrecore.render.TileRenderer;
+import com._650a.movietheatrecore.video.Video;
+import com._650a.movietheatrecore.video.data.FrameManifest;
+import com._650a.movietheatrecore.video.data.cache.FrameStore;
+
+/**
+ * Videos pre-rendered for a screen geometry, so later plays on a screen of
+ * that geometry read quantized tiles instead of decoding and scaling every
+ * frame again.
+ *
+ * <p>A rendition is a {@link FrameStore} of the video rendered exactly as a
+ * {@link PlaybackSession} would render it for a {@link Key}: tiles wide and
+ * high, scaling mode, dithering and resample filter. The first session
+ * asking for a geometry plays as usual while the rendition is built on an
+ * {@link RenderPriority#AMBIENT ambient} lane, one frame per task so
+ * playback always goes first. Renditions live under one folder, a folder per
+ * video, and are evicted least recently used first whenever they take more
+ * than the disk budget; renditions in use are kept. Their names carry the
+ * size and modification time of the video file, so a different video
+ * added under the same name is rendered again rather than played from the
+ * old one's tiles.
+ */
+public final class RenditionCache {
+
+    private final File folder;
+    private final long budgetBytes;
+    private final RenderExecutor executor;
+    private final Logger logger;
+    private final Map<File, Integer> inUse = new HashMap<>();
+    private final Map<File, Build> builds = new HashMap<>();
+    private final Set<File> oversized = new HashSet<>();
+
+    private boolean shutdown;
+
+    /**
+     * @param budgetBytes Disk space renditions may take, 0 or less to not
+     *        make renditions at all.
+     */
+    public RenditionCache(File folder, long budgetBytes, RenderExecutor executor, Logger logger) {
+        this.folder = folder;
+        this.budgetBytes = budgetBytes;
+        this.executor = executor;
+        this.logger = logger;
+    }
+
+    /**
+     * A screen geometry and everything else that changes the rendered
+     * tiles.
+     */
+    public record Key(int width, int height, ScalingMode scaleMode, DitherMode ditherMode, ResampleFilter filter) {
+
+        String fileName(String fingerprint) {
+            return (width + "x" + height + "-" + scaleMode + "-" + ditherMode + "-" + filter).toLowerCase(Locale.ROOT) + "-" + fingerprint + ".mtcf";
+        }
+    }
+
+    /**
+     * Opens the rendition of {@code video} for {@code key}, or starts
+     * building it in the background if there is none yet.
+     *
+     * @return The rendition, to be given back with {@link #release(File)}
+     *         once the session stops, or null if there is none to play from
+     *         yet.
+     */
+    synchronized Rendition acquire(Video video, Key key) {
+        if (shutdown || budgetBytes <= 0 || video.isStreamed() || key.width() <= 0 || key.height() <= 0) {
+            return null;
+        }
+        String fingerprint = fingerprint(video);
+        File videoFolder = new File(folder, video.getName());
+        File file = new File(videoFolder, key.fileName(fingerprint));
+        if (FrameStore.isComplete(file, video.getTotalFrames())) {
+            try {
+                FrameStore store = FrameStore.open(file);
+                if (store.getTilesPerFrame() == key.width() * key.height()) {
+                    file.setLastModified(System.currentTimeMillis());
+                    inUse.merge(file, 1, Integer::sum);
+                    return new Rendition(file, store);
+                }
+            } catch (IOException e) {
+                logger.warning("[MovieTheatreCore]: Ignoring unreadable rendition " + file.getName() + " of " + video.getName() + ": " + e.getMessage());
+            }
+            file.delete();
+        }
+        if (!builds.containsKey(file) && canBuild(video, key, file)) {
+            discardStale(videoFolder, fingerprint);
+            Build build = new Build(video, key, file);
+            builds.put(file, build);
+            build.lane.execute(build);
+        }
+        return null;
+    }
+
+    synchronized void release(File file) {
+        Integer count = inUse.get(file);
+        if (count == null) {
+            return;
+        }
+        if (count <= 1) {
+            inUse.remove(file);
+        } else {
+            inUse.put(file, count - 1);
+        }
+    }
+
+    /**
+     * Stops the builds of a video and deletes its renditions, once the
+     * video is deleted or unloaded.
+     */
+    public synchronized void delete(String videoName) {
+        File videoFolder = new File(folder, videoName);
+        for (Build build : new ArrayList<>(builds.values())) {
+            if (build.file.getParentFile().equals(videoFolder)) {
+                build.abort();
+                builds.remove(build.file);
+            }
+        }
+        File[] files = videoFolder.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        videoFolder.delete();
+    }
+
+    /**
+     * Stops every build and discards what they wrote.
+     */
+    public synchronized void shutdown() {
+        shutdown = true;
+        for (Build build : new ArrayList<>(builds.values())) {
+            build.abort();
+        }
+        builds.clear();
+    }
+
+    /**
+     * Only videos whose frames are all extracted are rendered, and only if
+     * the rendition can fit the budget even without repeated frames shared.
+     */
+    private boolean canBuild(Video video, Key key, File file) {
+        FrameManifest frames = video.getFrameManifest();
+        if (!frames.isIndexed() || frames.getCount() < video.getTotalFrames()) {
+            return false;
+        }
+        long size = (long) video.getTotalFrames() * key.width() * key.height() * FrameStore.TILE_BYTES;
+        if (size <= budgetBytes) {
+            return true;
+        }
+        if (oversized.add(file)) {
+            logger.info("[MovieTheatreCore]: Not pre-rendering " + video.getName() + " for " + key.width() + "x" + key.height() + " screens: it may take "
+                    + (size >> 20) + " MB, more than rendering.rendition-cache-mb (" + (budgetBytes >> 20) + " MB).");
+        }
+        return false;
+    }
+
+    /**
+     * Identifies the video file behind a name by its size and modification
+     * time.
+     */
+    private static String fingerprint(Video video) {
+        File source = video.getVideoFile();
+        return Long.toHexString(source.length()) + "." + Long.toHexString(source.lastModified());
+    }
+
+    /**
+     * Deletes renditions of an earlier video file that had the same name.
+     */
+    private void discardStale(File videoFolder, String fingerprint) {
+        File[] files = videoFolder.listFiles();
+        if (files == null) {
+            return;
+        }
+        String suffix = "-" + fingerprint + ".mtcf";
+        for (File file : files) {
+            String name = file.getName();
+            if (name.endsWith(".part") || name.endsWith(suffix) || inUse.containsKey(file)) {
+                continue;
+            }
+            file.delete();
+        }
+    }
+
+    private synchronized void finished(Build build, boolean committed) {
+        if (builds.get(build.file) == build) {
+            builds.remove(build.file);
+        }
+        if (committed) {
+            evict();
+        }
+    }
+
+    /**
+     * Deletes least recently used renditions until all of them fit the
+     * budget, along with leftovers of builds that never finished.
+     */
+    private void evict() {
+        List<File> renditions = new ArrayList<>();
+        File[] videoFolders = folder.listFiles(File::isDirectory);
+        if (videoFolders == null) {
+            return;
+        }
+        long total = 0L;
+        for (File videoFolder : videoFolders) {
+            File[] files = videoFolder.listFiles();
+            if (files == null) {
+                continue;
+            }
+            for (File file : files) {
+                if (file.getName().endsWith(".part")) {
+                    File target = new File(file.getParentFile(), file.getName().substring(0, file.getName().length() - 5));
+                    if (!builds.containsKey(target)) {
+                        file.delete();
+                    }
+                } else {
+                    renditions.add(file);
+                    total += file.length();
+                }
+            }
+        }
+        renditions.sort(Comparator.comparingLong(File::lastModified));
+        for (File file : renditions) {
+            if (total <= budgetBytes) {
+                break;
+            }
+            if (inUse.containsKey(file)) {
+                continue;
+            }
+            long length = file.length();
+            if (file.delete()) {
+                total -= length;
+                logger.info("[MovieTheatreCore]: Evicted rendition " + file.getParentFile().getName() + "/" + file.getName() + " to stay within the rendition cache budget.");
+            }
+        }
+    }
+
+    /**
+     * An open rendition.
+     */
+    record Rendition(File file, FrameStore store) {
+    }
+
+    /**
+     * Renders a video into a rendition, one frame per task on its own lane.
+     */
+    private final class Build implements Runnable {
+
+        private final Video video;
+        private final Key key;
+        private final File file;
+        private final FrameManifest frames;
+        private final RenderExecutor.Lane lane;
+        private final FrameDecoder decoder = new FrameDecoder();
+        private final TileRenderer renderer = new TileRenderer();
+        private final FrameDitherer ditherer = new FrameDitherer();
+
+        private FrameStore.Writer writer;
+        private int next;
+        private boolean done;
+
+        private Build(Video video, Key key, File file) {
+            this.video = video;
+            this.key = key;
+            this.file = file;
+            this.frames = video.getFrameManifest();
+            this.lane = executor.open(RenderPriority.AMBIENT);
+        }
+
+        @Override
+        public void run() {
+            boolean committed;
+            synchronized (this) {
+                if (done) {
+                    return;
+                }
+                try {
+                    if (writer == null) {
+                        writer = new FrameStore.Writer(file, video.getTotalFrames());
+                    }
+                    renderNext();
+                    if (next < video.getTotalFrames()) {
+                        lane.execute(this);
+                        return;
+                    }
+                    writer.commit();
+                    committed = true;
+                    logger.info("[MovieTheatreCore]: Pre-rendered " + video.getName() + " for " + key.width() + "x" + key.height() + " screens.");
+                } catch (IOException | RuntimeException e) {
+                    logger.warning("[MovieTheatreCore]: Failed to pre-render " + video.getName() + " for " + key.width() + "x" + key.height() + " screens: " + e.getMessage());
+                    committed = false;
+                }
+                abort();
+            }
+            finished(this, committed);
+        }
+
+        private void renderNext() throws IOException {
+            int index = next++;
+            if (!frames.has(index)) {
+                writer.skip();
+                return;
+            }
+            QuantizedTile[] tiles = renderer.render(decoder.read(frames.getFrameFile(index)), key.width(), key.height(), key.scaleMode(), key.filter(),
+                    MapColorPalette.getQuantizer(), ditherer, key.ditherMode());
+            byte[][] data = new byte[tiles.length][];
+            for (int i = 0; i < tiles.length; i++) {
+                data[i] = tiles[i].data();
+            }
+            writer.append(data);
+        }
+
+        /**
+         * Stops the build; the rendition is discarded unless it was
+         * committed.
+         */
+        private synchronized void abort() {
+            done = true;
+            lane.close();
+            if (writer != null) {
+                try {
+                    writer.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com._650a.movietheatrecore.playback;
+
+import com._650a.movietheatrecore.render.QuantizedTile;
+import com._650a.movietheatrecore.video.data.cache.FrameStore;
+
+/**
+ * Reads a session's frames out of a rendition instead of rendering them.
+ *
+ * <p>The store holds plain tile contents, so each tile is compared with the
+ * one read before it: an equal tile keeps the previous array, as a rendered
+ * unchanged tile would, and a changed one gets the bounding box of what
+ * changed. The first frame read is sent whole.
+ *
+ * <p>Used from the session's render lane only.
+ */
+final class RenditionSource {
+
+    private final FrameStore store;
+
+    private byte[][] previous;
+
+    RenditionSource(FrameStore store) {
+        this.store = store;
+    }
+
+    /**
+     * @return The tiles of frame {@code index}, or null if the rendition has
+     *         none for it.
+     */
+    QuantizedTile[] render(int index) {
+        if (!store.hasFrame(index)) {
+            return null;
+        }
+        int count = store.getTilesPerFrame();
+        if (previous == null || previous.length != count) {
+            previous = new byte[count][];
+        }
+        QuantizedTile[] tiles = new QuantizedTile[count];
+        for (int i = 0; i < count; i++) {
+            byte[] data = store.getTile(index, i);
+            byte[] last = previous[i];
+            if (last == null) {
+                tiles[i] = QuantizedTile.full(data);
+                previous[i] = data;
+                continue;
+            }
+            int rect = ViewerTileTracker.dirtyRect(last, data);
+            if (rect == ViewerTileTracker.EMPTY) {
+                tiles[i] = QuantizedTile.unchanged(last);
+                continue;
+            }
+            int x = rect >>> 24;
+            int y = (rect >>> 16) & 0xFF;
+            int width = ((rect >>> 8) & 0xFF) + 1;
+            int height = (rect & 0xFF) + 1;
+            tiles[i] = new QuantizedTile(data, true, x, y, x + width - 1, y + height - 1);
+            previous[i] = data;
+        }
+        return tiles;
+    }
+}
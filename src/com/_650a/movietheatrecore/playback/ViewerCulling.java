@@ -0,0 +1,128 @@
+package com._650a.movietheatrecore.playback;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.bukkit.Location;
+import org.bukkit.block.BlockFace;
+import org.bukkit.entity.ItemFrame;
+import org.bukkit.entity.Player;
+import org.bukkit.util.Vector;
+
+/**
+ * Leaves players in range of a screen who can't see it out of its viewers.
+ *
+ * <p>Three optional checks, cheapest first: the player stands behind the
+ * wall the screen hangs on; the player looks further away from the screen
+ * than {@code maxAngleDegrees}, measured to the nearest edge of the screen
+ * rather than its middle so large screens aren't culled while looked at; or,
+ * every {@code lineOfSightTicks}, none of the screen's corners is in the
+ * player's line of sight. A culled player is no viewer, so the tile tracker
+ * forgets it and it gets every tile again once it looks back.
+ *
+ * <p>Main thread only.
+ */
+final class ViewerCulling {
+
+    private final double maxAngleRadians;
+    private final boolean cullBehind;
+    private final int lineOfSightTicks;
+    private final Map<UUID, SightCheck> sight = new HashMap<>();
+
+    private long tick;
+
+    /**
+     * @param maxAngleDegrees 0 or less disables the view direction check.
+     * @param lineOfSightTicks 0 or less disables the line of sight check.
+     */
+    ViewerCulling(int maxAngleDegrees, boolean cullBehind, int lineOfSightTicks) {
+        this.maxAngleRadians = maxAngleDegrees <= 0 ? 0.0 : Math.toRadians(Math.min(180, maxAngleDegrees));
+        this.cullBehind = cullBehind;
+        this.lineOfSightTicks = lineOfSightTicks;
+    }
+
+    boolean isEnabled() {
+        return maxAngleRadians > 0.0 || cullBehind || lineOfSightTicks > 0;
+    }
+
+    /**
+     * Starts a new round of checks, once per tick.
+     */
+    void tick() {
+        tick++;
+    }
+
+    /**
+     * @param center Location of the middle map of the screen.
+     * @param facing Direction the screen faces.
+     * @param radius Half the screen's diagonal, in blocks.
+     * @param corners Maps at the screen's corners.
+     */
+    boolean sees(Player player, Location center, BlockFace facing, double radius, List<ItemFrame> corners) {
+        if (!isEnabled()) {
+            return true;
+        }
+        Location eye = player.getEyeLocation();
+        Vector look = eye.getDirection();
+        if (!inView(center.getX() - eye.getX(), center.getY() - eye.getY(), center.getZ() - eye.getZ(),
+                look.getX(), look.getY(), look.getZ(), facing.getModX(), facing.getModY(), facing.getModZ(), radius)) {
+            sight.remove(player.getUniqueId());
+            return false;
+        }
+        if (lineOfSightTicks <= 0 || corners.isEmpty()) {
+            return true;
+        }
+        SightCheck check = sight.get(player.getUniqueId());
+        if (check == null || tick - check.tick() >= lineOfSightTicks) {
+            boolean visible = false;
+            for (ItemFrame corner : corners) {
+                if (player.hasLineOfSight(corner)) {
+                    visible = true;
+                    break;
+                }
+            }
+            check = new SightCheck(tick, visible);
+            sight.put(player.getUniqueId(), check);
+        }
+        return check.visible();
+    }
+
+    void retain(Collection<UUID> current) {
+        sight.keySet().retainAll(current);
+    }
+
+    void clear() {
+        sight.clear();
+    }
+
+    /**
+     * Direction and side checks on plain numbers.
+     *
+     * @param toX Vector from the player's eyes to the middle of the screen.
+     * @param lookX The player's unit look vector.
+     * @param normalX Direction the screen faces.
+     * @param radius Half the screen's diagonal, in blocks.
+     */
+    boolean inView(double toX, double toY, double toZ, double lookX, double lookY, double lookZ,
+            double normalX, double normalY, double normalZ, double radius) {
+        if (cullBehind && toX * normalX + toY * normalY + toZ * normalZ > 0.0) {
+            return false;
+        }
+        if (maxAngleRadians <= 0.0) {
+            return true;
+        }
+        double distance = Math.sqrt(toX * toX + toY * toY + toZ * toZ);
+        if (distance <= radius) {
+            return true;
+        }
+        double cos = (toX * lookX + toY * lookY + toZ * lookZ) / distance;
+        double angle = Math.acos(Math.max(-1.0, Math.min(1.0, cos)));
+        return angle <= maxAngleRadians + Math.atan(radius / distance);
+    }
+
+    private record SightCheck(long tick, boolean visible) {
+    }
+}
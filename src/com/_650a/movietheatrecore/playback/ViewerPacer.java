@@ -0,0 +1,106 @@
+package com._650a.movietheatrecore.playback;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Lowers the frame rate of viewers whose connection can't keep up, without
+ * slowing down anyone else.
+ *
+ * <p>Each viewer sits on a level: every frame, every 2nd, 3rd, 4th, 6th or
+ * 8th frame, or keyframes only, one frame per {@code keyframeOnlyDivisor}.
+ * Whenever a frame is due for a viewer, the bytes still queued on its
+ * connection are checked first. If the previous frames haven't drained below
+ * {@code maxPendingBytes}, the frame is skipped and the viewer moves down a
+ * level. After {@link #RECOVER_FRAMES} due frames in a row that find the
+ * queue nearly empty, it moves back up one. Skipped frames cost nothing
+ * extra later: the tile tracker sends whatever changed since the last frame
+ * the viewer got.
+ */
+final class ViewerPacer {
+
+    static final int[] DIVISORS = {1, 2, 3, 4, 6, 8};
+    static final int RECOVER_FRAMES = 8;
+
+    private final long maxPendingBytes;
+    private final int keyframeOnlyDivisor;
+    private final Map<UUID, Viewer> viewers = new HashMap<>();
+
+    /**
+     * @param maxPendingBytes 0 or less disables pacing.
+     * @param keyframeOnlyDivisor Frames between two frames sent at the
+     *        lowest level.
+     */
+    ViewerPacer(long maxPendingBytes, int keyframeOnlyDivisor) {
+        this.maxPendingBytes = maxPendingBytes;
+        this.keyframeOnlyDivisor = Math.max(DIVISORS[DIVISORS.length - 1], keyframeOnlyDivisor);
+    }
+
+    /**
+     * Decides whether {@code viewer} gets the current frame.
+     *
+     * @param pendingBytes Bytes still queued on the viewer's connection,
+     *        {@link Long#MAX_VALUE} if it refuses writes, or negative if
+     *        unknown.
+     */
+    synchronized boolean admit(UUID viewer, long pendingBytes) {
+        if (maxPendingBytes <= 0) {
+            return true;
+        }
+        Viewer state = viewers.computeIfAbsent(viewer, ignored -> new Viewer());
+        state.sinceLast++;
+        if (state.sinceLast < divisor(state.level)) {
+            return false;
+        }
+        if (pendingBytes > maxPendingBytes) {
+            state.level = Math.min(DIVISORS.length, state.level + 1);
+            state.clearStreak = 0;
+            state.sinceLast = 0;
+            return false;
+        }
+        if (pendingBytes <= maxPendingBytes / 4) {
+            if (++state.clearStreak >= RECOVER_FRAMES && state.level > 0) {
+                state.level--;
+                state.clearStreak = 0;
+            }
+        } else {
+            state.clearStreak = 0;
+        }
+        state.sinceLast = 0;
+        return true;
+    }
+
+    /**
+     * @return 1 for full rate, n when only every nth frame is sent.
+     */
+    synchronized int getDivisor(UUID viewer) {
+        Viewer state = viewers.get(viewer);
+        return state == null ? 1 : divisor(state.level);
+    }
+
+    synchronized boolean isKeyframeOnly(UUID viewer) {
+        Viewer state = viewers.get(viewer);
+        return state != null && state.level == DIVISORS.length;
+    }
+
+    synchronized void retain(Collection<UUID> current) {
+        viewers.keySet().retainAll(current);
+    }
+
+    synchronized void clear() {
+        viewers.clear();
+    }
+
+    private int divisor(int level) {
+        return level < DIVISORS.length ? DIVISORS[level] : keyframeOnlyDivisor;
+    }
+
+    private static final class Viewer {
+
+        private int level;
+        private int sinceLast;
+        private int clearStreak;
+    }
+}
@@ -0,0 +1,203 @@
+package com._650a.movietheatrecore.playback;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import com._650a.movietheatrecore.render.QuantizedTile;
+
+/**
+ * Remembers, per viewer and per tile, which tile array was last sent, so
+ * that tiles a viewer already has are not sent again.
+ *
+ * <p>Tile arrays are never modified after they are published and unchanged
+ * tiles share the array of the previous frame, so the array reference
+ * itself serves as the tile's version. A viewer seen for the first time, or
+ * again after leaving, gets every tile. Every {@code keyframeInterval} each
+ * viewer also gets every tile again, to repair anything the client lost;
+ * since that clock starts when the viewer arrives, keyframes of different
+ * viewers are spread out rather than all landing on the same frame.
+ *
+ * <p>A tile the viewer has an older version of is sent as the smallest
+ * rectangle covering every pixel that differs from that version. Viewers
+ * that are in step share the same previous array, so the rectangle is
+ * computed once per tile and frame and reused for all of them.
+ *
+ * <p>Sessions use it from their delivery lane; methods are synchronized so
+ * the main thread can read the counters and clear it on stop.
+ */
+final class ViewerTileTracker {
+
+    private static final int TILE_SIZE = 128;
+    private static final int TILE_BYTES = TILE_SIZE * TILE_SIZE;
+    private static final int FULL = pack(0, 0, TILE_SIZE, TILE_SIZE);
+    static final int EMPTY = -1;
+
+    private final long keyframeIntervalNanos;
+    private final Map<UUID, Viewer> viewers = new HashMap<>();
+
+    private long tilesSent;
+    private long tilesSkipped;
+    private long bytesSent;
+    private long bytesSaved;
+
+    private byte[][] rectFrom = new byte[0][];
+    private byte[][] rectTo = new byte[0][];
+    private int[] rects = new int[0];
+
+    /**
+     * @param keyframeIntervalNanos 0 or less disables periodic keyframes.
+     */
+    ViewerTileTracker(long keyframeIntervalNanos) {
+        this.keyframeIntervalNanos = keyframeIntervalNanos;
+    }
+
+    /**
+     * Calls {@code send} for every tile {@code viewer} does not have yet,
+     * with the rectangle of that tile the viewer is missing.
+     *
+     * @return The number of tiles sent.
+     */
+    synchronized int deliver(UUID viewer, QuantizedTile[] tiles, long nowNanos, TileSink send) {
+        Viewer state = viewers.get(viewer);
+        if (state == null || state.delivered.length != tiles.length) {
+            state = new Viewer(tiles.length, nowNanos);
+            viewers.put(viewer, state);
+        }
+        boolean keyframe = false;
+        if (keyframeIntervalNanos > 0 && nowNanos - state.lastKeyframeNanos >= keyframeIntervalNanos) {
+            keyframe = true;
+            state.lastKeyframeNanos = nowNanos;
+        }
+        if (rects.length != tiles.length) {
+            rectFrom = new byte[tiles.length][];
+            rectTo = new byte[tiles.length][];
+            rects = new int[tiles.length];
+        }
+        int sent = 0;
+        for (int i = 0; i < tiles.length; i++) {
+            byte[] data = tiles[i].data();
+            byte[] previous = state.delivered[i];
+            if (!keyframe && previous == data) {
+                bytesSaved += TILE_BYTES;
+                continue;
+            }
+            int rect = keyframe || previous == null ? FULL : rect(i, previous, data);
+            state.delivered[i] = data;
+            if (rect == EMPTY) {
+                bytesSaved += TILE_BYTES;
+                continue;
+            }
+            int x = rect >>> 24;
+            int y = (rect >>> 16) & 0xFF;
+            int width = ((rect >>> 8) & 0xFF) + 1;
+            int height = (rect & 0xFF) + 1;
+            send.send(i, x, y, width, height);
+            bytesSent += width * height;
+            bytesSaved += TILE_BYTES - width * height;
+            sent++;
+        }
+        tilesSent += sent;
+        tilesSkipped += tiles.length - sent;
+        return sent;
+    }
+
+    /**
+     * Forgets viewers that are no longer in {@code current}, so they get a
+     * full refresh if they come back.
+     */
+    synchronized void retain(Collection<UUID> current) {
+        viewers.keySet().retainAll(current);
+    }
+
+    synchronized boolean isTracking(UUID viewer) {
+        return viewers.containsKey(viewer);
+    }
+
+    synchronized void clear() {
+        viewers.clear();
+    }
+
+    synchronized long getTilesSent() {
+        return tilesSent;
+    }
+
+    synchronized long getTilesSkipped() {
+        return tilesSkipped;
+    }
+
+    synchronized long getBytesSent() {
+        return bytesSent;
+    }
+
+    synchronized long getBytesSaved() {
+        return bytesSaved;
+    }
+
+    private int rect(int tile, byte[] previous, byte[] data) {
+        if (rectFrom[tile] != previous || rectTo[tile] != data) {
+            rectFrom[tile] = previous;
+            rectTo[tile] = data;
+            rects[tile] = dirtyRect(previous, data);
+        }
+        return rects[tile];
+    }
+
+    /**
+     * @return The smallest rectangle covering every differing pixel of two
+     *         128x128 tiles, packed as x, y, width - 1 and height - 1 in one
+     *         byte each, or {@link #EMPTY} if the tiles are equal.
+     */
+    static int dirtyRect(byte[] previous, byte[] data) {
+        int top = -1;
+        int bottom = -1;
+        int left = TILE_SIZE;
+        int right = -1;
+        for (int y = 0; y < TILE_SIZE; y++) {
+            int from = y * TILE_SIZE;
+            int first = Arrays.mismatch(previous, from, from + TILE_SIZE, data, from, from + TILE_SIZE);
+            if (first < 0) {
+                continue;
+            }
+            if (top < 0) {
+                top = y;
+            }
+            bottom = y;
+            left = Math.min(left, first);
+            int last = TILE_SIZE - 1;
+            while (last > right && previous[from + last] == data[from + last]) {
+                last--;
+            }
+            right = Math.max(right, last);
+        }
+        if (top < 0) {
+            return EMPTY;
+        }
+        return pack(left, top, right - left + 1, bottom - top + 1);
+    }
+
+    private static int pack(int x, int y, int width, int height) {
+        return x << 24 | y << 16 | (width - 1) << 8 | (height - 1);
+    }
+
+    /**
+     * Receives the tiles {@link #deliver} decides to send.
+     */
+    interface TileSink {
+
+        void send(int index, int x, int y, int width, int height);
+    }
+
+    private static final class Viewer {
+
+        private final byte[][] delivered;
+        private long lastKeyframeNanos;
+
+        private Viewer(int tiles, long nowNanos) {
+            this.delivered = new byte[tiles][];
+            this.lastKeyframeNanos = nowNanos;
+        }
+    }
+}
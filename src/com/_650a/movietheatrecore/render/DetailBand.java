@@ -0,0 +1,61 @@
+package com._650a.movietheatrecore.render;
+
+/**
+ * Level of detail for viewers from {@code distance} blocks away from a
+ * screen: they get every {@code frameDivisor}th frame, with each map tile
+ * drawn at {@code resolution} by {@code resolution} pixels and scaled back
+ * up to the full 128.
+ *
+ * <p>Written in screen files and commands as {@code distance:divisor} or
+ * {@code distance:divisor:resolution}, for example {@code 24:2} or
+ * {@code 40:4:64}.
+ */
+public record DetailBand(double distance, int frameDivisor, int resolution) {
+
+    public static final DetailBand FULL = new DetailBand(0.0, 1, QuantizedTile.SIZE);
+
+    public DetailBand {
+        if (distance < 0.0 || Double.isNaN(distance)) {
+            throw new IllegalArgumentException("Distance must be 0 or more");
+        }
+        if (frameDivisor < 1) {
+            throw new IllegalArgumentException("Frame divisor must be 1 or more");
+        }
+        if (resolution < 1 || resolution > QuantizedTile.SIZE || QuantizedTile.SIZE % resolution != 0) {
+            throw new IllegalArgumentException("Resolution must divide " + QuantizedTile.SIZE);
+        }
+    }
+
+    /**
+     * @return How many pixels of a full tile each pixel of this band covers
+     *         along one side.
+     */
+    public int scale() {
+        return QuantizedTile.SIZE / resolution;
+    }
+
+    /**
+     * @throws IllegalArgumentException If {@code value} is not a valid band.
+     */
+    public static DetailBand parse(String value) {
+        String[] parts = value.trim().split(":");
+        if (parts.length < 2 || parts.length > 3) {
+            throw new IllegalArgumentException("Expected distance:divisor[:resolution], got " + value);
+        }
+        try {
+            double distance = Double.parseDouble(parts[0]);
+            int divisor = Integer.parseInt(parts[1]);
+            int resolution = parts.length == 3 ? Integer.parseInt(parts[2]) : QuantizedTile.SIZE;
+            return new DetailBand(distance, divisor, resolution);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Expected distance:divisor[:resolution], got " + value);
+        }
+    }
+
+    @Override
+    public String toString() {
+        String distanceText = distance == Math.rint(distance) ? Long.toString((long) distance) : Double.toString(distance);
+        return resolution == QuantizedTile.SIZE ? distanceText + ":" + frameDivisor
+                : distanceText + ":" + frameDivisor + ":" + resolution;
+    }
+}
@@ -0,0 +1,8 @@
+package com._650a.movietheatrecore.render;
+
+public enum DitherMode {
+    NONE,
+    ORDERED,
+    ORDERED_STABLE,
+    FLOYD_STEINBERG
+}
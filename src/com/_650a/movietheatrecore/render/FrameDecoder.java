@@ -0,0 +1,57 @@
+package com._650a.movietheatrecore.render;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.stream.ImageInputStream;
+
+/**
+ * Decodes frame files into the same {@link BufferedImage} every time the
+ * size and pixel type allow it, instead of letting {@link ImageIO#read}
+ * allocate a new raster per frame.
+ *
+ * <p>The returned image is overwritten by the next call. One instance per
+ * screen.
+ */
+public final class FrameDecoder {
+
+    private BufferedImage destination;
+    private ImageTypeSpecifier destinationType;
+
+    public synchronized BufferedImage read(File file) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(file)) {
+            if (input == null) {
+                throw new IOException("Cannot open " + file.getName());
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                throw new IOException("No image reader for " + file.getName());
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                Iterator<ImageTypeSpecifier> types = reader.getImageTypes(0);
+                ImageTypeSpecifier type = types.hasNext() ? types.next() : null;
+                ImageReadParam param = reader.getDefaultReadParam();
+                if (destination != null && type != null && type.equals(destinationType)
+                        && destination.getWidth() == width && destination.getHeight() == height) {
+                    param.setDestination(destination);
+                }
+                BufferedImage image = reader.read(0, param);
+                destination = image;
+                destinationType = type;
+                return image;
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+}
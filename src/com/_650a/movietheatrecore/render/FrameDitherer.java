@@ -0,0 +1,176 @@
+package com._650a.movietheatrecore.render;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+import com._650a.movietheatrecore.map.colors.MapColorQuantizer;
+
+/**
+ * Dithers a scaled ARGB frame in place before it is quantized to map colors.
+ *
+ * <p>The frame is processed in bands of one map row (128 pixels) so bands
+ * can run in parallel. Ordered modes add a fixed 8x8 Bayer offset per pixel
+ * position. {@link DitherMode#ORDERED_STABLE} also snaps pixels that moved
+ * by less than a few levels back to their previous value, so encoder noise
+ * in static regions does not flip codes from frame to frame. Floyd-Steinberg
+ * scans each band serpentine with two carried error rows; error does not
+ * cross band borders, which fall on map edges anyway.
+ *
+ * <p>Buffers are kept between frames; one instance per screen.
+ */
+public final class FrameDitherer {
+
+    private static final int BAND = QuantizedTile.SIZE;
+    private static final int ORDERED_SPREAD = 24;
+    private static final int STABLE_TOLERANCE = 4;
+    private static final int[] BAYER = {
+             0, 32,  8, 40,  2, 34, 10, 42,
+            48, 16, 56, 24, 50, 18, 58, 26,
+            12, 44,  4, 36, 14, 46,  6, 38,
+            60, 28, 52, 20, 62, 30, 54, 22,
+             3, 35, 11, 43,  1, 33,  9, 41,
+            51, 19, 59, 27, 49, 17, 57, 25,
+            15, 47,  7, 39, 13, 45,  5, 37,
+            63, 31, 55, 23, 61, 29, 53, 21
+    };
+    private static final int[] ORDERED_OFFSETS = new int[BAYER.length];
+
+    static {
+        for (int i = 0; i < BAYER.length; i++) {
+            ORDERED_OFFSETS[i] = (int) Math.round(((BAYER[i] + 0.5) / BAYER.length - 0.5) * ORDERED_SPREAD);
+        }
+    }
+
+    private int[] reference = new int[0];
+    private int[][] errorRows = new int[0][];
+    private int[] paletteRgb;
+    private int paletteGeneration;
+
+    public synchronized void dither(int[] pixels, int width, int height, DitherMode mode, MapColorQuantizer quantizer) {
+        if (mode != DitherMode.ORDERED_STABLE) {
+            reference = new int[0];
+        }
+        if (mode == null || mode == DitherMode.NONE) {
+            return;
+        }
+        int bands = (height + BAND - 1) / BAND;
+        switch (mode) {
+            case ORDERED -> forEachBand(bands, band -> ordered(pixels, width, band * BAND, Math.min(height, band * BAND + BAND)));
+            case ORDERED_STABLE -> {
+                boolean first = reference.length != width * height;
+                if (first) {
+                    reference = new int[width * height];
+                }
+                int[] previous = reference;
+                forEachBand(bands, band -> {
+                    int y0 = band * BAND;
+                    int y1 = Math.min(height, y0 + BAND);
+                    stabilize(pixels, previous, y0 * width, y1 * width, first);
+                    ordered(pixels, width, y0, y1);
+                });
+            }
+            case FLOYD_STEINBERG -> {
+                if (paletteRgb == null || paletteGeneration != quantizer.getGeneration()) {
+                    paletteRgb = quantizer.getPaletteRgb();
+                    paletteGeneration = quantizer.getGeneration();
+                }
+                int rowLength = (width + 2) * 3;
+                if (errorRows.length != bands * 2 || errorRows[0].length != rowLength) {
+                    errorRows = new int[bands * 2][rowLength];
+                }
+                int[] palette = paletteRgb;
+                forEachBand(bands, band -> floydSteinberg(pixels, width, band * BAND, Math.min(height, band * BAND + BAND),
+                        errorRows[band * 2], errorRows[band * 2 + 1], palette, quantizer));
+            }
+            default -> {
+            }
+        }
+    }
+
+    private static void forEachBand(int bands, IntConsumer action) {
+        if (bands == 1) {
+            action.accept(0);
+            return;
+        }
+        IntStream.range(0, bands).parallel().forEach(action);
+    }
+
+    private static void stabilize(int[] pixels, int[] previous, int from, int to, boolean first) {
+        for (int i = from; i < to; i++) {
+            int color = pixels[i];
+            int last = previous[i];
+            if (!first && color != last && (color ^ last) >>> 24 == 0
+                    && Math.abs((color >> 16 & 0xFF) - (last >> 16 & 0xFF)) <= STABLE_TOLERANCE
+                    && Math.abs((color >> 8 & 0xFF) - (last >> 8 & 0xFF)) <= STABLE_TOLERANCE
+                    && Math.abs((color & 0xFF) - (last & 0xFF)) <= STABLE_TOLERANCE) {
+                pixels[i] = last;
+            } else {
+                previous[i] = color;
+            }
+        }
+    }
+
+    private static void ordered(int[] pixels, int width, int y0, int y1) {
+        for (int y = y0; y < y1; y++) {
+            int row = y * width;
+            int pattern = (y & 7) << 3;
+            for (int x = 0; x < width; x++) {
+                int color = pixels[row + x];
+                if (color >= 0) {
+                    continue;
+                }
+                int offset = ORDERED_OFFSETS[pattern | (x & 7)];
+                int r = clamp((color >> 16 & 0xFF) + offset);
+                int g = clamp((color >> 8 & 0xFF) + offset);
+                int b = clamp((color & 0xFF) + offset);
+                pixels[row + x] = (color & 0xFF000000) | r << 16 | g << 8 | b;
+            }
+        }
+    }
+
+    /**
+     * Error rows are stored as sixteenths, three channels per pixel with one
+     * pixel of padding on each side.
+     */
+    private static void floydSteinberg(int[] pixels, int width, int y0, int y1, int[] current, int[] next,
+                                       int[] palette, MapColorQuantizer quantizer) {
+        Arrays.fill(current, 0);
+        for (int y = y0; y < y1; y++) {
+            Arrays.fill(next, 0);
+            boolean forward = ((y - y0) & 1) == 0;
+            int step = forward ? 1 : -1;
+            int row = y * width;
+            for (int n = 0, x = forward ? 0 : width - 1; n < width; n++, x += step) {
+                int color = pixels[row + x];
+                if (color >= 0) {
+                    continue;
+                }
+                int e = (x + 1) * 3;
+                int r = clamp((color >> 16 & 0xFF) + (current[e] + 8 >> 4));
+                int g = clamp((color >> 8 & 0xFF) + (current[e + 1] + 8 >> 4));
+                int b = clamp((color & 0xFF) + (current[e + 2] + 8 >> 4));
+                int match = palette[quantizer.quantizePixel(r << 16 | g << 8 | b) & 0xFF];
+                pixels[row + x] = (color & 0xFF000000) | match;
+
+                int ahead = e + step * 3;
+                int behind = e - step * 3;
+                for (int c = 0; c < 3; c++) {
+                    int shift = 16 - c * 8;
+                    int error = (c == 0 ? r : c == 1 ? g : b) - (match >> shift & 0xFF);
+                    current[ahead + c] += error * 7;
+                    next[behind + c] += error * 3;
+                    next[e + c] += error * 5;
+                    next[ahead + c] += error;
+                }
+            }
+            int[] swap = current;
+            current = next;
+            next = swap;
+        }
+    }
+
+    private static int clamp(int value) {
+        return value < 0 ? 0 : Math.min(value, 255);
+    }
+}
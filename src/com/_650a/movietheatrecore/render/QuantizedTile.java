@@ -0,0 +1,52 @@
+package com._650a.movietheatrecore.render;
+
+/**
+ * Map colors of one 128x128 tile for one frame.
+ *
+ * <p>{@code data} is never modified after it is published, so unchanged
+ * tiles share the array of the previous frame. The bounding box covers the
+ * pixels that changed since the previous frame and is empty when
+ * {@code changed} is false.
+ */
+public record QuantizedTile(
+        byte[] data,
+        boolean changed,
+        int minX,
+        int minY,
+        int maxX,
+        int maxY
+) {
+    public static final int SIZE = 128;
+
+    public static QuantizedTile full(byte[] data) {
+        return new QuantizedTile(data, true, 0, 0, SIZE - 1, SIZE - 1);
+    }
+
+    public static QuantizedTile unchanged(byte[] data) {
+        return new QuantizedTile(data, false, 0, 0, -1, -1);
+    }
+
+    /**
+     * Widens the bounding box to also cover what changed in
+     * {@code earlier}, for when the frame holding {@code earlier} was
+     * dropped and this tile is shown right after an older one.
+     */
+    public QuantizedTile since(QuantizedTile earlier) {
+        if (!earlier.changed) {
+            return this;
+        }
+        if (!changed) {
+            return new QuantizedTile(data, true, earlier.minX, earlier.minY, earlier.maxX, earlier.maxY);
+        }
+        return new QuantizedTile(data, true, Math.min(minX, earlier.minX), Math.min(minY, earlier.minY),
+                Math.max(maxX, earlier.maxX), Math.max(maxY, earlier.maxY));
+    }
+
+    public int width() {
+        return changed ? maxX - minX + 1 : 0;
+    }
+
+    public int height() {
+        return changed ? maxY - minY + 1 : 0;
+    }
+}
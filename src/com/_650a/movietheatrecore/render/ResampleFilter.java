@@ -0,0 +1,76 @@
+package com._650a.movietheatrecore.render;
+
+import java.util.Locale;
+
+/**
+ * Reconstruction filters for {@link SamplingTable}.
+ *
+ * <p>{@link #BILINEAR} blends the two nearest source pixels, like the old
+ * Graphics2D path, and aliases when shrinking. {@link #AREA}, the default,
+ * averages every source pixel under the destination pixel, weighted by
+ * coverage.
+ * {@link #LANCZOS3} is the sharpest and the most expensive; its kernel is
+ * widened by the shrink factor so it also band-limits on downscale.
+ */
+public enum ResampleFilter {
+
+    BILINEAR,
+    AREA,
+    LANCZOS3;
+
+    /**
+     * Weight of a source pixel whose center is {@code distance} source
+     * pixels from the sample center, before normalization.
+     *
+     * @param scale Source pixels per destination pixel.
+     */
+    double weight(double distance, double scale) {
+        switch (this) {
+            case BILINEAR -> {
+                return Math.max(0.0, 1.0 - Math.abs(distance));
+            }
+            case AREA -> {
+                // Overlap of [d - 1/2, d + 1/2] (source pixel) with the footprint
+                // [-scale/2, scale/2], both in source pixels.
+                double footprint = Math.max(scale, 1.0) / 2.0;
+                double low = Math.max(distance - 0.5, -footprint);
+                double high = Math.min(distance + 0.5, footprint);
+                return Math.max(0.0, high - low);
+            }
+            default -> {
+                double x = distance / Math.max(scale, 1.0);
+                if (x == 0.0) {
+                    return 1.0;
+                }
+                if (Math.abs(x) >= 3.0) {
+                    return 0.0;
+                }
+                double px = Math.PI * x;
+                return 3.0 * Math.sin(px) * Math.sin(px / 3.0) / (px * px);
+            }
+        }
+    }
+
+    /**
+     * @return How far from the sample center, in source pixels, the filter
+     *         reaches.
+     */
+    double support(double scale) {
+        return switch (this) {
+            case BILINEAR -> 1.0;
+            case AREA -> Math.max(scale, 1.0) / 2.0 + 0.5;
+            case LANCZOS3 -> 3.0 * Math.max(scale, 1.0);
+        };
+    }
+
+    public static ResampleFilter fromName(String name) {
+        if (name == null || name.isEmpty()) {
+            return AREA;
+        }
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT).replace("-", "").replace("_", ""));
+        } catch (IllegalArgumentException ignored) {
+            return AREA;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com._650a.movietheatrecore.render;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Threads that resample the rows of a single frame together.
+ *
+ * <p>A session renders its frames one after another on its own
+ * {@code RenderExecutor} lane, so without this pool one screen scales on one
+ * core however many are idle. The pool is the plugin's own, sized like the
+ * render executor from {@code rendering.render-threads}, rather than the
+ * common pool other plugins on the server share.
+ */
+public final class ResamplePool {
+
+    private static volatile ForkJoinPool pool;
+
+    private ResamplePool() {
+    }
+
+    /**
+     * Replaces the pool with one of {@code threads} workers; one thread or
+     * fewer leaves resampling on the calling thread.
+     */
+    public static synchronized void start(int threads) {
+        shutdown();
+        if (threads <= 1) {
+            return;
+        }
+        AtomicInteger counter = new AtomicInteger();
+        pool = new ForkJoinPool(threads, forkJoinPool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+            thread.setName("MovieTheatreCore-resample-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
+    }
+
+    public static synchronized void shutdown() {
+        if (pool != null) {
+            pool.shutdownNow();
+            pool = null;
+        }
+    }
+
+    static ForkJoinPool get() {
+        return pool;
+    }
+}
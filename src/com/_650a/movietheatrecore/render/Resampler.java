@@ -0,0 +1,394 @@
+package com._650a.movietheatrecore.render;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.SampleModel;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+import com._650a.movietheatrecore.map.colors.PixelLayout;
+
+/**
+ * Separable fixed-point resampling through a {@link SamplingTable}.
+ *
+ * <p>Each destination row is built in two steps: the source rows under it
+ * are blended into one scratch row in the image's own layout, then that row
+ * is filtered along x into the destination. Filtering along y first keeps
+ * the inner loops running over contiguous memory and means the costlier
+ * horizontal step only runs once per destination row. Only the cropped
+ * columns are blended, and rows that a single source row carries are
+ * filtered straight from the image. The scratch row is rounded to 8 bits
+ * per channel as its last tap is added.
+ *
+ * <p>Rows are split into chunks that run on the {@link ResamplePool} when it
+ * is started, with the calling thread taking its share, and on the calling
+ * thread alone otherwise. Scratch rows are per thread.
+ */
+final class Resampler {
+
+    private static final int CHUNK_ROWS = 32;
+    private static final int ROUND = 1 << (SamplingTable.WEIGHT_BITS - 1);
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    private Resampler() {
+    }
+
+    /**
+     * Resamples {@code image} into {@code dst}, row-major ARGB with
+     * {@code width} pixels per row. Reads the backing array directly for the
+     * layouts ImageIO produces, otherwise goes through {@code getRGB} one
+     * source row at a time.
+     */
+    static void resample(BufferedImage image, SamplingTable table, int[] dst, int width, int height) {
+        PixelLayout layout = PixelLayout.of(image);
+        WritableRaster raster = image.getRaster();
+        SampleModel sampleModel = raster.getSampleModel();
+        DataBuffer dataBuffer = raster.getDataBuffer();
+        int rasterX = -raster.getSampleModelTranslateX();
+        int rasterY = -raster.getSampleModelTranslateY();
+        int from = table.xFirst;
+        int count = table.xLast - from + 1;
+
+        if ((layout == PixelLayout.INT_RGB || layout == PixelLayout.INT_ARGB)
+                && dataBuffer instanceof DataBufferInt intBuffer
+                && sampleModel instanceof SinglePixelPackedSampleModel packed) {
+            int[] pixels = intBuffer.getData();
+            int stride = packed.getScanlineStride();
+            int base = intBuffer.getOffset() + rasterY * stride + rasterX;
+            int alpha = layout == PixelLayout.INT_RGB ? 0xFF000000 : 0;
+            forEachRow(table, dst, width, height, y -> {
+                int row = blendInts(pixels, base, stride, from, count, alpha, table, y);
+                if (row < 0) {
+                    filterInts(SCRATCH.get().ints, -from, 0, table, dst, y * width, width);
+                } else {
+                    filterInts(pixels, row, alpha, table, dst, y * width, width);
+                }
+            });
+            return;
+        }
+
+        if ((layout == PixelLayout.BYTE_BGR || layout == PixelLayout.BYTE_ABGR)
+                && dataBuffer instanceof DataBufferByte byteBuffer
+                && sampleModel instanceof ComponentSampleModel component
+                && component.getPixelStride() == layout.getBytesPerPixel()) {
+            byte[] pixels = byteBuffer.getData();
+            int stride = component.getScanlineStride();
+            int pixelStride = component.getPixelStride();
+            int base = byteBuffer.getOffset() + rasterY * stride + rasterX * pixelStride + minimum(component.getBandOffsets());
+            boolean hasAlpha = layout == PixelLayout.BYTE_ABGR;
+            forEachRow(table, dst, width, height, y -> {
+                int row = blendBytes(pixels, base, stride, from * pixelStride, count * pixelStride, table, y);
+                if (row < 0) {
+                    filterBytes(SCRATCH.get().bytes, -from * pixelStride, pixelStride, hasAlpha, table, dst, y * width, width);
+                } else {
+                    filterBytes(pixels, row, pixelStride, hasAlpha, table, dst, y * width, width);
+                }
+            });
+            return;
+        }
+
+        forEachRow(table, dst, width, height, y -> {
+            Scratch scratch = SCRATCH.get().ensureInts(count);
+            int taps = table.yTaps;
+            int first = y * taps;
+            if (single(table.yWeight, first, taps)) {
+                image.getRGB(from, table.yIndex[first], count, 1, scratch.ints, 0, count);
+            } else {
+                for (int k = 0; k < taps; k++) {
+                    image.getRGB(from, table.yIndex[first + k], count, 1, scratch.source, 0, count);
+                    accumulate(scratch.source, 0, count, 0, table.yWeight[first + k], scratch, k == 0);
+                }
+                scratch.pack(count);
+            }
+            filterInts(scratch.ints, -from, 0, table, dst, y * width, width);
+        });
+    }
+
+    /**
+     * Blends {@code count} pixels from column {@code from} of the source
+     * rows under destination row {@code y} into the thread's scratch row.
+     *
+     * @return The offset of the source row to filter instead when a single
+     *         row carries all the weight, otherwise -1.
+     */
+    private static int blendInts(int[] pixels, int base, int stride, int from, int count, int alpha, SamplingTable table, int y) {
+        int taps = table.yTaps;
+        int first = y * taps;
+        if (single(table.yWeight, first, taps)) {
+            return base + table.yIndex[first] * stride;
+        }
+        Scratch scratch = SCRATCH.get().ensureInts(count);
+        for (int k = 0; k < taps; k++) {
+            accumulate(pixels, base + table.yIndex[first + k] * stride + from, count, alpha, table.yWeight[first + k], scratch, k == 0);
+        }
+        scratch.pack(count);
+        return -1;
+    }
+
+    /**
+     * Byte counterpart of {@link #blendInts}. Every sample is blended on its
+     * own, so the channel order does not matter here.
+     */
+    private static int blendBytes(byte[] pixels, int base, int stride, int from, int count, SamplingTable table, int y) {
+        int taps = table.yTaps;
+        int first = y * taps;
+        if (single(table.yWeight, first, taps)) {
+            return base + table.yIndex[first] * stride;
+        }
+        int last = taps - 1;
+        while (table.yWeight[first + last] == 0) {
+            last--;
+        }
+        Scratch scratch = SCRATCH.get().ensureBytes(count);
+        int[] sums = scratch.sums;
+        int w = table.yWeight[first];
+        int row = base + table.yIndex[first] * stride + from;
+        for (int i = 0; i < count; i++) {
+            sums[i] = (pixels[row + i] & 0xFF) * w;
+        }
+        for (int k = 1; k < last; k++) {
+            w = table.yWeight[first + k];
+            if (w == 0) {
+                continue;
+            }
+            row = base + table.yIndex[first + k] * stride + from;
+            for (int i = 0; i < count; i++) {
+                sums[i] += (pixels[row + i] & 0xFF) * w;
+            }
+        }
+        byte[] bytes = scratch.bytes;
+        w = table.yWeight[first + last];
+        row = base + table.yIndex[first + last] * stride + from;
+        for (int i = 0; i < count; i++) {
+            bytes[i] = (byte) clamp(sums[i] + (pixels[row + i] & 0xFF) * w);
+        }
+        return -1;
+    }
+
+    private static void accumulate(int[] pixels, int row, int count, int alpha, int w, Scratch scratch, boolean first) {
+        int[] a = scratch.a;
+        int[] r = scratch.r;
+        int[] g = scratch.g;
+        int[] b = scratch.b;
+        if (first) {
+            Arrays.fill(a, 0, count, 0);
+            Arrays.fill(r, 0, count, 0);
+            Arrays.fill(g, 0, count, 0);
+            Arrays.fill(b, 0, count, 0);
+        }
+        if (w == 0) {
+            return;
+        }
+        for (int x = 0; x < count; x++) {
+            int p = alpha | pixels[row + x];
+            a[x] += (p >>> 24) * w;
+            r[x] += (p >> 16 & 0xFF) * w;
+            g[x] += (p >> 8 & 0xFF) * w;
+            b[x] += (p & 0xFF) * w;
+        }
+    }
+
+    /**
+     * @return Whether the first tap carries all the weight.
+     */
+    private static boolean single(int[] weights, int first, int taps) {
+        for (int k = 1; k < taps; k++) {
+            if (weights[first + k] != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void filterInts(int[] pixels, int row, int alpha, SamplingTable table, int[] target, int out, int width) {
+        int taps = table.xTaps;
+        int[] index = table.xIndex;
+        int[] weights = table.xWeight;
+        for (int x = 0; x < width; x++) {
+            int base = x * taps;
+            if (index[base] < 0) {
+                target[out + x] = 0;
+                continue;
+            }
+            int a = 0;
+            int r = 0;
+            int g = 0;
+            int b = 0;
+            for (int k = 0; k < taps; k++) {
+                int w = weights[base + k];
+                int p = alpha | pixels[row + index[base + k]];
+                a += (p >>> 24) * w;
+                r += (p >> 16 & 0xFF) * w;
+                g += (p >> 8 & 0xFF) * w;
+                b += (p & 0xFF) * w;
+            }
+            target[out + x] = pack(a, r, g, b);
+        }
+    }
+
+    private static void filterBytes(byte[] pixels, int row, int pixelStride, boolean hasAlpha, SamplingTable table,
+                                    int[] target, int out, int width) {
+        if (!hasAlpha) {
+            filterBgr(pixels, row, pixelStride, table, target, out, width);
+            return;
+        }
+        int taps = table.xTaps;
+        int[] index = table.xIndex;
+        int[] weights = table.xWeight;
+        for (int x = 0; x < width; x++) {
+            int base = x * taps;
+            if (index[base] < 0) {
+                target[out + x] = 0;
+                continue;
+            }
+            int a = 0;
+            int r = 0;
+            int g = 0;
+            int b = 0;
+            for (int k = 0; k < taps; k++) {
+                int w = weights[base + k];
+                int p = row + index[base + k] * pixelStride;
+                a += (pixels[p] & 0xFF) * w;
+                b += (pixels[p + 1] & 0xFF) * w;
+                g += (pixels[p + 2] & 0xFF) * w;
+                r += (pixels[p + 3] & 0xFF) * w;
+            }
+            target[out + x] = pack(a, r, g, b);
+        }
+    }
+
+    private static void filterBgr(byte[] pixels, int row, int pixelStride, SamplingTable table, int[] target, int out, int width) {
+        int taps = table.xTaps;
+        int[] index = table.xIndex;
+        int[] weights = table.xWeight;
+        for (int x = 0; x < width; x++) {
+            int base = x * taps;
+            if (index[base] < 0) {
+                target[out + x] = 0;
+                continue;
+            }
+            int r = 0;
+            int g = 0;
+            int b = 0;
+            for (int k = 0; k < taps; k++) {
+                int w = weights[base + k];
+                int p = row + index[base + k] * pixelStride;
+                b += (pixels[p] & 0xFF) * w;
+                g += (pixels[p + 1] & 0xFF) * w;
+                r += (pixels[p + 2] & 0xFF) * w;
+            }
+            target[out + x] = 0xFF000000 | clamp(r) << 16 | clamp(g) << 8 | clamp(b);
+        }
+    }
+
+    private static int pack(int a, int r, int g, int b) {
+        return clamp(a) << 24 | clamp(r) << 16 | clamp(g) << 8 | clamp(b);
+    }
+
+    /**
+     * Rounds a weighted sum back to 0..255; kernels with negative lobes can
+     * overshoot either way.
+     */
+    private static int clamp(int sum) {
+        int value = (sum + ROUND) >> SamplingTable.WEIGHT_BITS;
+        return value < 0 ? 0 : Math.min(value, 255);
+    }
+
+    /**
+     * Runs {@code action} for every drawn destination row and clears the
+     * letterbox rows. With the pool started, helpers and the calling thread
+     * take chunks from a shared counter until none are left, so the caller
+     * never sits idle behind a helper that has not started yet.
+     */
+    private static void forEachRow(SamplingTable table, int[] dst, int width, int height, IntConsumer action) {
+        int chunks = (height + CHUNK_ROWS - 1) / CHUNK_ROWS;
+        IntConsumer chunk = c -> {
+            int end = Math.min(height, (c + 1) * CHUNK_ROWS);
+            for (int y = c * CHUNK_ROWS; y < end; y++) {
+                if (table.yIndex[y * table.yTaps] < 0) {
+                    Arrays.fill(dst, y * width, (y + 1) * width, 0);
+                } else {
+                    action.accept(y);
+                }
+            }
+        };
+        ForkJoinPool pool = ResamplePool.get();
+        if (pool == null || chunks <= 1) {
+            for (int c = 0; c < chunks; c++) {
+                chunk.accept(c);
+            }
+            return;
+        }
+        AtomicInteger next = new AtomicInteger();
+        Runnable work = () -> {
+            for (int c = next.getAndIncrement(); c < chunks; c = next.getAndIncrement()) {
+                chunk.accept(c);
+            }
+        };
+        ForkJoinTask<?>[] helpers = new ForkJoinTask<?>[Math.min(pool.getParallelism(), chunks - 1)];
+        for (int i = 0; i < helpers.length; i++) {
+            helpers[i] = pool.submit(work);
+        }
+        work.run();
+        for (ForkJoinTask<?> helper : helpers) {
+            helper.join();
+        }
+    }
+
+    private static int minimum(int[] values) {
+        int min = Integer.MAX_VALUE;
+        for (int value : values) {
+            min = Math.min(min, value);
+        }
+        return min;
+    }
+
+    /**
+     * Per-thread rows for the vertical step, grown on demand.
+     */
+    private static final class Scratch {
+
+        private int[] a = new int[0];
+        private int[] r = new int[0];
+        private int[] g = new int[0];
+        private int[] b = new int[0];
+        private int[] ints = new int[0];
+        private int[] source = new int[0];
+        private int[] sums = new int[0];
+        private byte[] bytes = new byte[0];
+
+        private Scratch ensureInts(int count) {
+            if (ints.length < count) {
+                a = new int[count];
+                r = new int[count];
+                g = new int[count];
+                b = new int[count];
+                ints = new int[count];
+                source = new int[count];
+            }
+            return this;
+        }
+
+        private Scratch ensureBytes(int count) {
+            if (bytes.length < count) {
+                sums = new int[count];
+                bytes = new byte[count];
+            }
+            return this;
+        }
+
+        private void pack(int count) {
+            for (int x = 0; x < count; x++) {
+                ints[x] = Resampler.pack(a[x], r[x], g[x], b[x]);
+            }
+        }
+    }
+}
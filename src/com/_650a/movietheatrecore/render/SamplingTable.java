@@ -0,0 +1,151 @@
+package com._650a.movietheatrecore.render;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Precomputed fixed-point filter weights for one (source size, screen size,
+ * {@link ScalingMode}, {@link ResampleFilter}) combination, following
+ * {@link ScalingMath}.
+ *
+ * <p>Each axis has a fixed number of taps per destination pixel. For
+ * destination column {@code x}, source column {@code xIndex[x * xTaps + k]}
+ * contributes {@code xWeight[x * xTaps + k]} in units of
+ * {@link #WEIGHT_ONE}; the weights of one pixel sum to exactly
+ * {@code WEIGHT_ONE}. Rows work the same way through {@code yIndex} and
+ * {@code yWeight}. Columns and rows outside the drawn area (letterboxing in
+ * {@link ScalingMode#FIT}) have -1 as their first index and stay
+ * transparent. Source indices are clamped to the crop area, which repeats
+ * its edge pixels; {@code xFirst} to {@code xLast} are the source columns
+ * any tap reads.
+ *
+ * <p>Tables are immutable and shared between screens through a small LRU
+ * cache.
+ */
+final class SamplingTable {
+
+    static final int WEIGHT_BITS = 14;
+    static final int WEIGHT_ONE = 1 << WEIGHT_BITS;
+
+    private static final int CACHE_SIZE = 16;
+    private static final Map<Key, SamplingTable> CACHE = Collections.synchronizedMap(new LinkedHashMap<>(CACHE_SIZE, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, SamplingTable> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    });
+
+    final int xTaps;
+    final int[] xIndex;
+    final int[] xWeight;
+    final int xFirst;
+    final int xLast;
+    final int yTaps;
+    final int[] yIndex;
+    final int[] yWeight;
+
+    private SamplingTable(int srcWidth, int srcHeight, int dstWidth, int dstHeight, ScalingMode mode, ResampleFilter filter) {
+        ScalingTransform transform = ScalingMath.computeTransform(srcWidth, srcHeight, dstWidth, dstHeight, mode);
+        int drawWidth = mode == ScalingMode.FIT ? transform.scaledWidth(srcWidth) : dstWidth;
+        int drawHeight = mode == ScalingMode.FIT ? transform.scaledHeight(srcHeight) : dstHeight;
+        Axis x = axis(filter, dstWidth, transform.offsetX(), drawWidth, transform.cropX(), transform.cropWidth());
+        Axis y = axis(filter, dstHeight, transform.offsetY(), drawHeight, transform.cropY(), transform.cropHeight());
+        this.xTaps = x.taps;
+        this.xIndex = x.index;
+        this.xWeight = x.weight;
+        this.xFirst = transform.cropX();
+        this.xLast = transform.cropX() + transform.cropWidth() - 1;
+        this.yTaps = y.taps;
+        this.yIndex = y.index;
+        this.yWeight = y.weight;
+    }
+
+    static SamplingTable get(int srcWidth, int srcHeight, int dstWidth, int dstHeight, ScalingMode mode, ResampleFilter filter) {
+        return CACHE.computeIfAbsent(new Key(srcWidth, srcHeight, dstWidth, dstHeight, mode, filter),
+                key -> new SamplingTable(srcWidth, srcHeight, dstWidth, dstHeight, mode, filter));
+    }
+
+    private static Axis axis(ResampleFilter filter, int dstSize, int offset, int drawSize, int crop, int cropSize) {
+        int last = crop + cropSize - 1;
+        double scale = (double) cropSize / drawSize;
+        double support = filter.support(scale);
+        int[] first = new int[dstSize];
+        double[][] raw = new double[dstSize][];
+        int taps = 1;
+        for (int d = offset; d < offset + drawSize; d++) {
+            double center = crop + (d - offset + 0.5) * scale;
+            int from = (int) Math.floor(center - support - 0.5);
+            int to = (int) Math.ceil(center + support - 0.5);
+            int low = clamp(from, crop, last);
+            double[] weights = new double[clamp(to, crop, last) - low + 1];
+            for (int i = from; i <= to; i++) {
+                weights[clamp(i, crop, last) - low] += filter.weight(i + 0.5 - center, scale);
+            }
+            int start = 0;
+            int end = weights.length;
+            while (end - start > 1 && weights[start] == 0.0) {
+                start++;
+            }
+            while (end - start > 1 && weights[end - 1] == 0.0) {
+                end--;
+            }
+            first[d] = low + start;
+            raw[d] = Arrays.copyOfRange(weights, start, end);
+            taps = Math.max(taps, raw[d].length);
+        }
+
+        int[] index = new int[dstSize * taps];
+        int[] weight = new int[dstSize * taps];
+        for (int d = 0; d < dstSize; d++) {
+            int base = d * taps;
+            if (raw[d] == null) {
+                Arrays.fill(index, base, base + taps, -1);
+                continue;
+            }
+            normalize(raw[d], weight, base);
+            for (int k = 0; k < taps; k++) {
+                index[base + k] = first[d] + Math.min(k, raw[d].length - 1);
+            }
+        }
+        return new Axis(taps, index, weight);
+    }
+
+    /**
+     * Scales {@code raw} to integers summing to {@link #WEIGHT_ONE}, putting
+     * the rounding error on the largest tap. Falls back to the nearest pixel
+     * if the filter gave no weight at all.
+     */
+    private static void normalize(double[] raw, int[] weight, int base) {
+        int count = raw.length;
+        double sum = 0.0;
+        for (int k = 0; k < count; k++) {
+            sum += raw[k];
+        }
+        if (Math.abs(sum) < 1e-9) {
+            weight[base + count / 2] = WEIGHT_ONE;
+            return;
+        }
+        int total = 0;
+        int largest = 0;
+        for (int k = 0; k < count; k++) {
+            weight[base + k] = (int) Math.round(raw[k] / sum * WEIGHT_ONE);
+            total += weight[base + k];
+            if (weight[base + k] > weight[base + largest]) {
+                largest = k;
+            }
+        }
+        weight[base + largest] += WEIGHT_ONE - total;
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    private record Axis(int taps, int[] index, int[] weight) {
+    }
+
+    private record Key(int srcWidth, int srcHeight, int dstWidth, int dstHeight, ScalingMode mode, ResampleFilter filter) {
+    }
+}
@@ -0,0 +1,200 @@
+package com._650a.movietheatrecore.render;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+import java.util.Arrays;
+
+import com._650a.movietheatrecore.map.colors.MapColorQuantizer;
+import com._650a.movietheatrecore.map.colors.PixelLayout;
+
+/**
+ * Quantizes consecutive frames of one screen, only looking up the 8x8 blocks
+ * whose source pixels changed since the previous frame.
+ *
+ * <p>The previous frame's ARGB pixels and tile codes are kept between calls.
+ * A tile with changed blocks gets a fresh copy of its previous codes with
+ * those blocks rewritten; an unchanged tile reuses the previous array. The
+ * state is dropped, and the next frame quantized in full, when the frame
+ * size or the color table changes.
+ */
+public final class TemporalQuantizer {
+
+    private static final int TILE = QuantizedTile.SIZE;
+    private static final int BLOCK = 8;
+    private static final int BLOCKS = TILE / BLOCK;
+    private static final int ALL_BLOCKS = (1 << BLOCKS) - 1;
+
+    private int[] current = new int[0];
+    private int[] previous = new int[0];
+    private byte[][] tiles;
+    private int width;
+    private int height;
+    private int generation;
+
+    /**
+     * @param image   Scaled frame, {@code columns * 128} by {@code rows * 128}.
+     * @return One tile per map, row-major.
+     */
+    public QuantizedTile[] quantize(BufferedImage image, MapColorQuantizer quantizer, int columns, int rows) {
+        return quantize(image, quantizer, columns, rows, null, DitherMode.NONE);
+    }
+
+    /**
+     * Same as {@link #quantize(BufferedImage, MapColorQuantizer, int, int)},
+     * dithering the frame before blocks are compared.
+     */
+    public synchronized QuantizedTile[] quantize(BufferedImage image, MapColorQuantizer quantizer, int columns, int rows,
+                                                 FrameDitherer ditherer, DitherMode ditherMode) {
+        int frameWidth = columns * TILE;
+        int frameHeight = rows * TILE;
+        if (image.getWidth() < frameWidth || image.getHeight() < frameHeight) {
+            throw new IllegalArgumentException("Frame is " + image.getWidth() + "x" + image.getHeight()
+                    + ", expected at least " + frameWidth + "x" + frameHeight + ".");
+        }
+        readPixels(image, frameWidth, frameHeight, beginFrame(columns, rows));
+        return finishFrame(quantizer, columns, rows, ditherer, ditherMode);
+    }
+
+    /**
+     * @return The buffer the caller fills with the next frame, row-major
+     *         ARGB of {@code columns * 128} by {@code rows * 128} pixels,
+     *         before calling {@link #finishFrame}.
+     */
+    synchronized int[] beginFrame(int columns, int rows) {
+        int size = columns * TILE * rows * TILE;
+        if (current.length != size) {
+            current = new int[size];
+        }
+        return current;
+    }
+
+    synchronized QuantizedTile[] finishFrame(MapColorQuantizer quantizer, int columns, int rows,
+                                             FrameDitherer ditherer, DitherMode ditherMode) {
+        int frameWidth = columns * TILE;
+        int frameHeight = rows * TILE;
+        if (ditherer != null) {
+            ditherer.dither(current, frameWidth, frameHeight, ditherMode, quantizer);
+        }
+
+        boolean full = tiles == null || tiles.length != columns * rows
+                || width != frameWidth || height != frameHeight
+                || generation != quantizer.getGeneration();
+        QuantizedTile[] result = new QuantizedTile[columns * rows];
+        byte[][] nextTiles = new byte[columns * rows][];
+        for (int i = 0; i < result.length; i++) {
+            int originX = (i % columns) * TILE;
+            int originY = (i / columns) * TILE;
+            if (full) {
+                byte[] data = new byte[TILE * TILE];
+                for (int row = 0; row < TILE; row++) {
+                    quantizer.quantizeRow(current, (originY + row) * frameWidth + originX, data, row * TILE, TILE, PixelLayout.INT_ARGB);
+                }
+                nextTiles[i] = data;
+                result[i] = QuantizedTile.full(data);
+            } else {
+                result[i] = updateTile(tiles[i], originX, originY, frameWidth, quantizer);
+                nextTiles[i] = result[i].data();
+            }
+        }
+
+        int[] swap = previous;
+        previous = current;
+        current = swap;
+        tiles = nextTiles;
+        width = frameWidth;
+        height = frameHeight;
+        generation = quantizer.getGeneration();
+        return result;
+    }
+
+    /**
+     * Forgets the previous frame so the next one is quantized in full.
+     */
+    public synchronized void reset() {
+        current = new int[0];
+        previous = new int[0];
+        tiles = null;
+    }
+
+    private QuantizedTile updateTile(byte[] before, int originX, int originY, int stride, MapColorQuantizer quantizer) {
+        byte[] data = null;
+        int minBlockX = BLOCKS;
+        int minBlockY = BLOCKS;
+        int maxBlockX = -1;
+        int maxBlockY = -1;
+        for (int band = 0; band < BLOCKS; band++) {
+            int mask = changedBlocks(originX, originY + band * BLOCK, stride);
+            if (mask == 0) {
+                continue;
+            }
+            if (data == null) {
+                data = before.clone();
+            }
+            minBlockY = Math.min(minBlockY, band);
+            maxBlockY = band;
+            minBlockX = Math.min(minBlockX, Integer.numberOfTrailingZeros(mask));
+            maxBlockX = Math.max(maxBlockX, 31 - Integer.numberOfLeadingZeros(mask));
+
+            int block = 0;
+            while (block < BLOCKS) {
+                if ((mask & (1 << block)) == 0) {
+                    block++;
+                    continue;
+                }
+                int start = block;
+                while (block < BLOCKS && (mask & (1 << block)) != 0) {
+                    block++;
+                }
+                int x = start * BLOCK;
+                int length = (block - start) * BLOCK;
+                for (int row = band * BLOCK; row < band * BLOCK + BLOCK; row++) {
+                    quantizer.quantizeRow(current, (originY + row) * stride + originX + x, data, row * TILE + x, length, PixelLayout.INT_ARGB);
+                }
+            }
+        }
+        if (data == null) {
+            return QuantizedTile.unchanged(before);
+        }
+        return new QuantizedTile(data, true, minBlockX * BLOCK, minBlockY * BLOCK, maxBlockX * BLOCK + BLOCK - 1, maxBlockY * BLOCK + BLOCK - 1);
+    }
+
+    /**
+     * @return Bit {@code n} set when block {@code n} of the 8 rows starting
+     *         at {@code y} differs from the previous frame.
+     */
+    private int changedBlocks(int originX, int y, int stride) {
+        int mask = 0;
+        for (int row = y; row < y + BLOCK && mask != ALL_BLOCKS; row++) {
+            int offset = row * stride + originX;
+            int x = 0;
+            while (x < TILE) {
+                int mismatch = Arrays.mismatch(current, offset + x, offset + TILE, previous, offset + x, offset + TILE);
+                if (mismatch < 0) {
+                    break;
+                }
+                int block = (x + mismatch) / BLOCK;
+                mask |= 1 << block;
+                x = (block + 1) * BLOCK;
+            }
+        }
+        return mask;
+    }
+
+    private static void readPixels(BufferedImage image, int frameWidth, int frameHeight, int[] target) {
+        WritableRaster raster = image.getRaster();
+        if (image.getType() == BufferedImage.TYPE_INT_ARGB
+                && raster.getDataBuffer() instanceof DataBufferInt buffer
+                && raster.getSampleModel() instanceof SinglePixelPackedSampleModel packed) {
+            int[] pixels = buffer.getData();
+            int stride = packed.getScanlineStride();
+            int base = buffer.getOffset() - raster.getSampleModelTranslateY() * stride - raster.getSampleModelTranslateX();
+            for (int row = 0; row < frameHeight; row++) {
+                System.arraycopy(pixels, base + row * stride, target, row * frameWidth, frameWidth);
+            }
+            return;
+        }
+        image.getRGB(0, 0, frameWidth, frameHeight, target, 0, frameWidth);
+    }
+}
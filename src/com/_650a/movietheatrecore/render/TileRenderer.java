@@ -0,0 +1,38 @@
+package com._650a.movietheatrecore.render;
+
+import java.awt.image.BufferedImage;
+
+import com._650a.movietheatrecore.map.colors.MapColorQuantizer;
+
+/**
+ * Turns a decoded source frame into map tiles without building an
+ * intermediate scaled {@link BufferedImage} or sub-images.
+ *
+ * <p>The frame is resampled through a cached {@link SamplingTable} straight
+ * into the frame buffer of a {@link TemporalQuantizer}, which quantizes the
+ * changed blocks. All buffers are kept between frames; only tiles that
+ * changed get a new code array, because published tiles may still be
+ * referenced by map renderers.
+ *
+ * <p>One instance per screen. Not meant for concurrent frames.
+ */
+public final class TileRenderer {
+
+    private final TemporalQuantizer temporal = new TemporalQuantizer();
+
+    public synchronized QuantizedTile[] render(BufferedImage image, int columns, int rows, ScalingMode mode, ResampleFilter filter,
+                                               MapColorQuantizer quantizer, FrameDitherer ditherer, DitherMode ditherMode) {
+        int width = columns * QuantizedTile.SIZE;
+        int height = rows * QuantizedTile.SIZE;
+        SamplingTable table = SamplingTable.get(image.getWidth(), image.getHeight(), width, height, mode, filter);
+        Resampler.resample(image, table, temporal.beginFrame(columns, rows), width, height);
+        return temporal.finishFrame(quantizer, columns, rows, ditherer, ditherMode);
+    }
+
+    /**
+     * Forgets the previous frame so the next one is quantized in full.
+     */
+    public synchronized void reset() {
+        temporal.reset();
+    }
+}
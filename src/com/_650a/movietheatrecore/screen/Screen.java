@@ -12,6 +12,7 @@ import java.net.URL;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Enumeration;
 import java.util.HashSet;
 import java.util.List;
@@ -39,7 +40,6 @@ import org.bukkit.entity.EntityType;
 import org.bukkit.entity.ItemFrame;
 import org.bukkit.entity.Player;
 import org.bukkit.map.MapView;
-import org.bukkit.scheduler.BukkitTask;
 
 import com.google.common.io.Files;
 
@@ -60,11 +60,17 @@ import com._650a.movietheatrecore.server.Server;
 import com._650a.movietheatrecore.stream.Stream;
 import com._650a.movietheatrecore.util.ImageUtil;
 import com._650a.movietheatrecore.video.Video;
+import com._650a.movietheatrecore.video.data.FrameManifest;
 import com._650a.movietheatrecore.video.data.VideoData;
+import com._650a.movietheatrecore.video.data.cache.FrameStore;
 import com._650a.movietheatrecore.video.instance.VideoInstance;
 import com._650a.movietheatrecore.tasks.TaskSyncLoadScreens;
 import com._650a.movietheatrecore.util.FacingLocation;
+import com._650a.movietheatrecore.render.DetailBand;
+import com._650a.movietheatrecore.render.DitherMode;
 import com._650a.movietheatrecore.render.ScalingMode;
+import com._650a.movietheatrecore.playback.RenderExecutor;
+import com._650a.movietheatrecore.playback.RenderPriority;
 
 /** 
 * The Screen class is essential in the good functioning of things, its used
@@ -87,6 +93,7 @@ public class Screen {
 
 	private final Main plugin = Main.getPlugin(Main.class);
 	private Server server;
+	private RenderExecutor.Lane renderLane;
 	
 	private final Configuration configuration = new Configuration();
 	private final ItemStacks itemStacks = new ItemStacks();
@@ -97,6 +104,9 @@ public class Screen {
 	private UUID uuid;
 	
 	private ScreenSettings settings;
+	private volatile ScalingMode scaleMode;
+	private volatile DitherMode ditherMode;
+	private volatile List<DetailBand> detailBands;
 	private int id;
 	
 	private Video video;
@@ -107,6 +117,8 @@ public class Screen {
 	private VideoInstance videoInstance;
 	
 	private boolean compressed = false;
+	private FrameStore frameStore;
+	private FrameManifest frameManifest;
 	private boolean sent = false;
 	
 	private long start;
@@ -226,6 +238,7 @@ public class Screen {
 		fileconfiguration.set("screen.video.instance", "none");
 		fileconfiguration.set("screen.last-frame", 0);
 		fileconfiguration.set("screen.scale-mode", ScalingMode.FIT.name());
+		fileconfiguration.set("screen.dither-mode", DitherMode.NONE.name());
 		fileconfiguration.set("screen.contents-folder", new File(configuration.getScreensFolder() + "/" + uuid + "/contents/").getAbsolutePath());
 		fileconfiguration.set("screen.parts-folder", new File(configuration.getScreensFolder() + "/" + uuid + "/parts/").getAbsolutePath());
 		fileconfiguration.set("screen.parts-count", width*height);
@@ -652,16 +665,28 @@ public class Screen {
 		return getConfigFile().getString("screen.thumbnail-path");
 	}
 
+	/**
+	* Gets how frames are fitted to the screen. The value is read once from the
+	* screen file and cached, since it is needed on every frame.
+	* 
+	* @return The screen scaling mode, {@link ScalingMode#FIT} if missing or invalid.
+	*/
+	
 	public ScalingMode getScaleMode() {
-		String raw = getConfigFile().getString("screen.scale-mode");
-		if(raw == null || raw.isEmpty()) {
-			return ScalingMode.FIT;
-		}
-		try {
-			return ScalingMode.valueOf(raw.toUpperCase());
-		}catch (IllegalArgumentException ignored) {
-			return ScalingMode.FIT;
+		ScalingMode mode = scaleMode;
+		if(mode == null) {
+			String raw = getConfigFile().getString("screen.scale-mode");
+			mode = ScalingMode.FIT;
+			if(raw != null && !raw.isEmpty()) {
+				try {
+					mode = ScalingMode.valueOf(raw.toUpperCase());
+				}catch (IllegalArgumentException ignored) {
+					mode = ScalingMode.FIT;
+				}
+			}
+			scaleMode = mode;
 		}
+		return mode;
 	}
 
 	public void setScaleMode(ScalingMode mode) {
@@ -673,6 +698,87 @@ public class Screen {
 		}catch (IOException | InvalidConfigurationException e) {
 			e.printStackTrace();
 		}
+		scaleMode = mode;
+	}
+
+	/**
+	* Gets the dithering applied to frames before they are converted to map colors.
+	* Like {@link #getScaleMode()}, the value is read once from the screen file and cached.
+	* 
+	* @return The screen dither mode, {@link DitherMode#NONE} if missing or invalid.
+	*/
+	
+	public DitherMode getDitherMode() {
+		DitherMode mode = ditherMode;
+		if(mode == null) {
+			String raw = getConfigFile().getString("screen.dither-mode");
+			mode = DitherMode.NONE;
+			if(raw != null && !raw.isEmpty()) {
+				try {
+					mode = DitherMode.valueOf(raw.toUpperCase().replace('-', '_'));
+				}catch (IllegalArgumentException ignored) {
+					mode = DitherMode.NONE;
+				}
+			}
+			ditherMode = mode;
+		}
+		return mode;
+	}
+
+	public void setDitherMode(DitherMode mode) {
+		fileconfiguration = new YamlConfiguration();
+		try {
+			fileconfiguration.load(file);
+			fileconfiguration.set("screen.dither-mode", mode.name());
+			fileconfiguration.save(file);
+		}catch (IOException | InvalidConfigurationException e) {
+			e.printStackTrace();
+		}
+		ditherMode = mode;
+	}
+
+	/**
+	* Gets the levels of detail for viewers further away from the screen, nearest
+	* first. Viewers closer than the first band get every frame at full resolution.
+	* Like {@link #getScaleMode()}, the value is read once from the screen file and cached.
+	* 
+	* @return The screen detail bands, empty if missing. Invalid entries are left out.
+	*/
+	
+	public List<DetailBand> getDetailBands() {
+		List<DetailBand> bands = detailBands;
+		if(bands == null) {
+			List<DetailBand> parsed = new ArrayList<>();
+			for(String raw : getConfigFile().getStringList("screen.lod-bands")) {
+				try {
+					parsed.add(DetailBand.parse(raw));
+				}catch (IllegalArgumentException e) {
+					plugin.getLogger().warning("[MovieTheatreCore]: Ignoring detail band of screen " + getName() + ": " + e.getMessage());
+				}
+			}
+			parsed.sort(Comparator.comparingDouble(DetailBand::distance));
+			bands = List.copyOf(parsed);
+			detailBands = bands;
+		}
+		return bands;
+	}
+
+	public void setDetailBands(List<DetailBand> bands) {
+		List<DetailBand> sorted = new ArrayList<>(bands);
+		sorted.sort(Comparator.comparingDouble(DetailBand::distance));
+		List<String> raw = new ArrayList<>();
+		for(DetailBand band : sorted) {
+			raw.add(band.toString());
+		}
+		fileconfiguration = new YamlConfiguration();
+		try {
+			fileconfiguration.load(file);
+			fileconfiguration.set("screen.lod-bands", raw.isEmpty() ? null : raw);
+			fileconfiguration.save(file);
+		}catch (IOException | InvalidConfigurationException e) {
+			e.printStackTrace();
+		}
+		detailBands = List.copyOf(sorted);
 	}
 	
 	/**
@@ -1174,9 +1280,21 @@ public class Screen {
 	public void display() {
 		
 		plugin.getTasks().add(tasks[0]); plugin.getTasks().add(tasks[1]);
+		if(renderLane != null) renderLane.close();
+		renderLane = plugin.getRenderExecutor().open(RenderPriority.NORMAL);
 		loadThumbnail();
 		
 		streamed = video.isStreamed();
+		frameManifest = video.getFrameManifest();
+		
+		frameStore = null;
+		if(FrameStore.isComplete(videoData.getFrameStoreFile(), video.getTotalFrames())) {
+			try {
+				frameStore = FrameStore.open(videoData.getFrameStoreFile());
+			}catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
 		
 		File pack = new File(videoData.getResourcePacksFolder(), video.getName() + ".zip");
 		
@@ -1324,19 +1442,17 @@ public class Screen {
 
 								if((settings.count < settings.total || streamed) && settings.fps < settings.framerate) {
 																		
-									BukkitTask[] bukkitTask = {null};
-									bukkitTask[0] = Bukkit.getScheduler().runTaskAsynchronously(plugin, new Runnable() {
+									int count = settings.count;
+									renderLane.execute(new Runnable() {
 																			
 										@Override
 										public void run() {
-																										
-											plugin.getTasks().add(bukkitTask[0].getTaskId());
 											
 											if(settings.realtimeRendering) {
 																								
 												try {
 													
-													File file = new File(video.getFramesFolder(), settings.count + settings.framesExtension);
+													File file = streamed ? new File(video.getFramesFolder(), count + video.getFramesExtension()) : frameManifest.getFrameFile(count);
 													
 													if(file.exists()) {
 														BufferedImage frame = ImageIO.read(file);
@@ -1362,13 +1478,27 @@ public class Screen {
 												}catch (IOException e) {
 													e.printStackTrace();
 												}
+											}else if(frameStore != null) {
+												FrameStore store = frameStore;
+												
+												for(int j = 0; j < ids.length; j++) {
+													byte[] buffer = store.getTile(count, j);
+													if(buffer == null) continue;
+													
+													for(Entity entity : entities) {
+														if(entity.getType() == EntityType.PLAYER) {
+															Player player = (Player)entity;
+															if(player.isOnline()) plugin.getMapUtil().update(player, ids[j], buffer);
+														}
+													}
+												}
 											}else {
 												byte[] buffer = null;
 											    ZipFile zipFile = null; Enumeration<?extends ZipEntry> entries = null;
 												
 											    if(compressed) {
 											        try {
-														zipFile = new ZipFile(videoData.getCacheFolder() + "/" + String.valueOf(settings.count) + ".zip");
+														zipFile = new ZipFile(videoData.getCacheFolder() + "/" + String.valueOf(count) + ".zip");
 													}catch (IOException e) {
 														e.printStackTrace();
 													}
@@ -1379,7 +1509,7 @@ public class Screen {
 													try {
 														
 														if(!compressed) {
-															buffer = FileUtils.readFileToByteArray(new File(videoData.getCacheFolder() + "/" + settings.count + "/", String.valueOf(j) + ".cache"));
+															buffer = FileUtils.readFileToByteArray(new File(videoData.getCacheFolder() + "/" + count + "/", String.valueOf(j) + ".cache"));
 														}else {
 															if(entries.hasMoreElements()) {
 														        InputStream stream = zipFile.getInputStream(entries.nextElement());
@@ -1449,6 +1579,11 @@ public class Screen {
 		
 		Bukkit.getScheduler().cancelTask(tasks[0]);
 		Bukkit.getScheduler().cancelTask(tasks[1]);
+		if(renderLane != null) {
+			renderLane.close();
+			renderLane = null;
+		}
+		frameStore = null;
 		
 		running = false;
 		loadThumbnail();
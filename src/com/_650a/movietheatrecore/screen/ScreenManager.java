@@ -23,6 +23,7 @@ import org.bukkit.util.Vector;
 import com._650a.movietheatrecore.Main;
 import com._650a.movietheatrecore.configuration.Configuration;
 import com._650a.movietheatrecore.items.ItemStacks;
+import com._650a.movietheatrecore.render.DitherMode;
 import com._650a.movietheatrecore.render.ScalingMode;
 import com._650a.movietheatrecore.screen.part.Part;
 import com._650a.movietheatrecore.util.FacingLocation;
@@ -78,6 +79,7 @@ public class ScreenManager {
             }
 
             ensureScaleMode(screen);
+            ensureDitherMode(screen);
 
             String entityName = configuration.glowing_screen_frames_support() ? "glow_item_frame" : "item_frame";
 
@@ -168,6 +170,12 @@ public class ScreenManager {
         }
     }
 
+    private void ensureDitherMode(Screen screen) {
+        if (screen.getConfigFile().getString("screen.dither-mode") == null) {
+            screen.setDitherMode(DitherMode.NONE);
+        }
+    }
+
     public Map<UUID, Screen> getScreens() {
         return screens;
     }
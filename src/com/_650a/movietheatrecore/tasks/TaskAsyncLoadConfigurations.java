@@ -74,10 +74,26 @@ public class TaskAsyncLoadConfigurations extends BukkitRunnable {
 
 					Video video = new Video(videoConfiguration);
 					
+					try {
+						video.indexFrames();
+					}catch (IOException e) {
+						Bukkit.getLogger().warning("[MovieTheatreCore]: Failed to index the frames of " + video.getName() + ": " + e.getMessage());
+					}
+					
 					if(video.isLoaded()) {
 						
 						VideoData videoData = video.getVideoData();
 						
+						if(!videoData.getRealTimeRendering()) {
+							try {
+								if(videoData.migrateLegacyCache()) {
+									Bukkit.getLogger().info("[MovieTheatreCore]: Moved the maps cache of " + video.getName() + " into " + videoData.getFrameStoreFile().getName() + ".");
+								}
+							}catch (IOException e) {
+								Bukkit.getLogger().warning("[MovieTheatreCore]: Failed to migrate the maps cache of " + video.getName() + ": " + e.getMessage());
+							}
+						}
+						
 						Bukkit.getScheduler().runTask(plugin, new Runnable() {
 							@Override
 							public void run() {
@@ -4,13 +4,7 @@ import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.io.FileOutputStream;
-import java.util.zip.ZipOutputStream;
 import java.util.Arrays;
-import java.util.stream.Stream;
-import java.util.zip.ZipEntry;
 
 import javax.imageio.ImageIO;
 
@@ -28,13 +22,15 @@ import com._650a.movietheatrecore.image.renderer.ImageRenderer;
 import com._650a.movietheatrecore.map.colors.MapColorPalette;
 import com._650a.movietheatrecore.notification.Notification;
 import com._650a.movietheatrecore.notification.NotificationType;
+import com._650a.movietheatrecore.playback.IngestProgress;
 import com._650a.movietheatrecore.resourcepack.ResourcePack;
 import com._650a.movietheatrecore.system.SystemType;
 import com._650a.movietheatrecore.util.GIFUtil;
 import com._650a.movietheatrecore.util.ImageUtil;
 import com._650a.movietheatrecore.video.Video;
+import com._650a.movietheatrecore.video.data.FrameManifest;
 import com._650a.movietheatrecore.video.data.VideoData;
-import com._650a.movietheatrecore.video.data.cache.Cache;
+import com._650a.movietheatrecore.video.data.cache.FrameStore;
 import com._650a.movietheatrecore.util.ProgressBar;
 
 /** 
@@ -53,8 +49,10 @@ public class TaskAsyncLoadVideo extends BukkitRunnable {
 	
 	private final Main plugin = Main.getPlugin(Main.class);
 	private final Configuration configuration = new Configuration();
+	private static final long COLLECT_INTERVAL_MILLIS = 100L;
 		
     private Video video;
+    private final IngestProgress ingest;
     
 	/**
 	* Constructor for TaskAsyncLoadVideo class, creates an TaskAsyncLoadVideo variable
@@ -65,6 +63,7 @@ public class TaskAsyncLoadVideo extends BukkitRunnable {
     
     public TaskAsyncLoadVideo(Video video) {
         this.video = video;
+        this.ingest = plugin.getPlaybackManager() == null ? null : plugin.getPlaybackManager().beginIngest(video.getName(), video.getTotalFrames());
     }
     
 	/**
@@ -85,15 +84,21 @@ public class TaskAsyncLoadVideo extends BukkitRunnable {
 	        //new Notification(NotificationType.VIDEO_PROCESSING_FRAMES_STARTING, true).send(new Group("movietheatrecore.permission.admin"), new String[] { video.getName() }, true);
 	        //new Notification(NotificationType.VIDEO_PROCESSING_ESTIMATED_TIME, false).send(new Group("movietheatrecore.permission.admin"), new String[] { String.valueOf(Math.round((video.getVideoFile().length()*Math.pow(10, -6)))) }, true);
 	        
-	        String framesExtension = video.getFramesExtension();
-	        int framesCount = video.getFramesFolder().listFiles().length;
+	        FrameManifest frames = video.getFrameManifest();
+	        try {
+	        	video.indexFrames();
+	        }catch (IOException e) {
+	        	plugin.getLogger().warning("[MovieTheatreCore]: Failed to index the frames of " + video.getName() + ": " + e.getMessage());
+	        }
+	        int framesCount = video.countFrames();
 	        if (configuration.debug_render()) {
 	        	plugin.getLogger().info("[MovieTheatreCore]: Preparing frames for video " + video.getName() + " (" + framesCount + "/" + video.getTotalFrames() + ").");
 	        }
 	                
 	        VideoData videoData = new VideoData(video); 
+	        boolean framesExtracted = framesCount >= video.getTotalFrames();
 	        
-	        if(framesCount < video.getTotalFrames()) {
+	        if(!framesExtracted) {
 	        	
 	        	if(com._650a.movietheatrecore.system.System.getSystemType().equals(SystemType.LINUX) || com._650a.movietheatrecore.system.System.getSystemType().equals(SystemType.OTHER)) {
 	        		if(configuration.plugin_force_permissions()) {
@@ -131,33 +136,44 @@ public class TaskAsyncLoadVideo extends BukkitRunnable {
 	    			int task = Bukkit.getScheduler().scheduleSyncRepeatingTask(plugin, new Runnable() {
 						@Override
 						public void run() {
-							try (Stream<Path> files = Files.list(video.getFramesFolder().toPath())) {
-							    progressBar.setProgress((int)files.count());
-							    progressBar.send(group, progressBar.build(), net.md_5.bungee.api.ChatColor.GRAY + " (1/3)");
-							}catch (IOException e) {
-								e.printStackTrace();
-							}
+						    progressBar.setProgress(frames.getCount());
+						    progressBar.send(group, progressBar.build(), net.md_5.bungee.api.ChatColor.GRAY + " (1/3)");
 						}
 	    			 }, 0L, 0L);
-	    			process.waitFor();
+	    			
+	    			// Frames are moved into their shard and recorded as ffmpeg
+	    			// writes them, rather than counted by listing the folder.
+	    			boolean sharded = !video.isStreamed();
+	    			int next = framesCount;
+	    			while(sharded && process.isAlive()) {
+	    				next = frames.collect(next, false);
+	    				if(ingest != null) ingest.update(frames.getContiguousCount(), System.nanoTime());
+	    				Thread.sleep(COLLECT_INTERVAL_MILLIS);
+	    			}
+	    			int exit = process.waitFor();
+	    			if(sharded) frames.collect(next, true);
 	    			Bukkit.getScheduler().cancelTask(task);
+	    			framesExtracted = exit == 0;
+	    			if(!framesExtracted) {
+	    				plugin.getLogger().warning("[MovieTheatreCore]: ffmpeg exited with code " + exit + " while extracting the frames of " + video.getName() + ".");
+	    			}
 	    		}catch (IOException | InterruptedException e) {
 	    			e.printStackTrace();
 	    		}
 	            
 	            if(configuration.verify_files_on_load()) {
 	            	
-	            	int count = 0;
+	            	for(FrameManifest.Range range : frames.verify()) {
+	            		plugin.getLogger().warning("[MovieTheatreCore]: Frames " + range.start() + " to " + (range.end() - 1) + " of " + video.getName() + " are missing or don't match their checksum.");
+	            	}
+	            	
+	            	int count = 1;
 	            	int total = video.getTotalFrames();
 	            	
 	                while(count < total) {
-	                	
-	                	File previous = new File(video.getFramesFolder(), String.valueOf(count-1) + "." + video.getFramesExtension());
-	                	File next = new File(video.getFramesFolder(), count + "." + video.getFramesExtension());
-	                	
-	                	if(!next.exists() && previous.exists()) {
+	                	if(!frames.has(count) && frames.has(count - 1)) {
 	    					try {
-	    						ImageIO.write(ImageIO.read(previous), video.getFramesExtension().replace(".", ""), next);
+	    						frames.copy(count - 1, count);
 	    					}catch (IOException e) {
 	    						e.printStackTrace();
 	    					}
@@ -167,6 +183,9 @@ public class TaskAsyncLoadVideo extends BukkitRunnable {
 	            }
 	        }
 	        
+	        // Only a clean extraction vouches for every frame.
+	        if(ingest != null && framesExtracted) ingest.complete();
+	        
 	        new Notification(NotificationType.VIDEO_PROCESSING_FRAMES_FINISHED, true).send(new Group("movietheatrecore.permission.admin"), new String[] { video.getName() }, true);        
 	        //new Notification(NotificationType.VIDEO_PROCESSING_AUDIO_STARTING, false).send(new Group("movietheatrecore.permission.admin"), new String[] { video.getName() }, true);
 	        
@@ -238,14 +257,14 @@ public class TaskAsyncLoadVideo extends BukkitRunnable {
 	            	}
 	            }else {
 	            	try {
-	    				GIFUtil.split(video.getVideoFile(), video.getFramesFolder());
+	    				GIFUtil.split(video.getVideoFile(), frames);
 	    			}catch (IOException e) {
 	    				e.printStackTrace();
 	    			}
 	            }
 	        }
 	        if (configuration.debug_render()) {
-	        	int extracted = video.getFramesFolder().listFiles().length;
+	        	int extracted = video.countFrames();
 	        	plugin.getLogger().info("[MovieTheatreCore]: Extracted " + extracted + " frames for video " + video.getName() + ".");
 	        }
 	        
@@ -286,8 +305,8 @@ public class TaskAsyncLoadVideo extends BukkitRunnable {
 	    			    
 	    			    for(int i = 0; i < total; i++) {
 	    			    	
-	    			    	BufferedImage original = ImageIO.read(new File(video.getFramesFolder(), i + framesExtension));
-	    			    	BufferedImage next = ImageIO.read(new File(video.getFramesFolder(), (i+1) + framesExtension));
+	    			    	BufferedImage original = ImageIO.read(frames.getFrameFile(i));
+	    			    	BufferedImage next = ImageIO.read(frames.getFrameFile(i+1));
 	    			    			    			    	
 	    			    	if(ImageUtil.getResemblance(original, next) > max) {
 	    			    		fileWriter.write((i+1) + "\n");
@@ -303,86 +322,47 @@ public class TaskAsyncLoadVideo extends BukkitRunnable {
 	        if(!videoData.getRealTimeRendering()) {
 	        	
 	        	int total = video.getTotalFrames();
-	        	int count = videoData.getCacheFolder().listFiles().length;
-	        	
-	        	ImageRenderer imageRenderer;
 	        	
 				Group group = new Group("movietheatrecore.permission.admin");
 	        	
-	        	while(count < total) {
-	    			try {
-	    				
-	    				File frame = new File(video.getFramesFolder(), count + framesExtension);
-	    				
-	    				if(frame.exists()) {
-	    					
-		    				imageRenderer = new ImageRenderer(ImageIO.read(frame));
-		    	    		imageRenderer.calculateDimensions();
-		    	    		imageRenderer.splitImages();
-		    				
-		    	    		if(!video.isCacheCompressed()) {
-		    	    			
-		        				File file = new File(videoData.getCacheFolder(), String.valueOf(count));
-		        				file.mkdir();
-		        	    		
-		        				for(int j = 0; j < imageRenderer.getBufferedImages().length; j++) {
-		        					new Cache(new File(file, String.valueOf(j) + ".cache")).createCache(imageRenderer.getBufferedImages()[j]);
-		        				}
-		    	    		}else {
-		    	    			
-		    	    			FileOutputStream fout = new FileOutputStream(video.getVideoData().getCacheFolder() + "/" + String.valueOf(count) + ".zip");
-		    	    			ZipOutputStream zout = new ZipOutputStream(fout);
-		    	    			
-		    	    			for(int j = 0; j < imageRenderer.getBufferedImages().length; j++) {
-		    	    				
-		    	    			    ZipEntry ze = new ZipEntry(String.valueOf(j) + ".cache");
-		    	    			    zout.putNextEntry(ze);
-		    	    			    zout.write(MapColorPalette.convertImage(imageRenderer.getBufferedImages()[j]));
-		    	    			    zout.closeEntry();
-		    	    			}
-		    	    			zout.close();
-		    	    			fout.close();
-		    	    		}
-		    	    		
-		                	ProgressBar progressBar = new ProgressBar(count, total, video.getName(),
-		                			'▉', net.md_5.bungee.api.ChatColor.RED, net.md_5.bungee.api.ChatColor.GREEN);
-		    	    		
-		                	progressBar.setProgress(count);
-		                	progressBar.send(group, progressBar.build(), net.md_5.bungee.api.ChatColor.GRAY + "(3/3)");
-	    				}
-	                	
-	    				count++;
-	    			}catch (IOException | InvalidConfigurationException e) {
-	    				e.printStackTrace();
-	    			}
-	        	}
-	        	
-	        	if(configuration.verify_files_on_load()) {
-	        		
-	            	count = 0;
-	            	
-	            	while(count < total) {
-	        			try {
+	        	try {
+	        		if(!videoData.migrateLegacyCache() && !FrameStore.isComplete(videoData.getFrameStoreFile(), total)) {
+	        			try (FrameStore.Writer writer = new FrameStore.Writer(videoData.getFrameStoreFile(), total)) {
 	        				
-	        				File previous = new File(videoData.getCacheFolder(), String.valueOf(count-1));
-	        				File next = new File(videoData.getCacheFolder(), String.valueOf(count));
+	        				ImageRenderer imageRenderer;
+	        				byte[][] tiles = null;
 	        				
-	        				if(!next.exists() && previous.exists()) {
+	        				for(int count = 0; count < total; count++) {
+	        					
+	        					if(!frames.has(count)) {
+	        						writer.skip();
+	        						continue;
+	        					}
+	        					
+	        					imageRenderer = new ImageRenderer(ImageIO.read(frames.getFrameFile(count)));
+	        					imageRenderer.calculateDimensions();
+	        					imageRenderer.splitImages();
+	        					
+	        					BufferedImage[] images = imageRenderer.getBufferedImages();
+	        					if(tiles == null || tiles.length != images.length) {
+	        						tiles = new byte[images.length][FrameStore.TILE_BYTES];
+	        					}
+	        					for(int j = 0; j < images.length; j++) {
+	        						MapColorPalette.convertImage(images[j], tiles[j]);
+	        					}
+	        					writer.append(tiles);
 	        					
-	            				imageRenderer = new ImageRenderer(ImageIO.read(new File(video.getFramesFolder(), String.valueOf(count-1) + framesExtension)));
-	            	    		imageRenderer.calculateDimensions();
-	            	    		imageRenderer.splitImages();
+	        					ProgressBar progressBar = new ProgressBar(count, total, video.getName(),
+	        							'▉', net.md_5.bungee.api.ChatColor.RED, net.md_5.bungee.api.ChatColor.GREEN);
 	        					
-	            				for(int j = 0; j < imageRenderer.getBufferedImages().length; j++) {
-	            					File cache = new File(next, String.valueOf(j) + ".cache");
-	            					if(cache.exists()) new Cache(cache).createCache(imageRenderer.getBufferedImages()[j]);
-	            				}        	    		
+	        					progressBar.setProgress(count);
+	        					progressBar.send(group, progressBar.build(), net.md_5.bungee.api.ChatColor.GRAY + "(3/3)");
 	        				}
-	        				count++;
-	        			}catch (IOException | InvalidConfigurationException e) {
-	        				e.printStackTrace();
+	        				writer.commit();
 	        			}
-	            	}
+	        		}
+	        	}catch (IOException e) {
+	        		e.printStackTrace();
 	        	}
 	    		
 	        	try {
@@ -410,6 +390,8 @@ public class TaskAsyncLoadVideo extends BukkitRunnable {
 		    Bukkit.getServer().getConsoleSender().sendMessage(ChatColor.DARK_GRAY + "[MovieTheatreCore]: " + ChatColor.GRAY + video.getName() + " successfully loaded.");
 		}catch (Exception e) {
 			run();
+		}finally {
+			if(ingest != null) plugin.getPlaybackManager().endIngest(video.getName(), ingest);
 		}
     }
 }
@@ -20,6 +20,7 @@ import com._650a.movietheatrecore.media.MediaPlayback;
 import com._650a.movietheatrecore.playback.PlaybackManager;
 import com._650a.movietheatrecore.playback.PlaybackOptions;
 import com._650a.movietheatrecore.playback.PlaybackSession;
+import com._650a.movietheatrecore.playback.RenderPriority;
 import com._650a.movietheatrecore.screen.Screen;
 import com._650a.movietheatrecore.screen.ScreenState;
 import com._650a.movietheatrecore.util.Scheduler;
@@ -80,13 +81,13 @@ public class ShowInstance {
         state = ShowState.STARTING;
         startTime = LocalDateTime.now();
 
-        PlaybackOptions baseOptions = playback.getOptions();
+        PlaybackOptions baseOptions = playback.getOptions().withPriority(RenderPriority.SHOW);
         boolean audioAssigned = false;
 
         for (Screen screen : screens) {
             PlaybackOptions options = baseOptions;
             if (audioAssigned) {
-                options = new PlaybackOptions(false, baseOptions.mediaEntry(), null);
+                options = new PlaybackOptions(false, baseOptions.mediaEntry(), null, RenderPriority.SHOW);
             }
             PlaybackSession session = playbackManager.start(screen, playback.getVideo(), options);
             if (!audioAssigned && baseOptions.allowAudio()) {
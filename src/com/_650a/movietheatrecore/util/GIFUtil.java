@@ -9,11 +9,12 @@ import javax.imageio.ImageIO;
 import javax.imageio.ImageReader;
 
 import com._650a.movietheatrecore.tasks.TaskAsyncLoadVideo;
+import com._650a.movietheatrecore.video.data.FrameManifest;
 
 /** 
 * The GIFUtil class serves as an utility class in order to perform video processing on
 * them, see {@link TaskAsyncLoadVideo}. For the moment it only contains two static methods,
-* see {@link #split(File, File)} and {@link #makeImageForIndex(ImageReader, int, BufferedImage)}.
+* see {@link #split(File, FrameManifest)} and {@link #makeImageForIndex(ImageReader, int, BufferedImage)}.
 * more methods will be added further.
 * 
 * @author  hwic
@@ -29,23 +30,32 @@ public class GIFUtil {
 	* 
 	* @throws IOException When failed or interrupted I/O operations occurs.
 	* @param file The GIF file to be splitted.
-	* @param destination The folder that will be containing the splitted images.
+	* @param destination The index of the frames folder that will be containing the splitted images.
 	*/
 	
-	public static void split(File file, File destination) throws IOException {
+	public static void split(File file, FrameManifest destination) throws IOException {
 		
 	    ImageReader reader = ImageIO.getImageReadersBySuffix("gif").next();
 	    reader.setInput(ImageIO.createImageInputStream(new FileInputStream(file)), false);
 	    
+	    destination.index();
+	    
 	    BufferedImage lastImage = reader.read(0);
 	    
-	    ImageIO.write(lastImage, "png", new File(destination, destination.listFiles().length + ".png"));
+	    write(lastImage, destination, 0);
 
-	    for(int i = destination.listFiles().length; i < reader.getNumImages(true); i++) {
+	    for(int i = 1; i < reader.getNumImages(true); i++) {
 	        BufferedImage image = makeImageForIndex(reader, i, lastImage);
-	        ImageIO.write(image, "png", new File(destination, destination.listFiles().length + ".png"));
+	        write(image, destination, i);
 	    }
 	}
+	
+	private static void write(BufferedImage image, FrameManifest destination, int index) throws IOException {
+		File frame = destination.getFrameFile(index);
+		frame.getParentFile().mkdirs();
+		ImageIO.write(image, "png", frame);
+		destination.add(index);
+	}
 		
 	/** 
 	* Fills the transparent pixels of the current frame with the last non-transparent pixel of
@@ -23,6 +23,71 @@ public interface MapUtil {
 	
 	public abstract void update(Player player, int id, byte[] buffer);
 	
+    /**
+     * Performs a map-id update for a certain player, sending only the given
+     * rectangle of the new map-pixels when the server version allows it.
+     * 
+     * <p>The player must already have the rest of the map, the client only
+     * patches the rectangle. Implementations that cannot send partial updates
+     * send the whole map.
+     * 
+     * @param player The player who will receive the update.
+     * @param id The map-id to be updated.
+     * @param buffer The new map-pixels, all 128x128 of them.
+     * @param x Left column of the changed rectangle.
+     * @param y Top row of the changed rectangle.
+     * @param width Width of the changed rectangle.
+     * @param height Height of the changed rectangle.
+     */
+	
+	public default void update(Player player, int id, byte[] buffer, int x, int y, int width, int height) {
+		update(player, id, buffer);
+	}
+	
+    /**
+     * Starts collecting the map updates of one frame for a player, instead of
+     * sending each on its own, until {@link #endFrame(Player)} is called from
+     * the same thread.
+     * 
+     * @param player The player who will receive the frame.
+     */
+	
+	public default void beginFrame(Player player) {
+	}
+	
+    /**
+     * Sends the map updates collected since {@link #beginFrame(Player)},
+     * all together and with a single flush where the server version allows it.
+     * 
+     * @param player The player who will receive the frame.
+     */
+	
+	public default void endFrame(Player player) {
+	}
+	
+    /**
+     * Gets how far behind a player's connection is.
+     * 
+     * @param player The player whose connection is checked.
+     * @return Bytes written to the connection and not sent yet, {@link Long#MAX_VALUE}
+     *         if the connection refuses more writes for now, or -1 if unknown.
+     */
+	
+	public default long getPendingBytes(Player player) {
+		return -1L;
+	}
+	
+    /**
+     * Forgets what was set up or cached for maps that go back to being
+     * rendered by the server, like a screen's thumbnail once playback stops,
+     * so the next updates set them up again.
+     * 
+     * @param ids The map-ids given back.
+     */
+	
+	public default void release(int[] ids) {
+	}
+	
     /**
      * Gets a {@link MapView} according to the server running version.
      * 
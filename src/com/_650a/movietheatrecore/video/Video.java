@@ -36,6 +36,7 @@ import com._650a.movietheatrecore.system.SystemType;
 import com._650a.movietheatrecore.tasks.TaskAsyncLoadConfigurations;
 import com._650a.movietheatrecore.tasks.TaskAsyncLoadVideo;
 import com._650a.movietheatrecore.util.Format;
+import com._650a.movietheatrecore.video.data.FrameManifest;
 import com._650a.movietheatrecore.video.data.VideoData;
 import com._650a.movietheatrecore.video.data.cache.Cache;
 import com._650a.movietheatrecore.video.instance.VideoInstance;
@@ -813,6 +814,8 @@ public class Video {
 		getVideoData().getThumbnail().delete();
 		
 		FileUtils.deleteDirectory(getFramesFolder());
+		FrameManifest.forget(getFramesFolder());
+		if(plugin.getRenditionCache() != null) plugin.getRenditionCache().delete(getName());
 		FileUtils.deleteDirectory(getDataFolder());
 		FileUtils.deleteDirectory(getAudioFolder());
 
@@ -850,6 +853,8 @@ public class Video {
 		
 		getVideoFile().delete();
 		deleteDirectory(file.getParentFile());
+		FrameManifest.forget(file.getParentFile());
+		if(plugin.getRenditionCache() != null) plugin.getRenditionCache().delete(getName());
 		
 		new TaskAsyncLoadConfigurations().runTaskAsynchronously(plugin);
 	}
@@ -887,20 +892,16 @@ public class Video {
 		
 		if(source != null) return true;
 		
-		if(getFramesFolder().listFiles().length >= getTotalFrames()) {
+		if(countFrames() >= getTotalFrames()) {
 			if(getFormat().equalsIgnoreCase("gif") || getFormat().equalsIgnoreCase("m3u8")) {				
 				if(!getVideoData().getRealTimeRendering()) {
-					if(getVideoData().getCacheFolder().listFiles().length >= getTotalFrames()) {
-						return true;
-					}return false;
+					return getVideoData().hasCompleteCache();
 				}return true;
 			}
 			
 			if(getAudioFolder().listFiles().length > 0) {
 				if(!getVideoData().getRealTimeRendering()) {
-					if(getVideoData().getCacheFolder().listFiles().length >= getTotalFrames()) {
-						return true;
-					}return false;
+					return getVideoData().hasCompleteCache();
 				}return true;
 			}
 		}
@@ -990,6 +991,57 @@ public class Video {
 		return new File(file.getParent() + "/frames/");
 	}
 	
+	/**
+	* Gets the index of the video frames, see {@link FrameManifest}.
+	* 
+	* @return The frame manifest of the video.
+	*/
+	
+	public FrameManifest getFrameManifest() {
+		return FrameManifest.of(getFramesFolder(), getFramesExtension());
+	}
+	
+	/**
+	* Gets the file of a frame, in its shard once the frames are indexed.
+	* 
+	* @param index The frame number, from 0.
+	* @return The frame file.
+	*/
+	
+	public File getFrameFile(int index) {
+		if(isStreamed()) return new File(getFramesFolder(), index + getFramesExtension());
+		return getFrameManifest().getFrameFile(index);
+	}
+	
+	/**
+	* Indexes the video frames if they have no manifest yet, moving them into
+	* shards, see {@link FrameManifest#index()}. Streamed videos keep their flat
+	* frames folder.
+	*  
+	* <p> <strong>Note: </strong> This method shall be called asynchronously from the main
+	* thread, since it may list and move every frame.
+	* 
+	* @throws IOException When failed or interrupted I/O operations occurs.
+	*/
+	
+	public void indexFrames() throws IOException {
+		if(!isStreamed()) getFrameManifest().index();
+	}
+	
+	/**
+	* Counts the extracted frames, from the manifest once indexed, otherwise
+	* by listing the frames folder.
+	* 
+	* @return The number of extracted frames.
+	*/
+	
+	public int countFrames() {
+		FrameManifest frames = getFrameManifest();
+		if(!isStreamed() && frames.isIndexed()) return frames.getCount();
+		String[] files = getFramesFolder().list();
+		return files == null ? 0 : files.length;
+	}
+	
 	
 	/**
 	* Gets the folder containing all audio files.
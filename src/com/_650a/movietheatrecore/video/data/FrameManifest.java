@@ -0,0 +1,358 @@
+package com._650a.movietheatrecore.video.data;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Index of the frame files of a video, so frames are counted and found
+ * without listing a folder that can hold hundreds of thousands of files.
+ *
+ * <p>The manifest is a small text file in the frames folder: a header line,
+ * then one line per range of frames added, with the first frame, the frame
+ * after the last, and a CRC32 of the range's files. Lines are only ever
+ * appended, so an interrupted write loses at most the last range, which is
+ * cut off the next time the manifest is read.
+ *
+ * <p>Indexed folders keep frames in shards of at most 1000 files, frame
+ * 1234 being {@code 00/01/1234.jpg}. Frames are still extracted into the
+ * frames folder itself and moved into their shard by {@link #collect}.
+ * Folders without a manifest, from earlier versions, keep their flat
+ * layout until {@link #index()} lists them once, moves their frames into
+ * shards and writes the manifest. Stream folders are never indexed, as
+ * their frames are written flat as they arrive.
+ *
+ * <p>There is one instance per frames folder, see {@link #of}.
+ */
+
+public final class FrameManifest {
+
+	public static final String FILE_NAME = "frames.manifest";
+
+	private static final String HEADER = "mtc-frames 1";
+	private static final int SHARD_FILES = 1000;
+	private static final int SHARD_FOLDERS = 100;
+	private static final Map<String, FrameManifest> MANIFESTS = new ConcurrentHashMap<>();
+
+	private final File folder;
+	private final String extension;
+	private final File file;
+	private final BitSet frames = new BitSet();
+	private final List<Range> ranges = new ArrayList<>();
+
+	private volatile boolean indexed;
+	private volatile int count;
+
+	private FrameManifest(File folder, String extension) {
+		this.folder = folder;
+		this.extension = extension;
+		this.file = new File(folder, FILE_NAME);
+	}
+
+	/**
+	 * A range of frames as recorded in the manifest.
+	 *
+	 * @param end The frame after the last one.
+	 */
+
+	public record Range(int start, int end, long checksum) {
+	}
+
+	/**
+	 * Gets the manifest of a frames folder, reading it the first time.
+	 *
+	 * @param extension Extension of the frame files, with its dot.
+	 */
+
+	public static FrameManifest of(File folder, String extension) {
+		return MANIFESTS.compute(folder.getAbsolutePath() + "|" + extension, (key, cached) -> {
+			// A folder deleted behind our back must not keep its frames.
+			if(cached != null && (!cached.indexed || cached.file.isFile())) return cached;
+			FrameManifest manifest = new FrameManifest(folder, extension);
+			manifest.read();
+			return manifest;
+		});
+	}
+
+	/**
+	 * Drops the manifests of {@code folder} and of the folders within it,
+	 * once they're deleted.
+	 */
+
+	public static void forget(File folder) {
+		String path = folder.getAbsolutePath();
+		MANIFESTS.keySet().removeIf(key -> key.startsWith(path + "|") || key.startsWith(path + File.separator));
+	}
+
+	/**
+	 * @return Where frame {@code index} of a sharded frames folder lives.
+	 */
+
+	public static File shardFile(File folder, int index, String extension) {
+		File shard = new File(folder, String.format(Locale.ROOT, "%02d/%02d", index / (SHARD_FILES * SHARD_FOLDERS), (index / SHARD_FILES) % SHARD_FOLDERS));
+		return new File(shard, index + extension);
+	}
+
+	public boolean isIndexed() {
+		return indexed;
+	}
+
+	/**
+	 * @return The file of frame {@code index}, in its shard once the folder
+	 *         is indexed, otherwise in the folder itself.
+	 */
+
+	public File getFrameFile(int index) {
+		return indexed ? shardFile(folder, index, extension) : new File(folder, index + extension);
+	}
+
+	/**
+	 * @return Frames recorded, 0 until the folder is indexed.
+	 */
+
+	public int getCount() {
+		return count;
+	}
+
+	/**
+	 * @return Frames recorded from the first one on without a gap.
+	 */
+
+	public synchronized int getContiguousCount() {
+		return frames.nextClearBit(0);
+	}
+
+	/**
+	 * @return Whether frame {@code index} is recorded, or for a folder not
+	 *         indexed, whether its file exists.
+	 */
+
+	public synchronized boolean has(int index) {
+		if(index < 0) return false;
+		return indexed ? frames.get(index) : new File(folder, index + extension).isFile();
+	}
+
+	public synchronized List<Range> getRanges() {
+		return new ArrayList<>(ranges);
+	}
+
+	/**
+	 * Indexes a folder that has no manifest yet: the one place frames are
+	 * found by listing. Frames lying in the folder itself are moved into
+	 * their shard.
+	 *
+	 * @throws IOException When a frame can't be moved or the manifest can't
+	 *         be written.
+	 */
+
+	public synchronized void index() throws IOException {
+		if(indexed) return;
+		if(!folder.isDirectory() && !folder.mkdirs()) throw new FileNotFoundException("Cannot create " + folder);
+		TreeMap<Integer, File> found = new TreeMap<>();
+		try (Stream<Path> paths = Files.walk(folder.toPath(), 3)) {
+			paths.forEach(path -> {
+				int index = parseIndex(path.getFileName().toString());
+				if(index >= 0 && Files.isRegularFile(path)) found.put(index, path.toFile());
+			});
+		}
+		List<Range> recovered = new ArrayList<>();
+		int start = -1;
+		int end = -1;
+		CRC32 crc = new CRC32();
+		for(Map.Entry<Integer, File> entry : found.entrySet()) {
+			int index = entry.getKey();
+			File target = shardFile(folder, index, extension);
+			if(!entry.getValue().equals(target)) move(entry.getValue(), target);
+			if(index != end) {
+				if(start >= 0) recovered.add(new Range(start, end, crc.getValue()));
+				start = index;
+				crc.reset();
+			}
+			update(crc, target);
+			end = index + 1;
+		}
+		if(start >= 0) recovered.add(new Range(start, end, crc.getValue()));
+
+		StringBuilder text = new StringBuilder(HEADER).append('\n');
+		for(Range range : recovered) text.append(format(range));
+		File part = new File(folder, FILE_NAME + ".part");
+		Files.writeString(part.toPath(), text, StandardCharsets.US_ASCII);
+		Files.move(part.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		for(Range range : recovered) record(range);
+		indexed = true;
+	}
+
+	/**
+	 * Moves frames that an extraction wrote into the folder itself, in
+	 * order from {@code next}, into their shards and records them as one
+	 * range. A frame is only taken once the one after it exists or the
+	 * extraction has {@code finished}, since it may still be being written
+	 * until then.
+	 *
+	 * @return The first frame not collected yet.
+	 * @throws IOException When a frame can't be moved or recorded.
+	 */
+
+	public synchronized int collect(int next, boolean finished) throws IOException {
+		index();
+		int start = next;
+		CRC32 crc = new CRC32();
+		while(true) {
+			File source = new File(folder, next + extension);
+			if(!source.isFile()) break;
+			if(!finished && !new File(folder, (next + 1) + extension).isFile()) break;
+			File target = shardFile(folder, next, extension);
+			move(source, target);
+			update(crc, target);
+			next++;
+		}
+		if(next > start) append(new Range(start, next, crc.getValue()));
+		return next;
+	}
+
+	/**
+	 * Records frame {@code index} as a copy of frame {@code source}, for
+	 * frames the extraction skipped. Folders not indexed are only copied in.
+	 *
+	 * @throws IOException When the frame can't be copied or recorded.
+	 */
+
+	public synchronized void copy(int source, int index) throws IOException {
+		if(!indexed) {
+			Files.copy(getFrameFile(source).toPath(), getFrameFile(index).toPath(), StandardCopyOption.REPLACE_EXISTING);
+			return;
+		}
+		File target = shardFile(folder, index, extension);
+		File parent = target.getParentFile();
+		if(!parent.isDirectory() && !parent.mkdirs()) throw new FileNotFoundException("Cannot create " + parent);
+		Files.copy(shardFile(folder, source, extension).toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		CRC32 crc = new CRC32();
+		update(crc, target);
+		append(new Range(index, index + 1, crc.getValue()));
+	}
+
+	/**
+	 * Records frame {@code index}, already written to
+	 * {@link #getFrameFile(int)} of an indexed folder.
+	 *
+	 * @throws IOException When the frame can't be read or recorded.
+	 */
+
+	public synchronized void add(int index) throws IOException {
+		index();
+		CRC32 crc = new CRC32();
+		update(crc, shardFile(folder, index, extension));
+		append(new Range(index, index + 1, crc.getValue()));
+	}
+
+	/**
+	 * Checks every range against its files.
+	 *
+	 * @return The ranges whose files are missing or no longer match their
+	 *         checksum.
+	 */
+
+	public synchronized List<Range> verify() {
+		List<Range> broken = new ArrayList<>();
+		for(Range range : ranges) {
+			CRC32 crc = new CRC32();
+			try {
+				for(int index = range.start(); index < range.end(); index++) {
+					update(crc, shardFile(folder, index, extension));
+				}
+				if(crc.getValue() != range.checksum()) broken.add(range);
+			}catch (IOException e) {
+				broken.add(range);
+			}
+		}
+		return broken;
+	}
+
+	private void read() {
+		if(!file.isFile()) return;
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			byte[] bytes = Files.readAllBytes(file.toPath());
+			int complete = 0;
+			for(int i = bytes.length - 1; i >= 0; i--) {
+				if(bytes[i] == '\n') {
+					complete = i + 1;
+					break;
+				}
+			}
+			// Cut off a line torn by an interrupted append.
+			if(complete < bytes.length) channel.truncate(complete);
+			String[] lines = new String(bytes, 0, complete, StandardCharsets.US_ASCII).split("\n");
+			if(lines.length == 0 || !lines[0].equals(HEADER)) return;
+			for(int i = 1; i < lines.length; i++) {
+				String[] fields = lines[i].trim().split(" ");
+				if(fields.length != 3) continue;
+				try {
+					int start = Integer.parseInt(fields[0]);
+					int end = Integer.parseInt(fields[1]);
+					if(start >= 0 && end > start) record(new Range(start, end, Long.parseLong(fields[2], 16)));
+				}catch (NumberFormatException ignored) {
+				}
+			}
+			indexed = true;
+		}catch (IOException e) {
+			indexed = false;
+		}
+	}
+
+	private void append(Range range) throws IOException {
+		Files.writeString(file.toPath(), format(range), StandardCharsets.US_ASCII, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+		record(range);
+	}
+
+	private void record(Range range) {
+		ranges.add(range);
+		frames.set(range.start(), range.end());
+		count = frames.cardinality();
+	}
+
+	private int parseIndex(String name) {
+		if(!name.endsWith(extension)) return -1;
+		String digits = name.substring(0, name.length() - extension.length());
+		if(digits.isEmpty() || digits.length() > 9) return -1;
+		for(int i = 0; i < digits.length(); i++) {
+			if(!Character.isDigit(digits.charAt(i))) return -1;
+		}
+		return Integer.parseInt(digits);
+	}
+
+	private static String format(Range range) {
+		return range.start() + " " + range.end() + " " + Long.toHexString(range.checksum()) + "\n";
+	}
+
+	private static void move(File source, File target) throws IOException {
+		File parent = target.getParentFile();
+		if(!parent.isDirectory() && !parent.mkdirs()) throw new FileNotFoundException("Cannot create " + parent);
+		Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	private static void update(CRC32 crc, File file) throws IOException {
+		try (InputStream input = Files.newInputStream(file.toPath())) {
+			byte[] buffer = new byte[64 * 1024];
+			int read;
+			while((read = input.read(buffer)) > 0) {
+				crc.update(buffer, 0, read);
+			}
+		}
+	}
+}
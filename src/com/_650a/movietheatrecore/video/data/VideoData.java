@@ -14,6 +14,7 @@ import java.util.List;
 
 import javax.imageio.ImageIO;
 
+import org.apache.commons.io.FileUtils;
 import org.bukkit.Bukkit;
 import org.bukkit.map.MapView;
 
@@ -26,6 +27,7 @@ import com._650a.movietheatrecore.tasks.TaskAsyncLoadVideo;
 import com._650a.movietheatrecore.util.ImageUtil;
 import com._650a.movietheatrecore.video.Video;
 import com._650a.movietheatrecore.video.data.cache.Cache;
+import com._650a.movietheatrecore.video.data.cache.FrameStore;
 import com._650a.movietheatrecore.video.data.thumbnail.Thumbnail;
 
 /** 
@@ -100,7 +102,7 @@ public class VideoData {
 			
 		int random = (int) Math.floor(Math.random()*((video.getTotalFrames()-1)-1+1)+1);
 		
-		File file = new File(video.getFramesFolder(), random + video.getFramesExtension());
+		File file = video.getFrameFile(random);
 				
 		BufferedImage frame = ImageIO.read(file);
 		
@@ -294,6 +296,47 @@ public class VideoData {
 		return new File(video.getDataFolder() + "/cache/");
 	}
 	
+	/**
+	* Gets the file holding the maps of every frame, see {@link FrameStore}.
+	* 
+	* @return The frame store file, which may not exist yet.
+	*/
+	
+	public File getFrameStoreFile() {
+		return new File(video.getDataFolder(), FrameStore.FILE_NAME);
+	}
+	
+	/**
+	* Gets whether the maps of every frame are cached, in a {@link FrameStore}
+	* or in the per-frame cache folder of earlier versions.
+	* 
+	* @return Whether the maps cache is complete.
+	*/
+	
+	public boolean hasCompleteCache() {
+		if(FrameStore.isComplete(getFrameStoreFile(), video.getTotalFrames())) return true;
+		File[] legacy = getCacheFolder().listFiles();
+		return legacy != null && legacy.length >= video.getTotalFrames();
+	}
+	
+	/**
+	* Moves a complete per-frame cache of earlier versions into a {@link FrameStore},
+	* then empties the cache folder. Does nothing if there is no such cache.
+	* 
+	* @return Whether a cache was migrated.
+	* 
+	* @throws IOException When failed or interrupted I/O operations occurs.
+	*/
+	
+	public boolean migrateLegacyCache() throws IOException {
+		File[] legacy = getCacheFolder().listFiles();
+		if(legacy == null || legacy.length < video.getTotalFrames()) return false;
+		if(FrameStore.isComplete(getFrameStoreFile(), video.getTotalFrames())) return false;
+		FrameStore.migrate(getCacheFolder(), video.isCacheCompressed(), video.getTotalFrames(), getFrameStoreFile());
+		FileUtils.cleanDirectory(getCacheFolder());
+		return true;
+	}
+	
 	/**
 	* Gets the folder containing the audio ressource packs.
 	* 
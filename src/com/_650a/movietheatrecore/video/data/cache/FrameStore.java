@@ -0,0 +1,326 @@
+package com._650a.movietheatrecore.video.data.cache;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * All map tiles of a video in one file, replacing the per-frame cache
+ * folders and zips, see {@link Cache}.
+ *
+ * <p>The file starts with a header: magic, version, frame count, tiles per
+ * frame and the offset of the first payload. After it comes an index with
+ * the offset of each frame's payload, then the payloads: every tile of a
+ * frame, 16384 map colors each, one after the other. A frame identical to
+ * the one before it points at the same payload, and a frame missing from
+ * the source repeats the previous one, or has offset -1 if there is none.
+ *
+ * <p>The file is written front to back while a video loads, to a
+ * {@code .part} file that replaces the store once complete, so an
+ * interrupted load never leaves a store that looks finished. For playback it
+ * is mapped into memory: reading a tile is a copy out of the mapping, with
+ * no file opened and no system call per tile or frame. Payloads are mapped
+ * in segments of whole frames, so stores larger than 2 GB work too. The
+ * file is closed right after mapping, and the mappings are released once
+ * the store is no longer referenced.
+ */
+
+public final class FrameStore {
+
+	public static final String FILE_NAME = "frames.mtcf";
+	public static final int TILE_BYTES = 128 * 128;
+
+	private static final int MAGIC = 0x4D544346;
+	private static final int VERSION = 1;
+	private static final int HEADER_BYTES = 24;
+	private static final long SEGMENT_BYTES = 1L << 30;
+
+	private final int frameCount;
+	private final int tilesPerFrame;
+	private final long[] offsets;
+	private final long dataStart;
+	private final long segmentBytes;
+	private final MappedByteBuffer[] segments;
+
+	private FrameStore(int frameCount, int tilesPerFrame, long[] offsets, long dataStart, long segmentBytes, MappedByteBuffer[] segments) {
+		this.frameCount = frameCount;
+		this.tilesPerFrame = tilesPerFrame;
+		this.offsets = offsets;
+		this.dataStart = dataStart;
+		this.segmentBytes = segmentBytes;
+		this.segments = segments;
+	}
+
+    /**
+     * Maps a complete store.
+     *
+     * @throws IOException When the file is missing, incomplete or not a
+     *         frame store.
+     */
+
+	public static FrameStore open(File file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+			readFully(channel, header, 0L);
+			header.flip();
+			if(header.getInt() != MAGIC || header.getInt() != VERSION) throw new IOException("Not a frame store: " + file);
+			int frameCount = header.getInt();
+			int tilesPerFrame = header.getInt();
+			long dataStart = header.getLong();
+			if(frameCount < 0 || tilesPerFrame <= 0 || dataStart != HEADER_BYTES + 8L * frameCount) {
+				throw new IOException("Corrupt frame store header: " + file);
+			}
+			ByteBuffer index = ByteBuffer.allocate(8 * frameCount);
+			readFully(channel, index, HEADER_BYTES);
+			index.flip();
+			long[] offsets = new long[frameCount];
+			long frameBytes = (long) tilesPerFrame * TILE_BYTES;
+			long size = channel.size();
+			for(int i = 0; i < frameCount; i++) {
+				offsets[i] = index.getLong();
+				if(offsets[i] != -1L && (offsets[i] < dataStart || (offsets[i] - dataStart) % frameBytes != 0 || offsets[i] + frameBytes > size)) {
+					throw new IOException("Corrupt frame store index: " + file);
+				}
+			}
+			long segmentBytes = Math.max(1L, SEGMENT_BYTES / frameBytes) * frameBytes;
+			int segmentCount = (int) ((size - dataStart + segmentBytes - 1) / segmentBytes);
+			MappedByteBuffer[] segments = new MappedByteBuffer[segmentCount];
+			for(int i = 0; i < segmentCount; i++) {
+				long position = dataStart + i * segmentBytes;
+				segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(segmentBytes, size - position));
+			}
+			return new FrameStore(frameCount, tilesPerFrame, offsets, dataStart, segmentBytes, segments);
+		}
+	}
+
+    /**
+     * Checks, from the header only, whether {@code file} is a finished store
+     * of {@code frameCount} frames.
+     */
+
+	public static boolean isComplete(File file, int frameCount) {
+		if(!file.isFile()) return false;
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+			readFully(channel, header, 0L);
+			header.flip();
+			return header.getInt() == MAGIC && header.getInt() == VERSION && header.getInt() >= frameCount;
+		}catch (IOException e) {
+			return false;
+		}
+	}
+
+	public int getFrameCount() {
+		return frameCount;
+	}
+
+	public int getTilesPerFrame() {
+		return tilesPerFrame;
+	}
+
+    /**
+     * @return Whether {@code frame} has tiles, false for frames missing from
+     *         the source before any frame was stored.
+     */
+
+	public boolean hasFrame(int frame) {
+		return frame >= 0 && frame < frameCount && offsets[frame] >= 0;
+	}
+
+    /**
+     * Copies one tile out of the mapping.
+     *
+     * @return The tile's map colors, or null if the frame or tile does not
+     *         exist.
+     */
+
+	public byte[] getTile(int frame, int tile) {
+		if(!hasFrame(frame) || tile < 0 || tile >= tilesPerFrame) return null;
+		long position = offsets[frame] - dataStart;
+		MappedByteBuffer segment = segments[(int) (position / segmentBytes)];
+		byte[] data = new byte[TILE_BYTES];
+		segment.get((int) (position % segmentBytes) + tile * TILE_BYTES, data);
+		return data;
+	}
+
+    /**
+     * Rebuilds a store from the per-frame cache of earlier versions: a
+     * folder of {@code <tile>.cache} files per frame, or a {@code .zip} of
+     * them when {@code compressed}.
+     *
+     * @throws IOException When a cache file can't be read or the store
+     *         can't be written.
+     */
+
+	public static void migrate(File cacheFolder, boolean compressed, int frameCount, File target) throws IOException {
+		try (Writer writer = new Writer(target, frameCount)) {
+			for(int frame = 0; frame < frameCount; frame++) {
+				byte[][] tiles = compressed ? readLegacyZip(new File(cacheFolder, frame + ".zip")) : readLegacyFolder(new File(cacheFolder, String.valueOf(frame)));
+				if(tiles == null) {
+					writer.skip();
+				}else {
+					writer.append(tiles);
+				}
+			}
+			writer.commit();
+		}
+	}
+
+	private static byte[][] readLegacyFolder(File folder) throws IOException {
+		if(!folder.isDirectory()) return null;
+		int tiles = 0;
+		while(new File(folder, tiles + ".cache").isFile()) tiles++;
+		if(tiles == 0) return null;
+		byte[][] data = new byte[tiles][];
+		for(int j = 0; j < tiles; j++) {
+			data[j] = Files.readAllBytes(new File(folder, j + ".cache").toPath());
+		}
+		return data;
+	}
+
+	private static byte[][] readLegacyZip(File file) throws IOException {
+		if(!file.isFile()) return null;
+		try (ZipFile zipFile = new ZipFile(file)) {
+			int tiles = 0;
+			while(zipFile.getEntry(tiles + ".cache") != null) tiles++;
+			if(tiles == 0) return null;
+			byte[][] data = new byte[tiles][];
+			for(int j = 0; j < tiles; j++) {
+				ZipEntry entry = zipFile.getEntry(j + ".cache");
+				try (InputStream stream = zipFile.getInputStream(entry)) {
+					data[j] = stream.readAllBytes();
+				}
+			}
+			return data;
+		}
+	}
+
+	private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+		while(buffer.hasRemaining()) {
+			int read = channel.read(buffer, position);
+			if(read < 0) throw new IOException("Frame store is truncated");
+			position += read;
+		}
+	}
+
+    /**
+     * Writes a store front to back, one frame after another.
+     *
+     * <p>Nothing is visible at the target until {@link #commit()}; closing
+     * without committing discards what was written.
+     */
+
+	public static final class Writer implements Closeable {
+
+		private final File target;
+		private final File part;
+		private final FileChannel channel;
+		private final long[] offsets;
+		private final long dataStart;
+
+		private int tilesPerFrame = -1;
+		private int written;
+		private long position;
+		private byte[][] previous;
+		private boolean committed;
+
+		public Writer(File target, int frameCount) throws IOException {
+			this.target = target;
+			this.part = new File(target.getPath() + ".part");
+			File parent = target.getParentFile();
+			if(parent != null && !parent.isDirectory() && !parent.mkdirs()) throw new FileNotFoundException("Cannot create " + parent);
+			this.channel = FileChannel.open(part.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+			this.offsets = new long[frameCount];
+			this.dataStart = HEADER_BYTES + 8L * frameCount;
+			this.position = dataStart;
+		}
+
+        /**
+         * Stores the next frame.
+         *
+         * @param tiles Map colors of every tile, 16384 each, the same number
+         *        of tiles for every frame.
+         */
+
+		public void append(byte[][] tiles) throws IOException {
+			checkRoom();
+			if(tilesPerFrame < 0) tilesPerFrame = tiles.length;
+			if(tiles.length != tilesPerFrame) throw new IOException("Frame " + written + " has " + tiles.length + " tiles, expected " + tilesPerFrame);
+			if(previous != null && Arrays.deepEquals(previous, tiles)) {
+				offsets[written] = offsets[written - 1];
+				written++;
+				return;
+			}
+			offsets[written++] = position;
+			byte[][] copy = new byte[tiles.length][];
+			for(int j = 0; j < tiles.length; j++) {
+				if(tiles[j].length != TILE_BYTES) throw new IOException("Tile of " + tiles[j].length + " bytes, expected " + TILE_BYTES);
+				ByteBuffer buffer = ByteBuffer.wrap(tiles[j]);
+				while(buffer.hasRemaining()) {
+					position += channel.write(buffer, position);
+				}
+				copy[j] = tiles[j].clone();
+			}
+			// Callers may reuse their arrays for the next frame.
+			previous = copy;
+		}
+
+        /**
+         * Stores the next frame as a repeat of the previous one, for frames
+         * missing from the source.
+         */
+
+		public void skip() throws IOException {
+			checkRoom();
+			offsets[written] = written == 0 ? -1L : offsets[written - 1];
+			written++;
+		}
+
+		public int getWritten() {
+			return written;
+		}
+
+        /**
+         * Writes the header and index and moves the store in place. Frames
+         * that were never appended repeat the last one.
+         */
+
+		public void commit() throws IOException {
+			while(written < offsets.length) skip();
+			ByteBuffer head = ByteBuffer.allocate((int) dataStart);
+			head.putInt(MAGIC).putInt(VERSION).putInt(offsets.length).putInt(Math.max(1, tilesPerFrame)).putLong(dataStart);
+			for(long offset : offsets) head.putLong(offset);
+			head.flip();
+			long at = 0L;
+			while(head.hasRemaining()) {
+				at += channel.write(head, at);
+			}
+			channel.force(true);
+			channel.close();
+			Files.move(part.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			committed = true;
+		}
+
+		@Override
+		public void close() throws IOException {
+			if(committed) return;
+			channel.close();
+			Files.deleteIfExists(part.toPath());
+		}
+
+		private void checkRoom() throws IOException {
+			if(written >= offsets.length) throw new IOException("Frame store is full (" + offsets.length + " frames)");
+		}
+	}
+}
@@ -0,0 +1,91 @@
+package com._650a.movietheatrecore.map.colors;
+
+import java.awt.Color;
+import java.util.Random;
+
+/**
+ * Measures quantizer lookups per second for each {@link ColorTableMode}.
+ *
+ * <p>Not a unit test. Run it against the test classpath with
+ * {@code java ... com._650a.movietheatrecore.map.colors.ColorTableBenchmark [threads]}.
+ * The palette is synthetic since Bukkit's palette is not available outside
+ * a server, which only affects the ambiguous cell ratio, not the access
+ * pattern.
+ */
+public final class ColorTableBenchmark {
+
+    private static final int PIXELS = 1 << 22;
+    private static final int ROUNDS = 8;
+
+    private ColorTableBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+
+        MCSDGenParallel full = new MCSDGenParallel(ColorMetric.WEIGHTED_RGB);
+        Random random = new Random(1);
+        for (int i = 4; i < 248; i++) {
+            full.setColor((byte) i, new Color(random.nextInt(256), random.nextInt(256), random.nextInt(256)));
+        }
+        full.generate();
+
+        int[] pixels = new int[PIXELS];
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = random.nextInt(1 << 24);
+        }
+
+        System.out.println("threads=" + threads + " pixels/round=" + PIXELS);
+        for (ColorTableMode mode : ColorTableMode.values()) {
+            for (boolean refine : mode == ColorTableMode.FULL ? new boolean[] {true} : new boolean[] {true, false}) {
+                MapColorSpaceData data = new MapColorSpaceData();
+                data.readFrom(full);
+                data.useTableMode(mode, refine);
+                run(data, pixels, threads);
+                double rate = run(data, pixels, threads);
+                double ambiguous = mode == ColorTableMode.FULL || !refine ? 0 : CompactColorTable.build(full.getData(), mode, true).getAmbiguousRatio();
+                System.out.printf("%-7s refine=%-5s %8.1f Mpixels/s  mismatches=%.3f%%  ambiguous cells=%.1f%%%n",
+                        mode, refine, rate / 1_000_000.0, mismatches(full, data, pixels) * 100.0, ambiguous * 100.0);
+            }
+        }
+    }
+
+    private static double run(MapColorSpaceData data, int[] pixels, int threads) throws InterruptedException {
+        Thread[] workers = new Thread[threads];
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            int offset = t * 7919;
+            workers[t] = new Thread(() -> {
+                int sink = 0;
+                for (int round = 0; round < ROUNDS; round++) {
+                    for (int i = 0; i < pixels.length; i++) {
+                        int color = pixels[(i + offset) & (PIXELS - 1)];
+                        sink += data.match(color >> 16 & 0xFF, color >> 8 & 0xFF, color & 0xFF);
+                    }
+                }
+                if (sink == 42) {
+                    System.out.print("");
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        return (double) PIXELS * ROUNDS * threads / seconds;
+    }
+
+    private static double mismatches(MapColorSpaceData full, MapColorSpaceData data, int[] pixels) {
+        int different = 0;
+        for (int color : pixels) {
+            int r = color >> 16 & 0xFF;
+            int g = color >> 8 & 0xFF;
+            int b = color & 0xFF;
+            if (full.get(r, g, b) != data.match(r, g, b)) {
+                different++;
+            }
+        }
+        return (double) different / pixels.length;
+    }
+}
@@ -0,0 +1,83 @@
+package com._650a.movietheatrecore.map.colors;
+
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MapColorQuantizerTest {
+
+    private static final MapColorSpaceData COLOR_SPACE = TestColorSpaces.synthetic();
+
+    @Test
+    void everyLayoutMatchesPerPixelLookup() {
+        int[] types = {
+                BufferedImage.TYPE_INT_RGB,
+                BufferedImage.TYPE_INT_ARGB,
+                BufferedImage.TYPE_INT_BGR,
+                BufferedImage.TYPE_3BYTE_BGR,
+                BufferedImage.TYPE_4BYTE_ABGR,
+                BufferedImage.TYPE_INT_ARGB_PRE
+        };
+        MapColorQuantizer quantizer = new MapColorQuantizer(COLOR_SPACE);
+        for (int type : types) {
+            BufferedImage image = randomImage(type, 37, 23, new Random(type));
+            byte[] result = new byte[37 * 23];
+            quantizer.quantize(image, result, 0);
+            assertArrayEquals(expected(image, 0, 0, 37, 23), result, "type " + type);
+        }
+    }
+
+    @Test
+    void subImagesReadTheirOwnRegion() {
+        MapColorQuantizer quantizer = new MapColorQuantizer(COLOR_SPACE);
+        for (int type : new int[] {BufferedImage.TYPE_INT_ARGB, BufferedImage.TYPE_3BYTE_BGR}) {
+            BufferedImage image = randomImage(type, 256, 256, new Random(11));
+            BufferedImage tile = image.getSubimage(128, 128, 128, 128);
+            byte[] viaSubImage = new byte[128 * 128];
+            byte[] viaRegion = new byte[128 * 128];
+            quantizer.quantize(tile, viaSubImage, 0);
+            quantizer.quantize(image, 128, 128, 128, 128, viaRegion, 0);
+            byte[] expected = expected(image, 128, 128, 128, 128);
+            assertArrayEquals(expected, viaSubImage);
+            assertArrayEquals(expected, viaRegion);
+        }
+    }
+
+    @Test
+    void transparentPixelsBecomeCodeZero() {
+        BufferedImage image = new BufferedImage(2, 1, BufferedImage.TYPE_INT_ARGB);
+        image.setRGB(0, 0, 0x7FFFFFFF);
+        image.setRGB(1, 0, 0x80FFFFFF);
+        byte[] result = new byte[2];
+        new MapColorQuantizer(COLOR_SPACE).quantize(image, result, 0);
+        assertEquals(0, result[0]);
+        assertEquals(COLOR_SPACE.get(255, 255, 255), result[1]);
+    }
+
+    private static BufferedImage randomImage(int type, int width, int height, Random random) {
+        BufferedImage image = new BufferedImage(width, height, type);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int alpha = random.nextInt(4) == 0 ? 0x40 : 0xFF;
+                image.setRGB(x, y, alpha << 24 | random.nextInt(1 << 24));
+            }
+        }
+        return image;
+    }
+
+    private static byte[] expected(BufferedImage image, int x0, int y0, int width, int height) {
+        byte[] result = new byte[width * height];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int argb = image.getRGB(x0 + x, y0 + y);
+                boolean opaque = !image.getColorModel().hasAlpha() || (argb >>> 24) >= 128;
+                result[y * width + x] = opaque ? COLOR_SPACE.get(argb >> 16 & 0xFF, argb >> 8 & 0xFF, argb & 0xFF) : 0;
+            }
+        }
+        return result;
+    }
+}
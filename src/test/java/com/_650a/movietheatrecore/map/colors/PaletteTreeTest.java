@@ -0,0 +1,70 @@
+package com._650a.movietheatrecore.map.colors;
+
+import java.awt.Color;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PaletteTreeTest {
+
+    @Test
+    void treeMatchesLinearScanForEveryMetric() {
+        Color[] palette = randomPalette(new Random(42));
+        Random random = new Random(7);
+        for (ColorMetric metric : ColorMetric.values()) {
+            PaletteTree tree = new PaletteTree(palette, metric);
+            PaletteTree.Search search = new PaletteTree.Search();
+            double[] query = new double[3];
+            int hint = tree.firstCode();
+            for (int i = 0; i < 20000; i++) {
+                int r = random.nextInt(256);
+                int g = random.nextInt(256);
+                int b = random.nextInt(256);
+                metric.toCoordinates(r, g, b, query);
+                hint = tree.nearest(query, hint, search);
+                assertEquals(linearScan(palette, metric, r, g, b), hint, metric + " mismatch for " + r + "," + g + "," + b);
+            }
+        }
+    }
+
+    @Test
+    void duplicateColorsResolveToLowestIndex() {
+        Color[] palette = randomPalette(new Random(3));
+        palette[200] = palette[10];
+        PaletteTree tree = new PaletteTree(palette, ColorMetric.WEIGHTED_RGB);
+        double[] query = new double[3];
+        ColorMetric.WEIGHTED_RGB.toCoordinates(palette[10].getRed(), palette[10].getGreen(), palette[10].getBlue(), query);
+        assertEquals(10, tree.nearest(query, 200, new PaletteTree.Search()));
+    }
+
+    private static Color[] randomPalette(Random random) {
+        Color[] palette = new Color[256];
+        for (int i = 0; i < palette.length; i++) {
+            palette[i] = i < 4 || i >= 248 ? new Color(0, 0, 0, 0) : new Color(random.nextInt(256), random.nextInt(256), random.nextInt(256));
+        }
+        return palette;
+    }
+
+    private static int linearScan(Color[] palette, ColorMetric metric, int r, int g, int b) {
+        double[] query = new double[3];
+        double[] candidate = new double[3];
+        metric.toCoordinates(r, g, b, query);
+        double best = Double.POSITIVE_INFINITY;
+        int bestIndex = -1;
+        for (int i = 4; i < palette.length; i++) {
+            Color color = palette[i];
+            if (color.getAlpha() < 128) {
+                continue;
+            }
+            metric.toCoordinates(color.getRed(), color.getGreen(), color.getBlue(), candidate);
+            double distance = metric.distance(query, candidate);
+            if (distance < best) {
+                best = distance;
+                bestIndex = i;
+            }
+        }
+        return bestIndex;
+    }
+}
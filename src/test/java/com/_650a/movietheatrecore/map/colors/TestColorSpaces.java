@@ -0,0 +1,28 @@
+package com._650a.movietheatrecore.map.colors;
+
+/**
+ * Color spaces shared by tests and benchmarks.
+ */
+public final class TestColorSpaces {
+
+    private static MapColorSpaceData synthetic;
+
+    private TestColorSpaces() {
+    }
+
+    /**
+     * @return A full color space mapping every color to a deterministic
+     *         spread of palette codes, built once and shared, so it must
+     *         not be modified.
+     */
+    public static synchronized MapColorSpaceData synthetic() {
+        if (synthetic == null) {
+            MapColorSpaceData data = new MapColorSpaceData();
+            for (int i = 0; i < MapColorSpaceData.DATA_SIZE; i++) {
+                data.set(i, (byte) (4 + (i * 31 + (i >> 11)) % 200));
+            }
+            synthetic = data;
+        }
+        return synthetic;
+    }
+}
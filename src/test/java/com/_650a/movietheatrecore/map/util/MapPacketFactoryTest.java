@@ -0,0 +1,85 @@
+package com._650a.movietheatrecore.map.util;
+
+import java.util.Collection;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MapPacketFactoryTest {
+
+    @Test
+    void lockedFlagConstructorOfLaterRawPacketsIsRecognised() throws ReflectiveOperationException {
+        MapPacketFactory factory = MapPacketFactory.match(LockedMapPacket.class.getDeclaredConstructors()[0]);
+        assertNotNull(factory);
+
+        byte[] buffer = new byte[128 * 128];
+        LockedMapPacket packet = (LockedMapPacket) factory.create(7, buffer, 3, 4, 10, 20);
+
+        assertEquals(7, packet.id);
+        assertFalse(packet.tracking);
+        assertFalse(packet.locked);
+        assertTrue(packet.icons.isEmpty());
+        assertArrayEquals(buffer, packet.buffer);
+        assertArrayEquals(new int[] {3, 4, 10, 20}, new int[] {packet.x, packet.y, packet.width, packet.height});
+    }
+
+    @Test
+    void trackingFlagConstructorStillMatches() throws ReflectiveOperationException {
+        MapPacketFactory factory = MapPacketFactory.match(TrackingMapPacket.class.getDeclaredConstructors()[0]);
+        assertNotNull(factory);
+
+        TrackingMapPacket packet = (TrackingMapPacket) factory.create(9, new byte[128 * 128], 0, 0, 128, 128);
+
+        assertEquals(9, packet.id);
+        assertEquals(128, packet.width);
+    }
+
+    /**
+     * Shape of the 1.14 to 1.16 packet.
+     */
+    static final class LockedMapPacket {
+
+        final int id;
+        final boolean tracking;
+        final boolean locked;
+        final Collection<?> icons;
+        final byte[] buffer;
+        final int x;
+        final int y;
+        final int width;
+        final int height;
+
+        LockedMapPacket(int id, byte scale, boolean tracking, boolean locked, Collection<?> icons, byte[] buffer,
+                int x, int y, int width, int height) {
+            this.id = id;
+            this.tracking = tracking;
+            this.locked = locked;
+            this.icons = icons;
+            this.buffer = buffer;
+            this.x = x;
+            this.y = y;
+            this.width = width;
+            this.height = height;
+        }
+    }
+
+    /**
+     * Shape of the 1.9 to 1.13 packet.
+     */
+    static final class TrackingMapPacket {
+
+        final int id;
+        final int width;
+
+        TrackingMapPacket(int id, byte scale, boolean tracking, Collection<?> icons, byte[] buffer,
+                int x, int y, int width, int height) {
+            this.id = id;
+            this.width = width;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com._650a.movietheatrecore.map.util;
+
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SharedPacketWriterTest {
+
+    @Test
+    void packetsUnderTheThresholdAreSentUncompressed() {
+        byte[] raw = {1, 2, 3};
+
+        byte[] body = SharedPacketWriter.compress(raw, 256, new Deflater());
+
+        assertArrayEquals(new byte[] {0, 1, 2, 3}, body);
+    }
+
+    @Test
+    void largePacketsCarryTheirLengthAndInflateBack() throws DataFormatException {
+        byte[] raw = new byte[16400];
+        for (int i = 0; i < raw.length; i++) {
+            raw[i] = (byte) (i / 64);
+        }
+
+        byte[] body = SharedPacketWriter.compress(raw, 256, new Deflater());
+
+        // 16400 as a VarInt is 0x90 0x80 0x01.
+        assertArrayEquals(new byte[] {(byte) 0x90, (byte) 0x80, 0x01}, Arrays.copyOf(body, 3));
+        Inflater inflater = new Inflater();
+        inflater.setInput(body, 3, body.length - 3);
+        byte[] inflated = new byte[raw.length];
+        assertEquals(raw.length, inflater.inflate(inflated));
+        assertArrayEquals(raw, inflated);
+    }
+}
@@ -0,0 +1,71 @@
+package com._650a.movietheatrecore.playback;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com._650a.movietheatrecore.render.DetailBand;
+import com._650a.movietheatrecore.render.QuantizedTile;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DetailLevelsTest {
+
+    @Test
+    void viewersFallIntoTheFurthestBandTheyReach() {
+        DetailLevels levels = new DetailLevels(List.of(DetailBand.parse("16:2"), DetailBand.parse("32:4:64")));
+
+        assertEquals(3, levels.size());
+        assertEquals(DetailBand.FULL, levels.get(0));
+        assertEquals(0, levels.bandOf(15.9 * 15.9));
+        assertEquals(1, levels.bandOf(16 * 16));
+        assertEquals(2, levels.bandOf(40 * 40));
+        assertEquals("32:4:64", levels.get(2).toString());
+        assertThrows(IllegalArgumentException.class, () -> DetailBand.parse("10:2:100"));
+    }
+
+    @Test
+    void reducedTilesRepeatOneSamplePerBlock() {
+        byte[] data = new byte[QuantizedTile.SIZE * QuantizedTile.SIZE];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+        byte[] reduced = DetailLevels.reduce(data, 2);
+
+        for (int y = 0; y < QuantizedTile.SIZE; y++) {
+            for (int x = 0; x < QuantizedTile.SIZE; x++) {
+                int sample = (y / 2 * 2 + 1) * QuantizedTile.SIZE + x / 2 * 2 + 1;
+                assertEquals(data[sample], reduced[y * QuantizedTile.SIZE + x]);
+            }
+        }
+    }
+
+    @Test
+    void reducedArraysAreKeptWhileTheirContentStaysTheSame() {
+        DetailLevels levels = new DetailLevels(List.of(DetailBand.parse("0:1:32")));
+        byte[] first = new byte[QuantizedTile.SIZE * QuantizedTile.SIZE];
+        QuantizedTile[] frame = {QuantizedTile.full(first)};
+
+        QuantizedTile[] shown = levels.tilesFor(0, frame);
+        assertTrue(shown[0].changed());
+        assertSame(shown[0].data(), levels.tilesFor(0, new QuantizedTile[] {QuantizedTile.unchanged(first)})[0].data());
+
+        byte[] unsampledChange = first.clone();
+        unsampledChange[0] = 5;
+        QuantizedTile[] hidden = levels.tilesFor(0, new QuantizedTile[] {new QuantizedTile(unsampledChange, true, 0, 0, 0, 0)});
+        assertSame(shown[0].data(), hidden[0].data());
+        assertFalse(hidden[0].changed());
+
+        byte[] sampledChange = first.clone();
+        sampledChange[18 * QuantizedTile.SIZE + 18] = 5;
+        QuantizedTile[] visible = levels.tilesFor(0, new QuantizedTile[] {new QuantizedTile(sampledChange, true, 18, 18, 18, 18)});
+        assertNotSame(shown[0].data(), visible[0].data());
+        assertEquals(16, visible[0].minX());
+        assertEquals(19, visible[0].maxX());
+    }
+}
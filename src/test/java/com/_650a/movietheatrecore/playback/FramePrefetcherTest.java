@@ -0,0 +1,124 @@
+package com._650a.movietheatrecore.playback;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com._650a.movietheatrecore.render.QuantizedTile;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FramePrefetcherTest {
+
+    @Test
+    void fillsAheadAndTakesFramesInOrder() {
+        List<Integer> rendered = new ArrayList<>();
+        FramePrefetcher prefetcher = new FramePrefetcher(index -> {
+            rendered.add(index);
+            return tiles(1, true);
+        }, Runnable::run, 100, false, 4, 64);
+        prefetcher.start();
+
+        assertEquals(List.of(0, 1, 2, 3), rendered);
+        assertEquals(4, prefetcher.getStats().buffered());
+        assertEquals(0, prefetcher.take(0).index());
+        assertEquals(1, prefetcher.take(1).index());
+        assertEquals(4, prefetcher.getStats().buffered());
+        assertEquals(0L, prefetcher.getStats().underruns());
+        prefetcher.stop();
+        assertEquals(0L, prefetcher.getStats().bufferedBytes());
+    }
+
+    @Test
+    void lateTakeDropsOlderFramesButKeepsTheirChanges() {
+        FramePrefetcher prefetcher = new FramePrefetcher(index -> new QuantizedTile[] {
+                index == 1 ? new QuantizedTile(new byte[128 * 128], true, 10, 20, 30, 40) : QuantizedTile.unchanged(new byte[128 * 128])
+        }, Runnable::run, 100, false, 8, 64);
+        prefetcher.start();
+
+        FramePrefetcher.PreparedFrame frame = prefetcher.take(3);
+
+        assertEquals(3, frame.index());
+        assertEquals(3L, prefetcher.getStats().dropped());
+        QuantizedTile tile = frame.tiles()[0];
+        assertTrue(tile.changed());
+        assertEquals(10, tile.minX());
+        assertEquals(40, tile.maxY());
+        prefetcher.stop();
+    }
+
+    @Test
+    void underrunSkipsAheadToTheDueFrame() {
+        ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+        List<Integer> rendered = new ArrayList<>();
+        FramePrefetcher prefetcher = new FramePrefetcher(index -> {
+            rendered.add(index);
+            return tiles(1, true);
+        }, tasks::add, 10, true, 2, 64);
+        prefetcher.start();
+
+        assertNull(prefetcher.take(5));
+        while (!tasks.isEmpty()) {
+            tasks.poll().run();
+        }
+
+        assertEquals(1L, prefetcher.getStats().underruns());
+        assertEquals(List.of(5, 6), rendered);
+        assertEquals(5, prefetcher.take(5).index());
+        prefetcher.stop();
+    }
+
+    @Test
+    void memoryCapLimitsTheRing() {
+        FramePrefetcher prefetcher = new FramePrefetcher(index -> tiles(80, true), Runnable::run, 100, false, 8, 1);
+        prefetcher.start();
+
+        assertEquals(1, prefetcher.getStats().buffered());
+        assertNotNull(prefetcher.take(0));
+        assertEquals(1, prefetcher.getStats().buffered());
+        prefetcher.stop();
+    }
+
+    @Test
+    void renderFailureIsReported() {
+        FramePrefetcher prefetcher = new FramePrefetcher(index -> {
+            throw new IOException("broken frame");
+        }, Runnable::run, 100, false, 4, 64);
+        prefetcher.start();
+
+        assertEquals("broken frame", prefetcher.getFailure().getMessage());
+        assertNull(prefetcher.take(0));
+        prefetcher.stop();
+    }
+
+    @Test
+    void limitKeepsFillingBehindTheIngestWatermark() {
+        List<Integer> rendered = new ArrayList<>();
+        FramePrefetcher prefetcher = new FramePrefetcher(index -> {
+            rendered.add(index);
+            return tiles(1, true);
+        }, Runnable::run, 100, false, 8, 64);
+        prefetcher.setLimit(2);
+        prefetcher.start();
+        assertEquals(List.of(0, 1), rendered);
+
+        prefetcher.setLimit(5);
+        assertEquals(List.of(0, 1, 2, 3, 4), rendered);
+        prefetcher.stop();
+    }
+
+    private static QuantizedTile[] tiles(int count, boolean changed) {
+        QuantizedTile[] tiles = new QuantizedTile[count];
+        for (int i = 0; i < count; i++) {
+            byte[] data = new byte[128 * 128];
+            tiles[i] = changed ? QuantizedTile.full(data) : QuantizedTile.unchanged(data);
+        }
+        return tiles;
+    }
+}
@@ -0,0 +1,97 @@
+package com._650a.movietheatrecore.playback;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FrameSchedulerTest {
+
+    @Test
+    void showGetsLargerShareThanAmbientUnderTileBudget() {
+        FrameScheduler scheduler = new FrameScheduler(new FrameScheduler.Budget(10, 0L, 0));
+        FakeSession show = new FakeSession(10, 1000L);
+        FakeSession ambient = new FakeSession(10, 1000L);
+        scheduler.register(show, RenderPriority.SHOW);
+        scheduler.register(ambient, RenderPriority.AMBIENT);
+
+        for (int tick = 0; tick < 90; tick++) {
+            scheduler.tick();
+        }
+
+        assertEquals(90, show.accepted + ambient.accepted);
+        assertEquals(8 * ambient.accepted, show.accepted);
+        assertEquals(show.accepted, scheduler.getStats(show).accepted());
+        assertEquals(ambient.skipped, scheduler.getStats(ambient).skipped());
+    }
+
+    @Test
+    void firstFrameOfTickGoesThroughEvenWhenLargerThanBudget() {
+        FrameScheduler scheduler = new FrameScheduler(new FrameScheduler.Budget(4, 0L, 0));
+        FakeSession session = new FakeSession(100, 1000L);
+        scheduler.register(session, RenderPriority.NORMAL);
+
+        scheduler.tick();
+        scheduler.tick();
+
+        assertEquals(2, session.accepted);
+        assertEquals(0, session.skipped);
+    }
+
+    @Test
+    void heaviestRendererIsThrottledWhenOverRenderBudget() {
+        FrameScheduler scheduler = new FrameScheduler(new FrameScheduler.Budget(0, 0L, 10));
+        FakeSession show = new FakeSession(1, 1L);
+        FakeSession ambient = new FakeSession(1, 1L);
+        show.renderNanos = 8_000_000L;
+        ambient.renderNanos = 8_000_000L;
+        scheduler.register(show, RenderPriority.SHOW);
+        scheduler.register(ambient, RenderPriority.AMBIENT);
+
+        for (int tick = 0; tick < 200; tick++) {
+            scheduler.tick();
+        }
+
+        assertEquals(1, show.stride);
+        assertTrue(ambient.stride > 1);
+        assertEquals(ambient.stride, scheduler.getStats(ambient).renderStride());
+
+        show.renderNanos = 0L;
+        ambient.renderNanos = 0L;
+        for (int tick = 0; tick < 400; tick++) {
+            scheduler.tick();
+        }
+
+        assertEquals(1, ambient.stride);
+    }
+
+    private static final class FakeSession implements FrameScheduler.Participant {
+
+        private final int tiles;
+        private final long bytes;
+        private long renderNanos;
+        private int stride = 1;
+        private int accepted;
+        private int skipped;
+
+        private FakeSession(int tiles, long bytes) {
+            this.tiles = tiles;
+            this.bytes = bytes;
+        }
+
+        @Override
+        public FrameScheduler.Offer tick() {
+            return new FrameScheduler.Offer(tiles, bytes, () -> accepted++, () -> skipped++);
+        }
+
+        @Override
+        public void setRenderStride(int stride) {
+            this.stride = stride;
+        }
+
+        @Override
+        public long drainRenderNanos() {
+            return renderNanos / stride;
+        }
+    }
+}
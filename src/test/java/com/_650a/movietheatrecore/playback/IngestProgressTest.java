@@ -0,0 +1,49 @@
+package com._650a.movietheatrecore.playback;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IngestProgressTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    void throughputIsMeasuredOverWholeSeconds() {
+        IngestProgress ingest = new IngestProgress(1000, 0L);
+        ingest.update(30, SECOND / 2);
+        assertEquals(30, ingest.getWatermark());
+        assertEquals(0.0, ingest.getFramesPerSecond());
+
+        ingest.update(60, SECOND);
+        assertEquals(60.0, ingest.getFramesPerSecond(), 1e-9);
+        ingest.update(40, 2 * SECOND);
+        assertEquals(60, ingest.getWatermark());
+        assertEquals(42.0, ingest.getFramesPerSecond(), 1e-9);
+
+        ingest.complete();
+        assertEquals(1000, ingest.getWatermark());
+        assertTrue(ingest.isComplete());
+    }
+
+    @Test
+    void playbackWaitsForLeadAndForExtractionToStayAhead() {
+        IngestProgress fast = new IngestProgress(10_000, 0L);
+        fast.update(200, SECOND);
+        assertFalse(fast.isSafe(0, 24.0, 240));
+        fast.update(400, 2 * SECOND);
+        assertTrue(fast.isSafe(0, 24.0, 240));
+        assertFalse(fast.isSafe(300, 24.0, 240));
+
+        // 12 fps of extraction against 24 fps of playback: the 9000 frames
+        // left take over 800 s, while a 3000 frame lead lasts 250 s.
+        IngestProgress slow = new IngestProgress(12_000, 0L);
+        slow.update(3000, 250 * SECOND);
+        assertEquals(12.0, slow.getFramesPerSecond(), 1e-9);
+        assertFalse(slow.isSafe(0, 24.0, 240));
+        slow.update(11_000, 250 * SECOND + 100 * SECOND);
+        assertTrue(slow.isSafe(0, 24.0, 240));
+    }
+}
@@ -0,0 +1,74 @@
+package com._650a.movietheatrecore.playback;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.io.ByteArrayInputStream;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com._650a.movietheatrecore.render.ResampleFilter;
+import com._650a.movietheatrecore.render.ScalingMode;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class PipedFrameSourceTest {
+
+    private static final int WIDTH = 4;
+    private static final int HEIGHT = 2;
+    private static final int FRAMES = 10;
+
+    @Test
+    void framesAreReadInOrderAndJumpsRestartThePipe() throws Exception {
+        List<Integer> starts = new ArrayList<>();
+        PipedFrameSource source = new PipedFrameSource(first -> {
+            starts.add(first);
+            byte[] stream = new byte[(FRAMES - first) * WIDTH * HEIGHT * 3];
+            for (int i = 0; i < stream.length; i++) {
+                stream[i] = (byte) (first + i / (WIDTH * HEIGHT * 3));
+            }
+            return Channels.newChannel(new ByteArrayInputStream(stream));
+        }, WIDTH, HEIGHT, 3);
+
+        assertEquals(0, frameOf(source.read(0)));
+        assertEquals(1, frameOf(source.read(1)));
+        assertEquals(4, frameOf(source.read(4)));
+        assertEquals(List.of(0), starts);
+
+        assertEquals(9, frameOf(source.read(9)));
+        assertNull(source.read(10));
+        assertNull(source.read(11));
+        assertEquals(2, frameOf(source.read(2)));
+        assertEquals(List.of(0, 9, 2), starts);
+
+        source.close();
+        assertNull(source.read(3));
+        assertEquals(3, starts.size());
+    }
+
+    @Test
+    void pipedFramesMatchWhatTheRendererScalesToOneToOne() {
+        PipedFrameSource.Output fit = PipedFrameSource.plan(1920, 1080, 2, 1, ScalingMode.FIT, ResampleFilter.AREA);
+        assertEquals(227, fit.width());
+        assertEquals(128, fit.height());
+        assertEquals("scale=227:128:flags=area", fit.filter());
+
+        PipedFrameSource.Output fill = PipedFrameSource.plan(1920, 1080, 1, 1, ScalingMode.FILL, ResampleFilter.LANCZOS3);
+        assertEquals(128, fill.width());
+        assertEquals("crop=1080:1080:420:0,scale=128:128:flags=lanczos", fill.filter());
+
+        PipedFrameSource.Output stretch = PipedFrameSource.plan(0, 0, 3, 2, ScalingMode.FIT, ResampleFilter.BILINEAR);
+        assertEquals("scale=384:256:flags=bilinear", stretch.filter());
+    }
+
+    private static int frameOf(BufferedImage image) {
+        byte[] data = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+        for (byte value : data) {
+            assertEquals(data[0], value);
+        }
+        return data[0];
+    }
+}
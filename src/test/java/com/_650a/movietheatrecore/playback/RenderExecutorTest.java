@@ -0,0 +1,106 @@
+package com._650a.movietheatrecore.playback;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RenderExecutorTest {
+
+    private static final Logger LOGGER = Logger.getLogger("RenderExecutorTest");
+
+    @Test
+    void showsRunBeforeAmbientScreensAndLanesTakeTurns() throws InterruptedException {
+        RenderExecutor executor = new RenderExecutor(1, LOGGER);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(6);
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+
+        RenderExecutor.Lane blocker = executor.open(RenderPriority.NORMAL);
+        blocker.execute(() -> await(release));
+        RenderExecutor.Lane ambient = executor.open(RenderPriority.AMBIENT);
+        RenderExecutor.Lane first = executor.open(RenderPriority.SHOW);
+        RenderExecutor.Lane second = executor.open(RenderPriority.SHOW);
+        for (int i = 0; i < 2; i++) {
+            int frame = i;
+            ambient.execute(() -> record(order, "ambient" + frame, done));
+            first.execute(() -> record(order, "a" + frame, done));
+            second.execute(() -> record(order, "b" + frame, done));
+        }
+        release.countDown();
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("a0", "b0", "a1", "b1", "ambient0", "ambient1"), order);
+        executor.shutdown(1000L);
+    }
+
+    @Test
+    void laneRunsItsTasksOneAtATime() throws InterruptedException {
+        RenderExecutor executor = new RenderExecutor(4, LOGGER);
+        RenderExecutor.Lane lane = executor.open(RenderPriority.NORMAL);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger overlaps = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(50);
+        for (int i = 0; i < 50; i++) {
+            lane.execute(() -> {
+                if (running.incrementAndGet() > 1) {
+                    overlaps.incrementAndGet();
+                }
+                Thread.yield();
+                running.decrementAndGet();
+                done.countDown();
+            });
+        }
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(0, overlaps.get());
+        executor.shutdown(1000L);
+    }
+
+    @Test
+    void closedLaneAndShutdownDropQueuedWork() throws InterruptedException {
+        RenderExecutor executor = new RenderExecutor(1, LOGGER);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger ran = new AtomicInteger();
+        RenderExecutor.Lane blocker = executor.open(RenderPriority.SHOW);
+        blocker.execute(() -> {
+            started.countDown();
+            await(release);
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        RenderExecutor.Lane lane = executor.open(RenderPriority.NORMAL);
+        lane.execute(ran::incrementAndGet);
+        lane.execute(ran::incrementAndGet);
+
+        assertEquals(2, executor.getQueuedTasks());
+        lane.close();
+        lane.execute(ran::incrementAndGet);
+        assertEquals(0, executor.getQueuedTasks());
+        release.countDown();
+        executor.shutdown(1000L);
+
+        assertEquals(0, ran.get());
+    }
+
+    private static void record(List<String> order, String name, CountDownLatch done) {
+        order.add(name);
+        done.countDown();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
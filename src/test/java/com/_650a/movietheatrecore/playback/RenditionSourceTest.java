@@ -0,0 +1,53 @@
+package com._650a.movietheatrecore.playback;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import org.junit.jupiter.api.Test;
+
+import com._650a.movietheatrecore.render.QuantizedTile;
+import com._650a.movietheatrecore.video.data.cache.FrameStore;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RenditionSourceTest {
+
+    @Test
+    void tilesReadBackWithWhatChangedSinceTheLastFrame() throws Exception {
+        File file = new File(Files.createTempDirectory("rendition").toFile(), "2x1.mtcf");
+        byte[] still = new byte[FrameStore.TILE_BYTES];
+        byte[] before = new byte[FrameStore.TILE_BYTES];
+        byte[] after = before.clone();
+        after[5 * QuantizedTile.SIZE + 3] = 7;
+        after[9 * QuantizedTile.SIZE + 20] = 7;
+        try (FrameStore.Writer writer = new FrameStore.Writer(file, 3)) {
+            writer.append(new byte[][] {still, before});
+            writer.append(new byte[][] {still, after});
+            writer.commit();
+        }
+        RenditionSource source = new RenditionSource(FrameStore.open(file));
+
+        QuantizedTile[] first = source.render(0);
+        assertTrue(first[0].changed());
+        assertEquals(QuantizedTile.SIZE, first[1].width());
+
+        QuantizedTile[] second = source.render(1);
+        assertFalse(second[0].changed());
+        assertSame(first[0].data(), second[0].data());
+        assertArrayEquals(after, second[1].data());
+        assertEquals(3, second[1].minX());
+        assertEquals(5, second[1].minY());
+        assertEquals(20, second[1].maxX());
+        assertEquals(9, second[1].maxY());
+
+        QuantizedTile[] repeat = source.render(2);
+        assertFalse(repeat[1].changed());
+        assertSame(second[1].data(), repeat[1].data());
+        assertNull(source.render(3));
+    }
+}
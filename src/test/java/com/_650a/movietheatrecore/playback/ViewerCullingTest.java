@@ -0,0 +1,41 @@
+package com._650a.movietheatrecore.playback;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ViewerCullingTest {
+
+    // Screen facing +Z, player 10 blocks in front of it.
+    private static final double TO_Z = -10.0;
+
+    @Test
+    void playersBehindTheScreenAreCulled() {
+        ViewerCulling culling = new ViewerCulling(0, true, 0);
+
+        assertTrue(culling.inView(0, 0, TO_Z, 0, 0, -1, 0, 0, 1, 2.0));
+        assertFalse(culling.inView(0, 0, -TO_Z, 0, 0, 1, 0, 0, 1, 2.0));
+    }
+
+    @Test
+    void lookingAwayIsCulledButLookingAtAnEdgeIsNot() {
+        ViewerCulling culling = new ViewerCulling(30, false, 0);
+        double sin45 = Math.sqrt(0.5);
+
+        assertTrue(culling.inView(0, 0, TO_Z, 0, 0, -1, 0, 0, 1, 2.0));
+        assertFalse(culling.inView(0, 0, TO_Z, 0, 0, 1, 0, 0, 1, 2.0));
+        assertFalse(culling.inView(0, 0, TO_Z, sin45, 0, -sin45, 0, 0, 1, 2.0));
+        // 45 degrees off the middle is within 30 degrees of the edge of a
+        // screen 10 blocks across.
+        assertTrue(culling.inView(0, 0, TO_Z, sin45, 0, -sin45, 0, 0, 1, 10.0));
+    }
+
+    @Test
+    void disabledCullingSeesEveryone() {
+        ViewerCulling culling = new ViewerCulling(0, false, 0);
+
+        assertFalse(culling.isEnabled());
+        assertTrue(culling.inView(0, 0, -TO_Z, 0, 0, 1, 0, 0, 1, 2.0));
+    }
+}
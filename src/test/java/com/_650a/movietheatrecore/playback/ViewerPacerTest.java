@@ -0,0 +1,70 @@
+package com._650a.movietheatrecore.playback;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ViewerPacerTest {
+
+    private static final long LIMIT = 1000L;
+
+    @Test
+    void backedUpViewerDropsToEveryOtherFrameAlone() {
+        ViewerPacer pacer = new ViewerPacer(LIMIT, 300);
+        UUID slow = UUID.randomUUID();
+        UUID fast = UUID.randomUUID();
+
+        assertFalse(pacer.admit(slow, 5000L));
+        assertTrue(pacer.admit(fast, 0L));
+        assertEquals(2, pacer.getDivisor(slow));
+        assertEquals(1, pacer.getDivisor(fast));
+
+        assertFalse(pacer.admit(slow, 0L));
+        assertTrue(pacer.admit(slow, 0L));
+        assertFalse(pacer.admit(slow, 0L));
+        assertTrue(pacer.admit(slow, 0L));
+    }
+
+    @Test
+    void viewerThatNeverDrainsEndsUpOnKeyframesOnly() {
+        ViewerPacer pacer = new ViewerPacer(LIMIT, 300);
+        UUID viewer = UUID.randomUUID();
+        for (int frame = 0; frame < 1000; frame++) {
+            pacer.admit(viewer, Long.MAX_VALUE);
+        }
+
+        assertTrue(pacer.isKeyframeOnly(viewer));
+        assertEquals(300, pacer.getDivisor(viewer));
+    }
+
+    @Test
+    void drainedViewerClimbsBackToFullRate() {
+        ViewerPacer pacer = new ViewerPacer(LIMIT, 300);
+        UUID viewer = UUID.randomUUID();
+        pacer.admit(viewer, 5000L);
+        pacer.admit(viewer, 5000L);
+        pacer.admit(viewer, 5000L);
+        assertEquals(3, pacer.getDivisor(viewer));
+
+        for (int frame = 0; frame < 200; frame++) {
+            pacer.admit(viewer, 0L);
+        }
+
+        assertEquals(1, pacer.getDivisor(viewer));
+    }
+
+    @Test
+    void unknownBacklogAndDisabledPacingSendEverything() {
+        ViewerPacer disabled = new ViewerPacer(0L, 300);
+        ViewerPacer pacer = new ViewerPacer(LIMIT, 300);
+        UUID viewer = UUID.randomUUID();
+        for (int frame = 0; frame < 10; frame++) {
+            assertTrue(disabled.admit(viewer, Long.MAX_VALUE));
+            assertTrue(pacer.admit(viewer, -1L));
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com._650a.movietheatrecore.playback;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import com._650a.movietheatrecore.render.QuantizedTile;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ViewerTileTrackerTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    void onlyChangedTilesAreSentAgain() {
+        ViewerTileTracker tracker = new ViewerTileTracker(0L);
+        UUID viewer = UUID.randomUUID();
+        QuantizedTile[] first = frame(new byte[16384], new byte[16384], new byte[16384]);
+        byte[] changed = new byte[16384];
+        changed[100] = 1;
+        QuantizedTile[] second = frame(first[0].data(), changed, first[2].data());
+
+        assertEquals(List.of(0, 1, 2), deliver(tracker, viewer, first, 0L));
+        assertEquals(List.of(1), deliver(tracker, viewer, second, SECOND));
+        assertEquals(List.of(), deliver(tracker, viewer, second, 2 * SECOND));
+        assertEquals(4L, tracker.getTilesSent());
+        assertEquals(5L, tracker.getTilesSkipped());
+    }
+
+    @Test
+    void newAndReturningViewersGetEveryTile() {
+        ViewerTileTracker tracker = new ViewerTileTracker(0L);
+        UUID stays = UUID.randomUUID();
+        UUID leaves = UUID.randomUUID();
+        QuantizedTile[] tiles = frame(new byte[16384], new byte[16384]);
+        deliver(tracker, stays, tiles, 0L);
+        deliver(tracker, leaves, tiles, 0L);
+
+        tracker.retain(Set.of(stays));
+
+        assertEquals(List.of(), deliver(tracker, stays, tiles, SECOND));
+        assertEquals(List.of(0, 1), deliver(tracker, leaves, tiles, SECOND));
+    }
+
+    @Test
+    void keyframeResendsEverythingOncePerInterval() {
+        ViewerTileTracker tracker = new ViewerTileTracker(10 * SECOND);
+        UUID viewer = UUID.randomUUID();
+        QuantizedTile[] tiles = frame(new byte[16384], new byte[16384]);
+        deliver(tracker, viewer, tiles, 0L);
+
+        assertEquals(List.of(), deliver(tracker, viewer, tiles, 9 * SECOND));
+        assertEquals(List.of(0, 1), deliver(tracker, viewer, tiles, 10 * SECOND));
+        assertEquals(List.of(), deliver(tracker, viewer, tiles, 11 * SECOND));
+    }
+
+    @Test
+    void changedTilesAreSentAsTheirDirtyRectangle() {
+        ViewerTileTracker tracker = new ViewerTileTracker(0L);
+        UUID viewer = UUID.randomUUID();
+        byte[] before = new byte[16384];
+        byte[] after = before.clone();
+        after[10 * 128 + 20] = 5;
+        after[30 * 128 + 7] = 9;
+        after[31 * 128 + 40] = 1;
+        List<int[]> rects = new ArrayList<>();
+        tracker.deliver(viewer, frame(before), 0L, (i, x, y, width, height) -> rects.add(new int[] {x, y, width, height}));
+        tracker.deliver(viewer, frame(after), SECOND, (i, x, y, width, height) -> rects.add(new int[] {x, y, width, height}));
+        tracker.deliver(viewer, frame(after.clone()), 2 * SECOND, (i, x, y, width, height) -> rects.add(new int[] {x, y, width, height}));
+
+        assertEquals(2, rects.size());
+        assertArrayEquals(new int[] {0, 0, 128, 128}, rects.get(0));
+        assertArrayEquals(new int[] {7, 10, 34, 22}, rects.get(1));
+        assertEquals(16384L + 34 * 22, tracker.getBytesSent());
+        assertEquals(2 * 16384L - 34 * 22, tracker.getBytesSaved());
+    }
+
+    private static List<Integer> deliver(ViewerTileTracker tracker, UUID viewer, QuantizedTile[] tiles, long now) {
+        List<Integer> sent = new ArrayList<>();
+        tracker.deliver(viewer, tiles, now, (i, x, y, width, height) -> sent.add(i));
+        return sent;
+    }
+
+    private static QuantizedTile[] frame(byte[]... data) {
+        QuantizedTile[] tiles = new QuantizedTile[data.length];
+        for (int i = 0; i < data.length; i++) {
+            tiles[i] = QuantizedTile.full(data[i]);
+        }
+        return tiles;
+    }
+}
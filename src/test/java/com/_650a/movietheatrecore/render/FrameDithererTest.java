@@ -0,0 +1,102 @@
+package com._650a.movietheatrecore.render;
+
+import java.awt.Color;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com._650a.movietheatrecore.map.colors.MapColorQuantizer;
+import com._650a.movietheatrecore.map.colors.MapColorSpaceData;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FrameDithererTest {
+
+    private static final MapColorSpaceData COLOR_SPACE = new MapColorSpaceData();
+    private static final int[] PALETTE = new int[256];
+
+    static {
+        // 4 levels per channel, palette code 4 + r + 4g + 16b.
+        for (int i = 0; i < 64; i++) {
+            int rgb = (i & 3) * 85 << 16 | (i >> 2 & 3) * 85 << 8 | (i >> 4 & 3) * 85;
+            PALETTE[4 + i] = rgb;
+            COLOR_SPACE.setColor((byte) (4 + i), new Color(rgb));
+        }
+        for (int i = 0; i < MapColorSpaceData.DATA_SIZE; i++) {
+            int r = ((i & 0xFF) + 42) / 85;
+            int g = ((i >> 8 & 0xFF) + 42) / 85;
+            int b = ((i >> 16 & 0xFF) + 42) / 85;
+            COLOR_SPACE.set(i, (byte) (4 + r + 4 * g + 16 * b));
+        }
+    }
+
+    @Test
+    void noneLeavesPixelsUntouched() {
+        int[] pixels = randomPixels(256, 128, new Random(1));
+        int[] original = pixels.clone();
+        new FrameDitherer().dither(pixels, 256, 128, DitherMode.NONE, new MapColorQuantizer(COLOR_SPACE));
+        assertArrayEquals(original, pixels);
+    }
+
+    @Test
+    void floydSteinbergOnlyWritesPaletteColorsAndKeepsAverage() {
+        int width = 256;
+        int height = 256;
+        int[] pixels = new int[width * height];
+        Arrays.fill(pixels, 0xFF606060);
+        new FrameDitherer().dither(pixels, width, height, DitherMode.FLOYD_STEINBERG, new MapColorQuantizer(COLOR_SPACE));
+
+        long sum = 0;
+        for (int pixel : pixels) {
+            assertTrue(contains(PALETTE, pixel & 0xFFFFFF), Integer.toHexString(pixel));
+            sum += pixel & 0xFF;
+        }
+        assertEquals(0x60, sum / (double) pixels.length, 1.0);
+    }
+
+    @Test
+    void stableOrderedIgnoresSmallNoise() {
+        int width = 128;
+        int height = 128;
+        MapColorQuantizer quantizer = new MapColorQuantizer(COLOR_SPACE);
+        FrameDitherer ditherer = new FrameDitherer();
+        Random random = new Random(3);
+        int[] source = randomPixels(width, height, random);
+
+        int[] first = source.clone();
+        ditherer.dither(first, width, height, DitherMode.ORDERED_STABLE, quantizer);
+
+        int[] noisy = source.clone();
+        for (int i = 0; i < noisy.length; i++) {
+            int delta = random.nextInt(5) - 2;
+            int blue = Math.max(0, Math.min(255, (noisy[i] & 0xFF) + delta));
+            noisy[i] = (noisy[i] & 0xFFFFFF00) | blue;
+        }
+        ditherer.dither(noisy, width, height, DitherMode.ORDERED_STABLE, quantizer);
+        assertArrayEquals(first, noisy);
+
+        int[] plain = source.clone();
+        new FrameDitherer().dither(plain, width, height, DitherMode.ORDERED, quantizer);
+        assertArrayEquals(plain, first);
+    }
+
+    private static int[] randomPixels(int width, int height, Random random) {
+        int[] pixels = new int[width * height];
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = 0xFF000000 | random.nextInt(1 << 24);
+        }
+        return pixels;
+    }
+
+    private static boolean contains(int[] values, int value) {
+        for (int i = 4; i < 68; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,85 @@
+package com._650a.movietheatrecore.render;
+
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+import com._650a.movietheatrecore.map.colors.MapColorQuantizer;
+import com._650a.movietheatrecore.map.colors.TestColorSpaces;
+
+/**
+ * Compares time and heap allocation per frame of the old
+ * scale-split-convert path against {@link TileRenderer}, with ten 4x3
+ * screens playing a 1920x1080 source.
+ *
+ * <p>Not a unit test. Run it against the test classpath with
+ * {@code java ... com._650a.movietheatrecore.render.RenderPathBenchmark}.
+ * Decoding is left out since both paths share it.
+ */
+public final class RenderPathBenchmark {
+
+    private static final int SCREENS = 10;
+    private static final int COLUMNS = 4;
+    private static final int ROWS = 3;
+    private static final int FRAMES = 30;
+
+    private RenderPathBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        MapColorQuantizer quantizer = new MapColorQuantizer(TestColorSpaces.synthetic());
+        BufferedImage[] frames = new BufferedImage[4];
+        Random random = new Random(1);
+        for (int f = 0; f < frames.length; f++) {
+            frames[f] = new BufferedImage(1920, 1080, BufferedImage.TYPE_3BYTE_BGR);
+            int[] row = new int[1920];
+            for (int y = 0; y < 1080; y++) {
+                for (int x = 0; x < row.length; x++) {
+                    row[x] = random.nextInt();
+                }
+                frames[f].setRGB(0, y, 1920, 1, row, 0, 1920);
+            }
+        }
+
+        Graphics2DScaler scaler = new Graphics2DScaler();
+        Runnable legacy = () -> {
+            for (int s = 0; s < SCREENS; s++) {
+                for (int f = 0; f < FRAMES; f++) {
+                    BufferedImage scaled = scaler.scale(frames[f % frames.length], COLUMNS * 128, ROWS * 128, ScalingMode.FIT);
+                    for (BufferedImage tile : MapTileSplitter.split(scaled, COLUMNS, ROWS)) {
+                        byte[] codes = new byte[128 * 128];
+                        quantizer.quantize(tile, codes, 0);
+                    }
+                }
+            }
+        };
+        TileRenderer[] renderers = new TileRenderer[SCREENS];
+        for (int s = 0; s < SCREENS; s++) {
+            renderers[s] = new TileRenderer();
+        }
+        Runnable fused = () -> {
+            for (int f = 0; f < FRAMES; f++) {
+                for (TileRenderer renderer : renderers) {
+                    renderer.render(frames[f % frames.length], COLUMNS, ROWS, ScalingMode.FIT, ResampleFilter.BILINEAR, quantizer, null, DitherMode.NONE);
+                }
+            }
+        };
+
+        measure("warmup legacy", legacy);
+        measure("warmup fused", fused);
+        measure("legacy", legacy);
+        measure("fused", fused);
+    }
+
+    private static void measure(String name, Runnable run) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        run.run();
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        int screenFrames = SCREENS * FRAMES;
+        System.out.printf("%-14s %7.2f ms/screen-frame  %9.1f KB allocated/screen-frame%n",
+                name, elapsed / 1_000_000.0 / screenFrames, allocated / 1024.0 / screenFrames);
+    }
+}
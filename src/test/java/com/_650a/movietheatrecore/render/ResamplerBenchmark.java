@@ -0,0 +1,93 @@
+package com._650a.movietheatrecore.render;
+
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+/**
+ * Compares the Graphics2D scaler against {@link FrameScaler} with each
+ * {@link ResampleFilter}, for a 1920x1080 source shrunk to 4x3 and 8x5
+ * map screens.
+ *
+ * <p>Not a unit test. Run it against the test classpath with
+ * {@code java ... com._650a.movietheatrecore.render.ResamplerBenchmark}.
+ * Besides time per frame it prints the error on one-pixel stripes, which
+ * should average to mid gray; a high value means aliasing. The filters run on
+ * the calling thread, then {@code AREA} runs again with the
+ * {@link ResamplePool} started at one thread per core.
+ */
+public final class ResamplerBenchmark {
+
+    private static final int ROUNDS = 20;
+
+    private ResamplerBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        BufferedImage source = new BufferedImage(1920, 1080, BufferedImage.TYPE_3BYTE_BGR);
+        Random random = new Random(1);
+        int[] row = new int[1920];
+        for (int y = 0; y < 1080; y++) {
+            for (int x = 0; x < row.length; x++) {
+                row[x] = random.nextInt();
+            }
+            source.setRGB(0, y, 1920, 1, row, 0, 1920);
+        }
+        BufferedImage stripes = new BufferedImage(1920, 1080, BufferedImage.TYPE_3BYTE_BGR);
+        for (int y = 0; y < 1080; y++) {
+            for (int x = 0; x < row.length; x++) {
+                row[x] = x % 2 == 0 ? 0xFFFFFF : 0;
+            }
+            stripes.setRGB(0, y, 1920, 1, row, 0, 1920);
+        }
+
+        int threads = Runtime.getRuntime().availableProcessors();
+        for (int[] screen : new int[][] {{4, 3}, {8, 5}}) {
+            int width = screen[0] * 128;
+            int height = screen[1] * 128;
+            Graphics2DScaler graphics = new Graphics2DScaler();
+            report("graphics2d", screen, time(() -> graphics.scale(source, width, height, ScalingMode.FIT)),
+                    aliasing(graphics.scale(stripes, width, height, ScalingMode.STRETCH)));
+            for (ResampleFilter filter : ResampleFilter.values()) {
+                FrameScaler scaler = new FrameScaler(filter);
+                report(filter.name().toLowerCase(), screen, time(() -> scaler.scale(source, width, height, ScalingMode.FIT)),
+                        aliasing(scaler.scale(stripes, width, height, ScalingMode.STRETCH)));
+            }
+            FrameScaler area = new FrameScaler(ResampleFilter.AREA);
+            ResamplePool.start(threads);
+            try {
+                report("area x" + threads, screen, time(() -> area.scale(source, width, height, ScalingMode.FIT)),
+                        aliasing(area.scale(stripes, width, height, ScalingMode.STRETCH)));
+            } finally {
+                ResamplePool.shutdown();
+            }
+        }
+    }
+
+    private static double time(Runnable run) {
+        for (int i = 0; i < ROUNDS; i++) {
+            run.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            run.run();
+        }
+        return (System.nanoTime() - start) / 1_000_000.0 / ROUNDS;
+    }
+
+    private static double aliasing(BufferedImage image) {
+        double sum = 0.0;
+        int count = 0;
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                double error = (image.getRGB(x, y) & 0xFF) - 127.5;
+                sum += error * error;
+                count++;
+            }
+        }
+        return Math.sqrt(sum / count);
+    }
+
+    private static void report(String name, int[] screen, double millis, double aliasing) {
+        System.out.printf("%dx%d %-10s %7.2f ms/frame  stripe rms error %6.1f%n", screen[0], screen[1], name, millis, aliasing);
+    }
+}
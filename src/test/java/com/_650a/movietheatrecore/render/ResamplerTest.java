@@ -0,0 +1,112 @@
+package com._650a.movietheatrecore.render;
+
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResamplerTest {
+
+    @Test
+    void weightsSumToOneForEveryGeometry() {
+        int[][] sizes = {{1920, 1080, 512, 384}, {640, 480, 1024, 640}, {37, 901, 128, 128}};
+        for (int[] size : sizes) {
+            for (ScalingMode mode : ScalingMode.values()) {
+                for (ResampleFilter filter : ResampleFilter.values()) {
+                    SamplingTable table = SamplingTable.get(size[0], size[1], size[2], size[3], mode, filter);
+                    assertSums(table.xIndex, table.xWeight, table.xTaps, filter + " " + mode + " x");
+                    assertSums(table.yIndex, table.yWeight, table.yTaps, filter + " " + mode + " y");
+                }
+            }
+        }
+    }
+
+    @Test
+    void solidColorStaysSolid() {
+        BufferedImage source = new BufferedImage(301, 173, BufferedImage.TYPE_3BYTE_BGR);
+        for (int y = 0; y < 173; y++) {
+            for (int x = 0; x < 301; x++) {
+                source.setRGB(x, y, 0xFF2080C0);
+            }
+        }
+        for (ResampleFilter filter : ResampleFilter.values()) {
+            BufferedImage scaled = new FrameScaler(filter).scale(source, 256, 128, ScalingMode.STRETCH);
+            for (int y = 0; y < 128; y++) {
+                for (int x = 0; x < 256; x++) {
+                    assertEquals(0xFF2080C0, scaled.getRGB(x, y), filter + " at " + x + "," + y);
+                }
+            }
+        }
+    }
+
+    @Test
+    void areaAveragesFineDetailInsteadOfAliasing() {
+        BufferedImage stripes = new BufferedImage(512, 64, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < 64; y++) {
+            for (int x = 0; x < 512; x++) {
+                stripes.setRGB(x, y, x % 2 == 0 ? 0xFFFFFF : 0x000000);
+            }
+        }
+        for (ResampleFilter filter : new ResampleFilter[] {ResampleFilter.AREA, ResampleFilter.LANCZOS3}) {
+            BufferedImage scaled = new FrameScaler(filter).scale(stripes, 128, 16, ScalingMode.STRETCH);
+            // Edge columns see repeated edge pixels, so only the interior is exact.
+            for (int x = 4; x < 124; x++) {
+                int gray = scaled.getRGB(x, 8) & 0xFF;
+                assertTrue(Math.abs(gray - 128) <= 2, filter + " column " + x + " is " + gray);
+            }
+        }
+    }
+
+    @Test
+    void fitLetterboxIsTransparent() {
+        BufferedImage source = new BufferedImage(1920, 1080, BufferedImage.TYPE_INT_RGB);
+        ScalingTransform transform = ScalingMath.computeTransform(1920, 1080, 512, 384, ScalingMode.FIT);
+        BufferedImage scaled = new FrameScaler(ResampleFilter.LANCZOS3).scale(source, 512, 384, ScalingMode.FIT);
+        for (int y = 0; y < 384; y++) {
+            boolean inside = y >= transform.offsetY() && y < transform.offsetY() + transform.scaledHeight(1080);
+            assertEquals(inside ? 0xFF : 0x00, scaled.getRGB(256, y) >>> 24, "row " + y);
+        }
+    }
+
+    @Test
+    void pooledRowsMatchTheCallingThread() {
+        BufferedImage source = new BufferedImage(640, 360, BufferedImage.TYPE_3BYTE_BGR);
+        Random random = new Random(7);
+        for (int y = 0; y < 360; y++) {
+            for (int x = 0; x < 640; x++) {
+                source.setRGB(x, y, random.nextInt());
+            }
+        }
+        for (ScalingMode mode : ScalingMode.values()) {
+            FrameScaler scaler = new FrameScaler(ResampleFilter.AREA);
+            BufferedImage serial = scaler.scale(source, 256, 256, mode);
+            ResamplePool.start(4);
+            try {
+                BufferedImage pooled = scaler.scale(source, 256, 256, mode);
+                for (int y = 0; y < 256; y++) {
+                    for (int x = 0; x < 256; x++) {
+                        assertEquals(serial.getRGB(x, y), pooled.getRGB(x, y), mode + " at " + x + "," + y);
+                    }
+                }
+            } finally {
+                ResamplePool.shutdown();
+            }
+        }
+    }
+
+    private static void assertSums(int[] index, int[] weight, int taps, String message) {
+        for (int d = 0; d < index.length / taps; d++) {
+            if (index[d * taps] < 0) {
+                continue;
+            }
+            int sum = 0;
+            for (int k = 0; k < taps; k++) {
+                sum += weight[d * taps + k];
+            }
+            assertEquals(SamplingTable.WEIGHT_ONE, sum, message + " at " + d);
+        }
+    }
+}
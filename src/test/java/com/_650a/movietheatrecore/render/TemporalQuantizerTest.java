@@ -0,0 +1,99 @@
+package com._650a.movietheatrecore.render;
+
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com._650a.movietheatrecore.map.colors.MapColorQuantizer;
+import com._650a.movietheatrecore.map.colors.MapColorSpaceData;
+import com._650a.movietheatrecore.map.colors.TestColorSpaces;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TemporalQuantizerTest {
+
+    private static final MapColorSpaceData COLOR_SPACE = TestColorSpaces.synthetic();
+
+    @Test
+    void unchangedFrameReusesTiles() {
+        MapColorQuantizer quantizer = new MapColorQuantizer(COLOR_SPACE);
+        TemporalQuantizer temporal = new TemporalQuantizer();
+        BufferedImage image = randomImage(256, 128, new Random(1));
+
+        QuantizedTile[] first = temporal.quantize(image, quantizer, 2, 1);
+        QuantizedTile[] second = temporal.quantize(copy(image), quantizer, 2, 1);
+
+        for (int i = 0; i < first.length; i++) {
+            assertTrue(first[i].changed());
+            assertFalse(second[i].changed());
+            assertSame(first[i].data(), second[i].data());
+        }
+    }
+
+    @Test
+    void changedBlocksMatchFullQuantization() {
+        MapColorQuantizer quantizer = new MapColorQuantizer(COLOR_SPACE);
+        TemporalQuantizer temporal = new TemporalQuantizer();
+        BufferedImage image = randomImage(256, 256, new Random(2));
+        QuantizedTile[] first = temporal.quantize(image, quantizer, 2, 2);
+        byte[] before = first[3].data().clone();
+
+        BufferedImage next = copy(image);
+        next.setRGB(128 + 9, 128 + 20, 0xFF123456);
+        next.setRGB(128 + 70, 128 + 100, 0xFF654321);
+        QuantizedTile[] second = temporal.quantize(next, quantizer, 2, 2);
+
+        for (int i = 0; i < 3; i++) {
+            assertFalse(second[i].changed());
+        }
+        QuantizedTile tile = second[3];
+        assertTrue(tile.changed());
+        assertEquals(8, tile.minX());
+        assertEquals(16, tile.minY());
+        assertEquals(71, tile.maxX());
+        assertEquals(103, tile.maxY());
+        assertArrayEquals(before, first[3].data());
+
+        byte[] expected = new byte[128 * 128];
+        quantizer.quantize(next, 128, 128, 128, 128, expected, 0);
+        assertArrayEquals(expected, tile.data());
+    }
+
+    @Test
+    void colorTableChangeForcesFullFrame() {
+        MapColorSpaceData colorSpace = new MapColorSpaceData();
+        MapColorQuantizer quantizer = new MapColorQuantizer(colorSpace);
+        TemporalQuantizer temporal = new TemporalQuantizer();
+        BufferedImage image = randomImage(128, 128, new Random(3));
+
+        temporal.quantize(image, quantizer, 1, 1);
+        colorSpace.readFrom(COLOR_SPACE);
+        QuantizedTile[] tiles = temporal.quantize(image, quantizer, 1, 1);
+
+        assertTrue(tiles[0].changed());
+        byte[] expected = new byte[128 * 128];
+        quantizer.quantize(image, expected, 0);
+        assertArrayEquals(expected, tiles[0].data());
+    }
+
+    private static BufferedImage randomImage(int width, int height, Random random) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, 0xFF000000 | random.nextInt(1 << 24));
+            }
+        }
+        return image;
+    }
+
+    private static BufferedImage copy(BufferedImage image) {
+        BufferedImage copy = new BufferedImage(image.getWidth(), image.getHeight(), image.getType());
+        copy.getGraphics().drawImage(image, 0, 0, null);
+        return copy;
+    }
+}
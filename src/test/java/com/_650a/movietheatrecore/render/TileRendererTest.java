@@ -0,0 +1,98 @@
+package com._650a.movietheatrecore.render;
+
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com._650a.movietheatrecore.map.colors.MapColorQuantizer;
+import com._650a.movietheatrecore.map.colors.MapColorSpaceData;
+import com._650a.movietheatrecore.map.colors.TestColorSpaces;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class TileRendererTest {
+
+    private static final MapColorSpaceData COLOR_SPACE = TestColorSpaces.synthetic();
+
+    @Test
+    void everySourceLayoutRendersTheSameTiles() {
+        int[] types = {
+                BufferedImage.TYPE_INT_RGB,
+                BufferedImage.TYPE_INT_ARGB,
+                BufferedImage.TYPE_INT_BGR,
+                BufferedImage.TYPE_3BYTE_BGR,
+                BufferedImage.TYPE_4BYTE_ABGR,
+                BufferedImage.TYPE_BYTE_GRAY
+        };
+        MapColorQuantizer quantizer = new MapColorQuantizer(COLOR_SPACE);
+        for (int type : types) {
+            BufferedImage image = new BufferedImage(191, 97, type);
+            Random random = new Random(type);
+            for (int y = 0; y < 97; y++) {
+                for (int x = 0; x < 191; x++) {
+                    image.setRGB(x, y, random.nextInt());
+                }
+            }
+            BufferedImage reference = new BufferedImage(191, 97, BufferedImage.TYPE_INT_ARGB);
+            reference.setRGB(0, 0, 191, 97, image.getRGB(0, 0, 191, 97, null, 0, 191), 0, 191);
+            for (ScalingMode mode : ScalingMode.values()) {
+                QuantizedTile[] expected = new TileRenderer().render(reference, 2, 1, mode, ResampleFilter.BILINEAR, quantizer, null, DitherMode.NONE);
+                QuantizedTile[] actual = new TileRenderer().render(image, 2, 1, mode, ResampleFilter.BILINEAR, quantizer, null, DitherMode.NONE);
+                for (int i = 0; i < expected.length; i++) {
+                    assertArrayEquals(expected[i].data(), actual[i].data(), "type " + type + " " + mode);
+                }
+            }
+        }
+    }
+
+    @Test
+    void fitLeavesLetterboxTransparent() {
+        BufferedImage image = solid(1920, 1080, 0xFF3366CC);
+        QuantizedTile[] tiles = new TileRenderer().render(image, 1, 1, ScalingMode.FIT, ResampleFilter.BILINEAR, new MapColorQuantizer(COLOR_SPACE), null, DitherMode.NONE);
+
+        ScalingTransform transform = ScalingMath.computeTransform(1920, 1080, 128, 128, ScalingMode.FIT);
+        byte color = COLOR_SPACE.get(0x33, 0x66, 0xCC);
+        byte[] data = tiles[0].data();
+        for (int y = 0; y < 128; y++) {
+            boolean inside = y >= transform.offsetY() && y < transform.offsetY() + transform.scaledHeight(1080);
+            assertEquals(inside ? color : 0, data[y * 128 + 64], "row " + y);
+        }
+    }
+
+    @Test
+    void stretchCoversEveryTileAndRepeatsCleanly() {
+        BufferedImage image = new BufferedImage(300, 200, BufferedImage.TYPE_3BYTE_BGR);
+        Random random = new Random(5);
+        for (int y = 0; y < 200; y++) {
+            for (int x = 0; x < 300; x++) {
+                image.setRGB(x, y, random.nextInt());
+            }
+        }
+        TileRenderer renderer = new TileRenderer();
+        MapColorQuantizer quantizer = new MapColorQuantizer(COLOR_SPACE);
+        QuantizedTile[] first = renderer.render(image, 3, 2, ScalingMode.STRETCH, ResampleFilter.BILINEAR, quantizer, null, DitherMode.NONE);
+        QuantizedTile[] second = renderer.render(image, 3, 2, ScalingMode.STRETCH, ResampleFilter.BILINEAR, quantizer, null, DitherMode.NONE);
+
+        assertEquals(6, first.length);
+        for (int i = 0; i < first.length; i++) {
+            for (byte code : first[i].data()) {
+                assertFalse(code == 0);
+            }
+            assertFalse(second[i].changed());
+        }
+    }
+
+    private static BufferedImage solid(int width, int height, int argb) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        int[] row = new int[width];
+        Arrays.fill(row, argb);
+        for (int y = 0; y < height; y++) {
+            image.setRGB(0, y, width, 1, row, 0, width);
+        }
+        return image;
+    }
+}
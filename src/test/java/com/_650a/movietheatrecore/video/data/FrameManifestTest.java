@@ -0,0 +1,125 @@
+package com._650a.movietheatrecore.video.data;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FrameManifestTest {
+
+    @Test
+    void collectOnlyTakesFramesFollowedByAnother() throws IOException {
+        File folder = Files.createTempDirectory("frame-manifest").toFile();
+        FrameManifest manifest = FrameManifest.of(folder, ".jpg");
+        manifest.index();
+        frame(new File(folder, "0.jpg"), 0);
+        frame(new File(folder, "1.jpg"), 1);
+
+        assertEquals(1, manifest.collect(0, false));
+        assertTrue(manifest.has(0));
+        assertFalse(manifest.has(1));
+        assertTrue(new File(folder, "1.jpg").isFile());
+
+        assertEquals(2, manifest.collect(1, true));
+        assertEquals(2, manifest.getContiguousCount());
+        assertEquals(new File(folder, "00/00/1.jpg"), manifest.getFrameFile(1));
+        assertTrue(manifest.getFrameFile(1).isFile());
+        FrameManifest.forget(folder);
+    }
+
+    @Test
+    void flatFoldersAreShardedOnceAndReadBack() throws IOException {
+        File folder = Files.createTempDirectory("frame-manifest").toFile();
+        for (int index : new int[] {0, 1, 2, 1500}) {
+            frame(new File(folder, index + ".jpg"), index);
+        }
+        FrameManifest manifest = FrameManifest.of(folder, ".jpg");
+        assertFalse(manifest.isIndexed());
+        assertEquals(new File(folder, "1500.jpg"), manifest.getFrameFile(1500));
+
+        manifest.index();
+        assertEquals(4, manifest.getCount());
+        assertEquals(3, manifest.getContiguousCount());
+        assertEquals(2, manifest.getRanges().size());
+        assertTrue(new File(folder, "00/01/1500.jpg").isFile());
+        assertFalse(new File(folder, "1500.jpg").exists());
+
+        // A torn append is cut off when the manifest is read again.
+        File file = new File(folder, FrameManifest.FILE_NAME);
+        Files.writeString(file.toPath(), "3 4", StandardCharsets.US_ASCII, StandardOpenOption.APPEND);
+        FrameManifest.forget(folder);
+        FrameManifest reopened = FrameManifest.of(folder, ".jpg");
+        assertTrue(reopened.isIndexed());
+        assertEquals(4, reopened.getCount());
+        assertTrue(reopened.has(1500));
+        assertTrue(Files.readString(file.toPath()).endsWith("\n"));
+        FrameManifest.forget(folder);
+    }
+
+    @Test
+    void verifyReportsChangedAndCopiedFramesStayValid() throws IOException {
+        File folder = Files.createTempDirectory("frame-manifest").toFile();
+        frame(new File(folder, "0.jpg"), 0);
+        frame(new File(folder, "1.jpg"), 1);
+        frame(new File(folder, "3.jpg"), 3);
+        FrameManifest manifest = FrameManifest.of(folder, ".jpg");
+        manifest.index();
+        manifest.copy(1, 2);
+        assertEquals(4, manifest.getContiguousCount());
+        assertTrue(manifest.verify().isEmpty());
+
+        frame(manifest.getFrameFile(3), 9);
+        List<FrameManifest.Range> broken = manifest.verify();
+        assertEquals(1, broken.size());
+        assertEquals(3, broken.get(0).start());
+        FrameManifest.forget(folder);
+    }
+
+    @Test
+    void deletedFoldersAreNotServedFromMemory() throws IOException {
+        File media = Files.createTempDirectory("frame-manifest").toFile();
+        File folder = new File(media, "frames");
+        frame(new File(folder, "0.jpg"), 0);
+        FrameManifest manifest = FrameManifest.of(folder, ".jpg");
+        manifest.index();
+        assertEquals(1, manifest.getCount());
+
+        Files.delete(manifest.getFrameFile(0).toPath());
+        Files.delete(new File(folder, FrameManifest.FILE_NAME).toPath());
+        assertEquals(0, FrameManifest.of(folder, ".jpg").getCount());
+
+        FrameManifest recreated = FrameManifest.of(folder, ".jpg");
+        FrameManifest.forget(media);
+        assertNotSame(recreated, FrameManifest.of(folder, ".jpg"));
+        FrameManifest.forget(media);
+    }
+
+    @Test
+    void foldersNotIndexedStayFlat() throws IOException {
+        File folder = Files.createTempDirectory("frame-manifest").toFile();
+        frame(new File(folder, "0.jpg"), 0);
+        FrameManifest manifest = FrameManifest.of(folder, ".jpg");
+
+        assertTrue(manifest.has(0));
+        assertFalse(manifest.has(1));
+        manifest.copy(0, 1);
+        assertTrue(new File(folder, "1.jpg").isFile());
+        assertFalse(manifest.isIndexed());
+        assertFalse(new File(folder, FrameManifest.FILE_NAME).exists());
+        FrameManifest.forget(folder);
+    }
+
+    private static void frame(File file, int value) throws IOException {
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), new byte[] {(byte) value, 1, 2, 3});
+    }
+}
@@ -0,0 +1,134 @@
+package com._650a.movietheatrecore.video.data.cache;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FrameStoreTest {
+
+    @Test
+    void framesReadBackAsWrittenWithRepeatsAndGaps() throws IOException {
+        Path folder = Files.createTempDirectory("frame-store");
+        try {
+            File file = folder.resolve(FrameStore.FILE_NAME).toFile();
+            try (FrameStore.Writer writer = new FrameStore.Writer(file, 5)) {
+                writer.skip();
+                writer.append(frame(1, 2));
+                writer.append(frame(1, 2));
+                writer.append(frame(3, 2));
+                writer.commit();
+            }
+
+            assertTrue(FrameStore.isComplete(file, 5));
+            assertFalse(new File(file.getPath() + ".part").exists());
+            FrameStore store = FrameStore.open(file);
+            assertEquals(2, store.getTilesPerFrame());
+            assertFalse(store.hasFrame(0));
+            assertNull(store.getTile(0, 0));
+            assertArrayEquals(tile(1, 1), store.getTile(1, 1));
+            assertArrayEquals(tile(1, 0), store.getTile(2, 0));
+            assertArrayEquals(tile(3, 1), store.getTile(3, 1));
+            // Frames never appended repeat the last one.
+            assertArrayEquals(tile(3, 1), store.getTile(4, 1));
+            // The repeated frame shares its payload: header, index and two frames.
+            assertEquals(24 + 8 * 5 + 2L * 2 * FrameStore.TILE_BYTES, file.length());
+        } finally {
+            delete(folder);
+        }
+    }
+
+    @Test
+    void uncommittedStoreIsDiscarded() throws IOException {
+        Path folder = Files.createTempDirectory("frame-store");
+        try {
+            File file = folder.resolve(FrameStore.FILE_NAME).toFile();
+            try (FrameStore.Writer writer = new FrameStore.Writer(file, 3)) {
+                writer.append(frame(1, 1));
+            }
+
+            assertFalse(file.exists());
+            assertFalse(new File(file.getPath() + ".part").exists());
+            assertFalse(FrameStore.isComplete(file, 3));
+        } finally {
+            delete(folder);
+        }
+    }
+
+    @Test
+    void legacyFoldersAndZipsMigrate() throws IOException {
+        Path folder = Files.createTempDirectory("frame-store");
+        try {
+            File folders = folder.resolve("folders").toFile();
+            File zips = folder.resolve("zips").toFile();
+            for (int count = 0; count < 2; count++) {
+                File frameFolder = new File(folders, String.valueOf(count));
+                frameFolder.mkdirs();
+                zips.mkdirs();
+                try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(new File(zips, count + ".zip")))) {
+                    // Zip entries are looked up by name, not read in order.
+                    for (int j = 2; j >= 0; j--) {
+                        Files.write(new File(frameFolder, j + ".cache").toPath(), tile(count, j));
+                        zip.putNextEntry(new ZipEntry(j + ".cache"));
+                        zip.write(tile(count, j));
+                        zip.closeEntry();
+                    }
+                }
+            }
+
+            File fromFolders = folder.resolve("a.mtcf").toFile();
+            File fromZips = folder.resolve("b.mtcf").toFile();
+            FrameStore.migrate(folders, false, 2, fromFolders);
+            FrameStore.migrate(zips, true, 2, fromZips);
+
+            for (File file : new File[] {fromFolders, fromZips}) {
+                FrameStore store = FrameStore.open(file);
+                assertEquals(3, store.getTilesPerFrame());
+                for (int count = 0; count < 2; count++) {
+                    for (int j = 0; j < 3; j++) {
+                        assertArrayEquals(tile(count, j), store.getTile(count, j));
+                    }
+                }
+            }
+        } finally {
+            delete(folder);
+        }
+    }
+
+    private static byte[][] frame(int seed, int tiles) {
+        byte[][] frame = new byte[tiles][];
+        for (int j = 0; j < tiles; j++) {
+            frame[j] = tile(seed, j);
+        }
+        return frame;
+    }
+
+    private static byte[] tile(int seed, int index) {
+        byte[] tile = new byte[FrameStore.TILE_BYTES];
+        for (int i = 0; i < tile.length; i++) {
+            tile[i] = (byte) (seed * 31 + index * 7 + i);
+        }
+        return tile;
+    }
+
+    private static void delete(Path folder) throws IOException {
+        try (Stream<Path> paths = Files.walk(folder)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+}